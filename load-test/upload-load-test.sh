@@ -0,0 +1,48 @@
+#!/bin/bash
+# Concurrent upload load test. Start the application first, once with the
+# default profile and once with --spring.profiles.active=virtual-threads,
+# then run this script with the same arguments against each and compare.
+#
+# Usage: load-test/upload-load-test.sh [concurrency] [requests] [file-size-kb] [endpoint]
+#   endpoint: /api/jobs (async, default) or /upload (synchronous form upload)
+#
+# Add -Djdk.tracePinnedThreads=short to the JVM under test to log any
+# virtual thread pinned while blocking.
+
+set -euo pipefail
+
+CONCURRENCY=${1:-50}
+REQUESTS=${2:-500}
+FILE_SIZE_KB=${3:-256}
+ENDPOINT=${4:-/api/jobs}
+BASE_URL=${BASE_URL:-http://localhost:8080}
+
+WORK_DIR=$(mktemp -d)
+trap 'rm -rf "$WORK_DIR"' EXIT
+
+# every request uploads distinct content so duplicate detection does not short-circuit
+for i in $(seq 1 "$REQUESTS"); do
+    { echo "load test file $i $RANDOM"; head -c $((FILE_SIZE_KB * 1024)) /dev/urandom | base64 -w 76; } \
+        > "$WORK_DIR/file-$i.txt"
+done
+
+echo "Uploading $REQUESTS files of ${FILE_SIZE_KB}KB to $BASE_URL$ENDPOINT with concurrency $CONCURRENCY"
+START=$(date +%s.%N)
+seq 1 "$REQUESTS" | xargs -P "$CONCURRENCY" -I{} \
+    curl -s -o /dev/null -w "%{http_code} %{time_total}\n" \
+    -F "file=@$WORK_DIR/file-{}.txt" "$BASE_URL$ENDPOINT" > "$WORK_DIR/results" || true
+END=$(date +%s.%N)
+
+sort -k2 -n "$WORK_DIR/results" | awk -v start="$START" -v end="$END" '
+    function pct(p,   i) { i = int(NR * p); return latency[i < 1 ? 1 : i] }
+    { status[$1]++; latency[NR] = $2 }
+    END {
+        elapsed = end - start
+        printf "Elapsed:     %.2f s\n", elapsed
+        printf "Throughput:  %.1f req/s\n", NR / elapsed
+        printf "Latency p50: %.3f s\n", pct(0.50)
+        printf "Latency p95: %.3f s\n", pct(0.95)
+        printf "Latency p99: %.3f s\n", pct(0.99)
+        printf "Latency max: %.3f s\n", latency[NR]
+        for (code in status) printf "HTTP %s:    %d\n", code, status[code]
+    }'
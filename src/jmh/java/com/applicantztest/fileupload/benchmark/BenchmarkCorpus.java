@@ -0,0 +1,72 @@
+package com.applicantztest.fileupload.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+/**
+ * Generates deterministic benchmark inputs, so runs on different machines and
+ * commits measure the same bytes.
+ */
+public final class BenchmarkCorpus {
+
+    private static final long SEED = 42L;
+
+    private static final String[] ASCII_WORDS = {
+            "the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog", "upload", "process",
+            "file", "line", "word", "count", "2024", "v1.2", "-", "...", "(note)", "e-mail" };
+
+    private static final String[] MULTILINGUAL_WORDS = {
+            "café", "naïve", "résumé", "日本語", "テキスト", "中文", "مرحبا", "بالعالم", "Привет",
+            "мир", "ελληνικά", "한국어", "😀", "½", "Straße", "ñandú", "x²", "—", "données", "東京" };
+
+    private static final String[] CSV_FIELDS = {
+            "1024", "john@example.com", "Jane", "Doe", "42.5", "true", "2024-01-31", "NY", "", "n/a" };
+
+    public enum Shape {
+        ASCII_TXT,
+        MULTILINGUAL_TXT,
+        DENSE_CSV,
+        SPARSE_CSV;
+
+        public String filename() {
+            return this == DENSE_CSV || this == SPARSE_CSV ? "corpus.csv" : "corpus.txt";
+        }
+    }
+
+    private BenchmarkCorpus() {
+    }
+
+    /**
+     * Builds whole lines until the content reaches {@code targetBytes}, so
+     * the result may overshoot by at most one line.
+     */
+    public static byte[] generate(Shape shape, int targetBytes) {
+        Random random = new Random(SEED ^ shape.ordinal());
+        ByteArrayOutputStream content = new ByteArrayOutputStream(targetBytes + 256);
+        StringBuilder line = new StringBuilder(256);
+
+        while (content.size() < targetBytes) {
+            line.setLength(0);
+            switch (shape) {
+                case ASCII_TXT -> appendWords(line, ASCII_WORDS, 6 + random.nextInt(10), " ", random);
+                case MULTILINGUAL_TXT -> appendWords(line, MULTILINGUAL_WORDS, 4 + random.nextInt(8), " ", random);
+                case DENSE_CSV -> appendWords(line, CSV_FIELDS, 8, ",", random);
+                case SPARSE_CSV -> appendWords(line, CSV_FIELDS, 8, "   ,\t  ", random);
+            }
+            line.append(random.nextInt(20) == 0 ? "\r\n" : "\n");
+            content.writeBytes(line.toString().getBytes(StandardCharsets.UTF_8));
+        }
+        return content.toByteArray();
+    }
+
+    private static void appendWords(StringBuilder line, String[] words, int count, String separator,
+            Random random) {
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                line.append(separator);
+            }
+            line.append(words[random.nextInt(words.length)]);
+        }
+    }
+}
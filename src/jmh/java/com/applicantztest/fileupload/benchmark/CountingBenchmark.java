@@ -0,0 +1,162 @@
+package com.applicantztest.fileupload.benchmark;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.dto.IngestResult;
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+import com.applicantztest.fileupload.model.CsvProfile;
+import com.applicantztest.fileupload.processing.ContentProcessorRegistry;
+import com.applicantztest.fileupload.processing.CsvAnalyzer;
+import com.applicantztest.fileupload.processing.CsvProcessor;
+import com.applicantztest.fileupload.processing.IngestPipeline;
+import com.applicantztest.fileupload.processing.ParallelTextCounter;
+import com.applicantztest.fileupload.processing.PlainTextProcessor;
+import com.applicantztest.fileupload.processing.TextCounter;
+import com.applicantztest.fileupload.processing.TextCounts;
+
+/**
+ * Line and word counting: the streaming counter, the fork/join counter, the
+ * whole ingest pass (counting, content scan and hashing), CSV profiling and
+ * the original readLine/split counting as the baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CountingBenchmark {
+
+    private static final Pattern WORD_PATTERN = Pattern.compile("\\s+");
+
+    @Param({ "ASCII_TXT", "MULTILINGUAL_TXT", "DENSE_CSV", "SPARSE_CSV" })
+    private BenchmarkCorpus.Shape shape;
+
+    // corpus size in KB, a small upload and one above the parallel threshold
+    @Param({ "16", "8192" })
+    private int sizeKb;
+
+    private byte[] content;
+    private ParallelTextCounter parallelTextCounter;
+    private IngestPipeline ingestPipeline;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        content = BenchmarkCorpus.generate(shape, sizeKb * 1024);
+        parallelTextCounter = new ParallelTextCounter(new FileUploadProperties());
+        ContentProcessorRegistry processorRegistry = new ContentProcessorRegistry(
+                List.of(new PlainTextProcessor(), new CsvProcessor()));
+        ingestPipeline = new IngestPipeline(parallelTextCounter, processorRegistry,
+                new UploadMetrics(new SimpleMeterRegistry()));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        parallelTextCounter.shutdown();
+    }
+
+    @Benchmark
+    public TextCounts textCounter(MegabytesProcessed processed) throws IOException {
+        TextCounter counter = new TextCounter();
+        counter.accept(content, 0, content.length);
+        counter.complete();
+        processed.add(content.length);
+        return counter.getCounts();
+    }
+
+    @Benchmark
+    public TextCounts parallelTextCounter(MegabytesProcessed processed) {
+        TextCounts counts = parallelTextCounter.count(ByteBuffer.wrap(content));
+        processed.add(content.length);
+        return counts;
+    }
+
+    @Benchmark
+    public IngestResult ingestPipeline(MegabytesProcessed processed) throws IOException {
+        IngestResult result = ingestPipeline.ingest(new ByteArrayInputStream(content),
+                OutputStream.nullOutputStream(), content.length);
+        processed.add(content.length);
+        return result;
+    }
+
+    @Benchmark
+    public CsvProfile csvAnalyzer(MegabytesProcessed processed) {
+        CsvAnalyzer analyzer = new CsvAnalyzer();
+        analyzer.accept(content, 0, content.length);
+        analyzer.complete();
+        processed.add(content.length);
+        return analyzer.getProfile();
+    }
+
+    @Benchmark
+    public long lineBasedBaseline(MegabytesProcessed processed) throws IOException {
+        long counts = countLineBased(content);
+        processed.add(content.length);
+        return counts;
+    }
+
+    // The original readLine based counting, packed as lines << 32 | words
+    private static long countLineBased(byte[] content) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8))) {
+            long lineCount = 0;
+            long wordCount = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineCount++;
+                wordCount += countWordsInLine(line);
+            }
+            return lineCount << 32 | wordCount;
+        }
+    }
+
+    private static int countWordsInLine(String line) {
+        String trimmedLine = line.trim();
+        if (trimmedLine.isEmpty()) {
+            return 0;
+        }
+        int wordCount = 0;
+        for (String word : WORD_PATTERN.split(trimmedLine)) {
+            String trimmedWord = word.trim();
+            if (!trimmedWord.isEmpty() && !isSingleSymbol(trimmedWord)) {
+                wordCount++;
+            }
+        }
+        return wordCount;
+    }
+
+    private static boolean isSingleSymbol(String word) {
+        for (char c : word.toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
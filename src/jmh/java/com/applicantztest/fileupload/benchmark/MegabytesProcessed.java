@@ -0,0 +1,29 @@
+package com.applicantztest.fileupload.benchmark;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Secondary result reported next to ops/s: megabytes of input processed per
+ * second, which stays comparable across corpus sizes.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class MegabytesProcessed {
+
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+
+    public double megabytes;
+
+    @Setup(Level.Iteration)
+    public void reset() {
+        megabytes = 0;
+    }
+
+    void add(long bytes) {
+        megabytes += bytes / BYTES_PER_MEGABYTE;
+    }
+}
@@ -0,0 +1,61 @@
+package com.applicantztest.fileupload.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.applicantztest.fileupload.FileuploadApplication;
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.service.FileManageService;
+
+/**
+ * {@code FileManageService.saveToDatabase} against the in-memory H2 database
+ * of a real application context, reported in saves per second.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private FileManageService fileManageService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(FileuploadApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.jpa.show-sql=false",
+                        "logging.level.com.applicantztest.fileupload=WARN",
+                        "app.upload-dir=target/jmh-uploads")
+                .run();
+        fileManageService = context.getBean(FileManageService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public FileManagement saveToDatabase() {
+        return fileManageService.saveToDatabase(new FileManagement("benchmark.txt", "txt", 16384L, 320L, 2048L));
+    }
+}
@@ -0,0 +1,149 @@
+package com.applicantztest.fileupload.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.applicantztest.fileupload.FileuploadApplication;
+import com.applicantztest.fileupload.dto.FileSummary;
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.repository.FileManageRepo;
+
+/**
+ * {@code FileManageRepo} queries against the file database of the prod
+ * profile holding {@code rows} files, with the migrated indexes and with the
+ * schema migration only, reported as average latency. The databases are kept
+ * under target/jmh-db and seeded once; setup prints how long the application
+ * took to start on the full database.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+
+    // One row in twenty failed, files alternate between txt and csv, and four rows share each filename
+    private static final String SEED_SQL = "INSERT INTO file_management (id, filename, file_type, file_size, "
+            + "line_count, word_count, processed_at, status, error_message, content_hash, encoding) "
+            + "SELECT X, 'file-' || MOD(X, ?) || CASEWHEN(MOD(X, 2) = 0, '.txt', '.csv'), "
+            + "CASEWHEN(MOD(X, 2) = 0, 'txt', 'csv'), MOD(X * 7919, 10000000), MOD(X, 5000), MOD(X, 40000), "
+            + "TIMESTAMP '2024-01-01 00:00:00' + X * INTERVAL '30' SECOND, "
+            + "CASEWHEN(MOD(X, 20) = 0, 'FAILED', 'SUCCESS'), "
+            + "CASEWHEN(MOD(X, 20) = 0, 'File content appears to be invalid or corrupted.', NULL), "
+            + "CASEWHEN(MOD(X, 20) = 0, NULL, LPAD(X, 64, '0')), CASEWHEN(MOD(X, 20) = 0, NULL, 'ASCII') "
+            + "FROM SYSTEM_RANGE(1, ?)";
+
+    private static final Limit PAGE = Limit.of(21);
+
+    @Param({ "1000000" })
+    private int rows;
+
+    @Param({ "true", "false" })
+    private boolean indexed;
+
+    private ConfigurableApplicationContext context;
+    private FileManageRepo repository;
+
+    private FileManagement middle;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = start();
+        JdbcTemplate jdbc = context.getBean(JdbcTemplate.class);
+        Long existing = jdbc.queryForObject("SELECT COUNT(*) FROM file_management", Long.class);
+        if (existing == null || existing != rows) {
+            jdbc.update("DELETE FROM file_management");
+            jdbc.update(SEED_SQL, rows / 4, rows);
+            jdbc.execute("ALTER SEQUENCE file_management_seq RESTART WITH " + (rows + 1));
+            // measure the startup below against the full database
+            context.close();
+            context = start();
+        }
+
+        repository = context.getBean(FileManageRepo.class);
+        middle = repository.findById((long) rows / 2).orElseThrow();
+    }
+
+    private ConfigurableApplicationContext start() {
+        String database = "target/jmh-db/" + (indexed ? "indexed" : "unindexed") + "-" + rows;
+        long started = System.nanoTime();
+        ConfigurableApplicationContext application = new SpringApplicationBuilder(FileuploadApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("prod")
+                // arguments, as default properties would lose to the profile's; H2 would otherwise
+                // answer a repeated query on an unchanged table from its last result
+                .run("--spring.datasource.url=jdbc:h2:file:./" + database
+                        + ";DB_CLOSE_ON_EXIT=FALSE;OPTIMIZE_REUSE_RESULTS=FALSE",
+                        "--spring.flyway.target=" + (indexed ? "latest" : "1"),
+                        "--app.retention.enabled=false",
+                        "--logging.level.com.applicantztest.fileupload=WARN",
+                        "--app.upload-dir=target/jmh-uploads");
+        System.out.printf("%nStarted on %s in %d ms%n", database,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        return application;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<FileSummary> historyFirstPage() {
+        return repository.findHistory(null, null, PAGE);
+    }
+
+    @Benchmark
+    public List<FileSummary> historyByStatus() {
+        return repository.findHistory(ProcessingStatus.FAILED, null, PAGE);
+    }
+
+    @Benchmark
+    public List<FileSummary> historyByType() {
+        return repository.findHistory(null, "txt", PAGE);
+    }
+
+    @Benchmark
+    public List<FileSummary> historyMiddlePage() {
+        return repository.findHistoryAfter(null, null, middle.getProcessedAt(), middle.getId(), PAGE);
+    }
+
+    @Benchmark
+    public Optional<FileManagement> findByFilenameSizeAndStatus() {
+        return repository.findByFilenameAndFileSizeAndStatus(middle.getFilename(), middle.getFileSize(),
+                middle.getStatus());
+    }
+
+    @Benchmark
+    public Optional<FileManagement> latestByFilename() {
+        return repository.findFirstByFilenameOrderByProcessedAtDesc(middle.getFilename());
+    }
+
+    @Benchmark
+    public LocalDateTime latestProcessedAt() {
+        return repository.findLatestProcessedAt();
+    }
+}
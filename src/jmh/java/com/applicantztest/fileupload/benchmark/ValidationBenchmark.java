@@ -0,0 +1,88 @@
+package com.applicantztest.fileupload.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.dto.IngestResult;
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+import com.applicantztest.fileupload.processing.ContentProcessorRegistry;
+import com.applicantztest.fileupload.processing.ContentScanner;
+import com.applicantztest.fileupload.processing.CsvProcessor;
+import com.applicantztest.fileupload.processing.PlainTextProcessor;
+import com.applicantztest.fileupload.service.DuplicateIndex;
+import com.applicantztest.fileupload.service.FileValidationService;
+
+/**
+ * Content validation: the byte-level control character and UTF-8 scan feeding
+ * {@code FileValidationService.isValidFileContent}, against the original
+ * decode-to-String scan as the baseline.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    @Param({ "ASCII_TXT", "MULTILINGUAL_TXT", "DENSE_CSV", "SPARSE_CSV" })
+    private BenchmarkCorpus.Shape shape;
+
+    // corpus size in KB
+    @Param({ "16", "8192" })
+    private int sizeKb;
+
+    private byte[] content;
+    private String filename;
+    private FileValidationService fileValidationService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        content = BenchmarkCorpus.generate(shape, sizeKb * 1024);
+        filename = shape.filename();
+        FileUploadProperties properties = new FileUploadProperties();
+        // content validation never consults the duplicate index's repository
+        fileValidationService = new FileValidationService(properties, new DuplicateIndex(null, properties),
+                new UploadMetrics(new SimpleMeterRegistry()),
+                new ContentProcessorRegistry(List.of(new PlainTextProcessor(), new CsvProcessor())));
+    }
+
+    @Benchmark
+    public boolean contentScan(MegabytesProcessed processed) {
+        ContentScanner scanner = new ContentScanner();
+        scanner.accept(content, 0, content.length);
+        scanner.complete();
+        IngestResult result = new IngestResult(content.length, 0, 0, scanner.getControlCount(),
+                scanner.getCharCount(), scanner.getEncoding(), null, List.of());
+        processed.add(content.length);
+        return fileValidationService.isValidFileContent(filename, result);
+    }
+
+    @Benchmark
+    public boolean stringScanBaseline(MegabytesProcessed processed) {
+        // The original validation, decoding the whole upload to a String
+        String contentStr = new String(content, StandardCharsets.UTF_8);
+        long nonPrintableCount = contentStr.chars()
+                .filter(c -> c < 32 && c != 9 && c != 10 && c != 13)
+                .count();
+        processed.add(content.length);
+        return (double) nonPrintableCount / contentStr.length() <= 0.1;
+    }
+}
@@ -3,10 +3,16 @@ package com.applicantztest.fileupload.config;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartResolver;
 import org.springframework.web.multipart.support.StandardServletMultipartResolver;
 
+import com.applicantztest.fileupload.model.ProcessingStatus;
+
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 public class DatabaseConfig {
@@ -17,6 +23,18 @@ public class DatabaseConfig {
         
         private List<String> allowedFileTypes;
         private String uploadDir;
+        private DataSize maxFileSize = DataSize.ofMegabytes(10);
+        private Processing processing = new Processing();
+        private Dedup dedup = new Dedup();
+        private Jobs jobs = new Jobs();
+        private Bulk bulk = new Bulk();
+        private Chunked chunked = new Chunked();
+        private Storage storage = new Storage();
+        private Imports imports = new Imports();
+        private Admission admission = new Admission();
+        private Validation validation = new Validation();
+        private MetadataCache metadataCache = new MetadataCache();
+        private Retention retention = new Retention();
 
         public List<String> getAllowedFileTypes() {
             return allowedFileTypes;
@@ -33,6 +51,134 @@ public class DatabaseConfig {
         public void setUploadDir(String uploadDir) {
             this.uploadDir = uploadDir;
         }
+
+        public DataSize getMaxFileSize() {
+            return maxFileSize;
+        }
+
+        public void setMaxFileSize(DataSize maxFileSize) {
+            this.maxFileSize = maxFileSize;
+        }
+
+        public Processing getProcessing() {
+            return processing;
+        }
+
+        public void setProcessing(Processing processing) {
+            this.processing = processing;
+        }
+
+        public Dedup getDedup() {
+            return dedup;
+        }
+
+        public void setDedup(Dedup dedup) {
+            this.dedup = dedup;
+        }
+
+        public Jobs getJobs() {
+            return jobs;
+        }
+
+        public void setJobs(Jobs jobs) {
+            this.jobs = jobs;
+        }
+
+        public Bulk getBulk() {
+            return bulk;
+        }
+
+        public void setBulk(Bulk bulk) {
+            this.bulk = bulk;
+        }
+
+        public Chunked getChunked() {
+            return chunked;
+        }
+
+        public void setChunked(Chunked chunked) {
+            this.chunked = chunked;
+        }
+
+        public Storage getStorage() {
+            return storage;
+        }
+
+        public void setStorage(Storage storage) {
+            this.storage = storage;
+        }
+
+        public Imports getImports() {
+            return imports;
+        }
+
+        public void setImports(Imports imports) {
+            this.imports = imports;
+        }
+
+        public Admission getAdmission() {
+            return admission;
+        }
+
+        public void setAdmission(Admission admission) {
+            this.admission = admission;
+        }
+
+        public Validation getValidation() {
+            return validation;
+        }
+
+        public void setValidation(Validation validation) {
+            this.validation = validation;
+        }
+
+        public MetadataCache getMetadataCache() {
+            return metadataCache;
+        }
+
+        public void setMetadataCache(MetadataCache metadataCache) {
+            this.metadataCache = metadataCache;
+        }
+
+        public Retention getRetention() {
+            return retention;
+        }
+
+        public void setRetention(Retention retention) {
+            this.retention = retention;
+        }
+    }
+
+    // for line and word counting of large files
+    public static class Processing {
+
+        private DataSize parallelThreshold = DataSize.ofMegabytes(2);
+        private DataSize segmentSize = DataSize.ofMegabytes(1);
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        public DataSize getParallelThreshold() {
+            return parallelThreshold;
+        }
+
+        public void setParallelThreshold(DataSize parallelThreshold) {
+            this.parallelThreshold = parallelThreshold;
+        }
+
+        public DataSize getSegmentSize() {
+            return segmentSize;
+        }
+
+        public void setSegmentSize(DataSize segmentSize) {
+            this.segmentSize = segmentSize;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
     }
 
     @Bean
@@ -41,6 +187,378 @@ public class DatabaseConfig {
         return new FileUploadProperties();
     }
 
+    // for duplicate content detection
+    public static class Dedup {
+
+        private int expectedFiles = 100_000;
+        private int cacheSize = 10_000;
+
+        public int getExpectedFiles() {
+            return expectedFiles;
+        }
+
+        public void setExpectedFiles(int expectedFiles) {
+            this.expectedFiles = expectedFiles;
+        }
+
+        public int getCacheSize() {
+            return cacheSize;
+        }
+
+        public void setCacheSize(int cacheSize) {
+            this.cacheSize = cacheSize;
+        }
+    }
+
+    // for asynchronous processing jobs
+    public static class Jobs {
+
+        private int workerThreads = 2;
+        private int queueCapacity = 100;
+
+        public int getWorkerThreads() {
+            return workerThreads;
+        }
+
+        public void setWorkerThreads(int workerThreads) {
+            this.workerThreads = workerThreads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+    }
+
+    // for bulk and archive uploads
+    public static class Bulk {
+
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private int maxEntries = 1000;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+    }
+
+    // for chunked, resumable uploads
+    public static class Chunked {
+
+        private DataSize maxFileSize = DataSize.ofGigabytes(10);
+        private DataSize maxChunkSize = DataSize.ofMegabytes(16);
+        private Duration sessionTimeout = Duration.ofHours(24);
+        private int maxOpenUploads = 64;
+
+        public DataSize getMaxFileSize() {
+            return maxFileSize;
+        }
+
+        public void setMaxFileSize(DataSize maxFileSize) {
+            this.maxFileSize = maxFileSize;
+        }
+
+        public DataSize getMaxChunkSize() {
+            return maxChunkSize;
+        }
+
+        public void setMaxChunkSize(DataSize maxChunkSize) {
+            this.maxChunkSize = maxChunkSize;
+        }
+
+        public Duration getSessionTimeout() {
+            return sessionTimeout;
+        }
+
+        public void setSessionTimeout(Duration sessionTimeout) {
+            this.sessionTimeout = sessionTimeout;
+        }
+
+        public int getMaxOpenUploads() {
+            return maxOpenUploads;
+        }
+
+        public void setMaxOpenUploads(int maxOpenUploads) {
+            this.maxOpenUploads = maxOpenUploads;
+        }
+    }
+
+    // for blob storage
+    public static class Storage {
+
+        private String type = "filesystem";
+        private Compression compression = new Compression();
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public Compression getCompression() {
+            return compression;
+        }
+
+        public void setCompression(Compression compression) {
+            this.compression = compression;
+        }
+    }
+
+    // for compressing stored blobs, decided per blob from a sample
+    public static class Compression {
+
+        private boolean enabled = true;
+        private int level = 1;
+        private DataSize sampleSize = DataSize.ofKilobytes(64);
+        private double minSavings = 0.2;
+        // larger blobs are stored as is, ranges on a compressed blob decode it from the start
+        private DataSize maxSize = DataSize.ofMegabytes(16);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getLevel() {
+            return level;
+        }
+
+        public void setLevel(int level) {
+            this.level = level;
+        }
+
+        public DataSize getSampleSize() {
+            return sampleSize;
+        }
+
+        public DataSize getMaxSize() {
+            return maxSize;
+        }
+
+        public void setMaxSize(DataSize maxSize) {
+            this.maxSize = maxSize;
+        }
+
+        public void setSampleSize(DataSize sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+
+        public double getMinSavings() {
+            return minSavings;
+        }
+
+        public void setMinSavings(double minSavings) {
+            this.minSavings = minSavings;
+        }
+    }
+
+    // for importing files from the import directory under the upload dir
+    public static class Imports {
+
+        private DataSize maxFileSize = DataSize.ofGigabytes(10);
+        private int maxFiles = 10_000;
+
+        public DataSize getMaxFileSize() {
+            return maxFileSize;
+        }
+
+        public void setMaxFileSize(DataSize maxFileSize) {
+            this.maxFileSize = maxFileSize;
+        }
+
+        public int getMaxFiles() {
+            return maxFiles;
+        }
+
+        public void setMaxFiles(int maxFiles) {
+            this.maxFiles = maxFiles;
+        }
+    }
+
+    // for rejecting clearly invalid content after its first bytes
+    public static class Validation {
+
+        private DataSize prefixSize = DataSize.ofKilobytes(8);
+
+        public DataSize getPrefixSize() {
+            return prefixSize;
+        }
+
+        public void setPrefixSize(DataSize prefixSize) {
+            this.prefixSize = prefixSize;
+        }
+    }
+
+    // for caching file metadata and history pages in front of the database
+    public static class MetadataCache {
+
+        private boolean enabled = true;
+        private int maxFiles = 10_000;
+        private Duration fileTtl = Duration.ofMinutes(10);
+        private int maxQueries = 1_000;
+        private Duration queryTtl = Duration.ofMinutes(1);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxFiles() {
+            return maxFiles;
+        }
+
+        public void setMaxFiles(int maxFiles) {
+            this.maxFiles = maxFiles;
+        }
+
+        public Duration getFileTtl() {
+            return fileTtl;
+        }
+
+        public void setFileTtl(Duration fileTtl) {
+            this.fileTtl = fileTtl;
+        }
+
+        public int getMaxQueries() {
+            return maxQueries;
+        }
+
+        public void setMaxQueries(int maxQueries) {
+            this.maxQueries = maxQueries;
+        }
+
+        public Duration getQueryTtl() {
+            return queryTtl;
+        }
+
+        public void setQueryTtl(Duration queryTtl) {
+            this.queryTtl = queryTtl;
+        }
+    }
+
+    // for purging old rows and their content, by status
+    public static class Retention {
+
+        private boolean enabled = false;
+        private int batchSize = 1_000;
+        private Map<ProcessingStatus, Duration> maxAge = new HashMap<>();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public Map<ProcessingStatus, Duration> getMaxAge() {
+            return maxAge;
+        }
+
+        public void setMaxAge(Map<ProcessingStatus, Duration> maxAge) {
+            this.maxAge = maxAge;
+        }
+    }
+
+    // for admitting upload requests against a heap budget and per-endpoint permits
+    public static class Admission {
+
+        private boolean enabled = true;
+        // null means a quarter of the maximum heap
+        private DataSize memoryBudget;
+        private DataSize maxRequestCost = DataSize.ofMegabytes(16);
+        private int defaultMaxConcurrent = Runtime.getRuntime().availableProcessors() * 2;
+        private Map<String, Integer> maxConcurrent = new HashMap<>();
+        private Duration maxWait = Duration.ofSeconds(2);
+        private Duration retryAfter = Duration.ofSeconds(5);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public DataSize getMemoryBudget() {
+            return memoryBudget;
+        }
+
+        public void setMemoryBudget(DataSize memoryBudget) {
+            this.memoryBudget = memoryBudget;
+        }
+
+        public DataSize getMaxRequestCost() {
+            return maxRequestCost;
+        }
+
+        public void setMaxRequestCost(DataSize maxRequestCost) {
+            this.maxRequestCost = maxRequestCost;
+        }
+
+        public int getDefaultMaxConcurrent() {
+            return defaultMaxConcurrent;
+        }
+
+        public void setDefaultMaxConcurrent(int defaultMaxConcurrent) {
+            this.defaultMaxConcurrent = defaultMaxConcurrent;
+        }
+
+        public Map<String, Integer> getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(Map<String, Integer> maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public Duration getMaxWait() {
+            return maxWait;
+        }
+
+        public void setMaxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+        }
+
+        public Duration getRetryAfter() {
+            return retryAfter;
+        }
+
+        public void setRetryAfter(Duration retryAfter) {
+            this.retryAfter = retryAfter;
+        }
+    }
+
     //for multipart resolver to handle file uploads.
     @Bean
     public MultipartResolver multipartResolver() {
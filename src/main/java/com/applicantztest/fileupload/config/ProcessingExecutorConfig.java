@@ -0,0 +1,56 @@
+package com.applicantztest.fileupload.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+
+@Configuration
+public class ProcessingExecutorConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessingExecutorConfig.class);
+
+    // for asynchronous upload jobs, a full queue rejects new jobs instead of growing
+    @Bean(name = "processingExecutor")
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor processingExecutor(FileUploadProperties fileUploadProperties,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreadsRequested) {
+        if (virtualThreadsRequested) {
+            logger.warn("Virtual threads requested but Java {} does not support them, using platform threads",
+                    Runtime.version().feature());
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(fileUploadProperties.getJobs().getWorkerThreads());
+        executor.setMaxPoolSize(fileUploadProperties.getJobs().getWorkerThreads());
+        executor.setQueueCapacity(fileUploadProperties.getJobs().getQueueCapacity());
+        executor.setThreadNamePrefix("upload-job-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+        return executor;
+    }
+
+    // for asynchronous upload jobs on Java 21+, one virtual thread per job; the
+    // concurrency limit takes the place of worker threads plus queue so a full
+    // node still rejects instead of parking an unbounded number of jobs
+    @Bean(name = "processingExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualProcessingExecutor(FileUploadProperties fileUploadProperties) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("upload-job-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(fileUploadProperties.getJobs().getWorkerThreads()
+                + fileUploadProperties.getJobs().getQueueCapacity());
+        executor.setRejectTasksWhenLimitReached(true);
+        executor.setTaskTerminationTimeout(30_000);
+        return executor;
+    }
+
+}
@@ -0,0 +1,120 @@
+package com.applicantztest.fileupload.controller;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.NoSuchElementException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+
+import com.applicantztest.fileupload.dto.ChunkedUploadRequest;
+import com.applicantztest.fileupload.dto.ChunkedUploadStatus;
+import com.applicantztest.fileupload.exception.FileManageException;
+import com.applicantztest.fileupload.exception.FileValidationException;
+import com.applicantztest.fileupload.service.ChunkedUploadService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/uploads")
+public class ChunkedUploadController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadController.class);
+
+    // Header carrying the hex SHA-256 of a chunk body
+    static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-Checksum";
+
+    // Seconds a client should wait before retrying when too many uploads are open
+    private static final String RETRY_AFTER_SECONDS = "30";
+
+    private final ChunkedUploadService chunkedUploadService;
+
+    public ChunkedUploadController(ChunkedUploadService chunkedUploadService) {
+        this.chunkedUploadService = chunkedUploadService;
+    }
+
+    @PostMapping
+    public ResponseEntity<ChunkedUploadStatus> initiate(@RequestBody ChunkedUploadRequest request)
+            throws IOException, FileValidationException, FileManageException {
+        logger.info("Initiating chunked upload for file: {} ({} bytes)", request.getFilename(), request.getSize());
+        ChunkedUploadStatus status = chunkedUploadService.initiate(request.getFilename(), request.getSize());
+        return ResponseEntity.created(URI.create("/api/uploads/" + status.getUploadId())).body(status);
+    }
+
+    @GetMapping("/{uploadId}")
+    public ChunkedUploadStatus getStatus(@PathVariable String uploadId) {
+        return chunkedUploadService.getStatus(uploadId);
+    }
+
+    @PutMapping("/{uploadId}/chunks")
+    public ChunkedUploadStatus writeChunk(@PathVariable String uploadId, @RequestParam long offset,
+            @RequestHeader(name = CHUNK_CHECKSUM_HEADER, required = false) String checksum,
+            HttpServletRequest request) throws IOException, FileValidationException {
+        if (request.getContentLengthLong() > chunkedUploadService.getMaxChunkSize()) {
+            throw new MaxUploadSizeExceededException(chunkedUploadService.getMaxChunkSize());
+        }
+        return chunkedUploadService.writeChunk(uploadId, offset, checksum, request.getInputStream());
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    public ChunkedUploadStatus complete(@PathVariable String uploadId) throws IOException, FileValidationException {
+        return chunkedUploadService.complete(uploadId);
+    }
+
+    @DeleteMapping("/{uploadId}")
+    public ResponseEntity<Void> abort(@PathVariable String uploadId) throws IOException {
+        chunkedUploadService.abort(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<String> handleNotFound(NoSuchElementException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        logger.warn("Bad chunked upload request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<String> handleConflict(IllegalStateException e) {
+        logger.warn("Conflicting chunked upload request: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(e.getMessage());
+    }
+
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<String> handleTooLarge(MaxUploadSizeExceededException e) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body("Chunk exceeds the maximum size of " + e.getMaxUploadSize() + " bytes");
+    }
+
+    @ExceptionHandler(FileManageException.class)
+    public ResponseEntity<String> handleTooManyUploads(FileManageException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                .body(e.getMessage());
+    }
+
+    @ExceptionHandler(FileValidationException.class)
+    public ResponseEntity<String> handleInvalidFile(FileValidationException e) {
+        logger.warn("Chunked upload failed validation: {}", e.getMessage());
+        return ResponseEntity.unprocessableEntity().body(e.getMessage());
+    }
+}
@@ -0,0 +1,127 @@
+package com.applicantztest.fileupload.controller;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.List;
+
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.applicantztest.fileupload.dto.BulkUploadResult;
+import com.applicantztest.fileupload.dto.FileResult;
+import com.applicantztest.fileupload.dto.HistoryPage;
+import com.applicantztest.fileupload.dto.ValidationResult;
+import com.applicantztest.fileupload.exception.FileValidationException;
+import com.applicantztest.fileupload.model.CsvProfile;
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.service.BulkUploadService;
+import com.applicantztest.fileupload.service.DirectoryImportService;
+import com.applicantztest.fileupload.service.FileManageService;
+import com.applicantztest.fileupload.service.FileValidationService;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+@RestController
+@RequestMapping("/api/files")
+public class FileApiController {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileApiController.class);
+
+    private final FileManageService fileManageService;
+    private final BulkUploadService bulkUploadService;
+    private final DirectoryImportService directoryImportService;
+    private final FileValidationService fileValidationService;
+
+    public FileApiController(FileManageService fileManageService, BulkUploadService bulkUploadService,
+            DirectoryImportService directoryImportService, FileValidationService fileValidationService) {
+        this.fileManageService = fileManageService;
+        this.bulkUploadService = bulkUploadService;
+        this.directoryImportService = directoryImportService;
+        this.fileValidationService = fileValidationService;
+    }
+
+    @GetMapping
+    public HistoryPage listFiles(@RequestParam(required = false) ProcessingStatus status,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        logger.info("API request for file history page (status: {}, type: {}, cursor: {})", status, type, cursor);
+        return fileManageService.getHistoryPage(status, type, cursor, size);
+    }
+
+    @GetMapping("/{id}/csv-profile")
+    public ResponseEntity<CsvProfile> getCsvProfile(@PathVariable Long id) {
+        logger.info("API request for CSV profile of file with id: {}", id);
+        return ResponseEntity.of(fileManageService.getCsvProfile(id));
+    }
+
+    @PostMapping(path = "/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public BulkUploadResult bulkUpload(@RequestParam("files") List<MultipartFile> files) throws IOException {
+        logger.info("API request for bulk upload of {} parts", files.size());
+        return bulkUploadService.upload(files);
+    }
+
+    /**
+     * Imports the files of a folder in the import directory on the server,
+     * given relative to that directory.
+     */
+    @PostMapping("/import")
+    public BulkUploadResult importDirectory(@RequestParam(required = false) String path) throws IOException {
+        logger.info("API request for directory import of: {}", path);
+        return directoryImportService.importDirectory(path);
+    }
+
+    /**
+     * Raw-body upload: the request stream goes straight through counting,
+     * content checks and blob storage as it arrives, with no multipart
+     * parsing and no temp file.
+     */
+    @PutMapping(path = "/{name}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    public ResponseEntity<?> uploadStream(@PathVariable String name, HttpServletRequest request)
+            throws IOException {
+        String filename = FilenameUtils.getName(name);
+        long contentLength = request.getContentLengthLong();
+        logger.info("API request for streaming upload of file: {} ({} bytes)", filename, contentLength);
+
+        ValidationResult validationResult = fileValidationService.validateEntry(filename, contentLength);
+        if (!validationResult.isValid()) {
+            logger.warn("File validation failed: {}", validationResult.getErrors());
+            return ResponseEntity.badRequest().body(validationResult.getErrors());
+        }
+
+        try (InputStream input = fileValidationService.enforceMaxFileSize(request.getInputStream())) {
+            FileManagement result = fileManageService.processAndSave(filename, contentLength, input);
+            if (result.getStatus() != ProcessingStatus.SUCCESS) {
+                return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(FileResult.from(result));
+            }
+            return ResponseEntity.created(URI.create("/result/" + result.getId())).body(FileResult.from(result));
+        } catch (FileValidationException e) {
+            logger.warn("Streaming upload failed validation: {}", e.getMessage());
+            HttpStatus status = "size".equals(e.getValidationType())
+                    ? HttpStatus.PAYLOAD_TOO_LARGE
+                    : HttpStatus.UNPROCESSABLE_ENTITY;
+            return ResponseEntity.status(status).body(e.getMessage());
+        }
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        logger.warn("Bad API request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
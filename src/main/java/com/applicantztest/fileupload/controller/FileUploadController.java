@@ -1,14 +1,13 @@
 package com.applicantztest.fileupload.controller;
 
+import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -21,13 +20,20 @@ import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import com.applicantztest.fileupload.dto.FileDetails;
+import com.applicantztest.fileupload.dto.HistoryPage;
 import com.applicantztest.fileupload.dto.ProcessingStat;
 import com.applicantztest.fileupload.dto.ValidationResult;
+import com.applicantztest.fileupload.exception.FileValidationException;
 import com.applicantztest.fileupload.model.FileManagement;
-import com.applicantztest.fileupload.repository.FileManageRepo;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.service.FileDownloadService;
 import com.applicantztest.fileupload.service.FileManageService;
 import com.applicantztest.fileupload.service.FileValidationService;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
 @Controller
 @RequestMapping("/")
 public class FileUploadController {
@@ -36,13 +42,13 @@ public class FileUploadController {
 
     private final FileManageService fileManageService;
     private final FileValidationService fileValidationService;
-    private final FileManageRepo repository;
+    private final FileDownloadService fileDownloadService;
 
     public FileUploadController(FileManageService fileManageService, FileValidationService fileValidationService,
-            FileManageRepo repository) {
+            FileDownloadService fileDownloadService) {
         this.fileManageService = fileManageService;
         this.fileValidationService = fileValidationService;
-        this.repository = repository;
+        this.fileDownloadService = fileDownloadService;
     }
 
     @GetMapping("/")
@@ -52,6 +58,7 @@ public class FileUploadController {
         // Add statistics
         ProcessingStat stats = fileManageService.getProcessingStatistics();
         model.addAttribute("statistics", stats);
+        addFileTypes(model);
 
         return "upload";
     }
@@ -85,6 +92,11 @@ public class FileUploadController {
 
             return "redirect:/result/" + result.getId();
 
+        } catch (FileValidationException e) {
+            logger.warn("File content validation failed: {}", e.getDetailedMessage());
+            redirectAttributes.addFlashAttribute("error", "File validation failed: " + e.getMessage());
+            return "redirect:/";
+
         } catch (Exception e) {
             logger.error("Error occurred during file upload processing", e);
             redirectAttributes.addFlashAttribute("error",
@@ -98,34 +110,45 @@ public class FileUploadController {
         logger.info("Displaying result for processing ID: {}", id);
 
         try {
-            Optional<FileManagement> resultOptional = repository.findById(id);
+            Optional<FileDetails> resultOptional = fileManageService.getFileDetails(id);
 
             if (resultOptional.isPresent()) {
-                FileManagement result = resultOptional.get();
+                FileDetails result = resultOptional.get();
                 model.addAttribute("result", result);
                 logger.info("Retrieved processing result for ID: {}", id);
                 return "result";
             } else {
                 logger.warn("Processing result not found for ID: {}", id);
                 model.addAttribute("error", "Processing result not found for ID: " + id);
+                addFileTypes(model);
                 return "error";
             }
 
         } catch (Exception e) {
             logger.error("Error retrieving processing result for ID: {}", id, e);
             model.addAttribute("error", "Could not retrieve processing result: " + e.getMessage());
+            addFileTypes(model);
             return "error";
         }
     }
 
     @GetMapping("/history")
-    public String showHistory(Model model) {
+    public String showHistory(@RequestParam(required = false) ProcessingStatus status,
+            @RequestParam(required = false) String type,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Model model) {
         logger.info("Displaying processing history");
 
         try {
-            // Get all results
-            List<FileManagement> allResults = repository.findAll();
-            model.addAttribute("results", allResults);
+            // Get one page of metadata, newest first
+            HistoryPage page = fileManageService.getHistoryPage(status, type, cursor, size);
+            model.addAttribute("results", page.getItems());
+            model.addAttribute("page", page);
+            model.addAttribute("status", status);
+            model.addAttribute("type", type);
+            model.addAttribute("size", size);
+            addFileTypes(model);
 
             // Get processing statistics
             ProcessingStat stats = fileManageService.getProcessingStatistics();
@@ -136,6 +159,7 @@ public class FileUploadController {
         } catch (Exception e) {
             logger.error("Error retrieving processing history", e);
             model.addAttribute("error", "Could not retrieve processing history");
+            addFileTypes(model);
             return "error";
         }
     }
@@ -148,30 +172,31 @@ public class FileUploadController {
     }
 
     @GetMapping("/download/{id}")
-    public ResponseEntity<byte[]> downloadFile(@PathVariable Long id) {
+    public void downloadFile(@PathVariable Long id, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
         logger.info("Received download request for file ID: {}", id);
 
         try {
-            Optional<FileManagement> fileManagement = repository.findById(id);
-            if (fileManagement.isEmpty()) {
+            Optional<FileDetails> fileDetails = fileManageService.getFileDetails(id);
+            if (fileDetails.isEmpty()) {
                 logger.warn("File with ID {} not found", id);
-                return ResponseEntity.notFound().build();
+                response.sendError(HttpStatus.NOT_FOUND.value());
+                return;
             }
 
-            FileManagement file = fileManagement.get();
-            byte[] fileContent = file.getContent();
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
-            headers.setContentDispositionFormData("attachment", file.getFilename());
-            headers.setContentLength(file.getFileSize());
+            FileDetails file = fileDetails.get();
+            fileDownloadService.serve(file, request, response);
 
-            logger.info("Successfully prepared file {} for download", file.getFilename());
-            return new ResponseEntity<>(fileContent, headers, HttpStatus.OK);
+            logger.info("Successfully served file {} for download", file.getFilename());
 
+        } catch (FileNotFoundException e) {
+            logger.warn("Content for file ID {} not found: {}", id, e.getMessage());
+            response.sendError(HttpStatus.NOT_FOUND.value());
         } catch (Exception e) {
             logger.error("Error downloading file with ID: {}", id, e);
-            return ResponseEntity.internalServerError().build();
+            if (!response.isCommitted()) {
+                response.sendError(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            }
         }
     }
 
@@ -219,6 +244,14 @@ public class FileUploadController {
     public String handleError(Exception e, Model model) {
         logger.error("Unhandled exception in controller", e);
         model.addAttribute("error", "An unexpected error occurred: " + e.getMessage());
+        addFileTypes(model);
         return "error";
     }
+
+    // the accepted types depend on the registered content processors and configuration
+    private void addFileTypes(Model model) {
+        List<String> fileTypes = fileValidationService.getAllowedFileTypes();
+        model.addAttribute("fileTypes", fileTypes);
+        model.addAttribute("acceptedExtensions", fileTypes.stream().map(type -> "." + type).toList());
+    }
 }
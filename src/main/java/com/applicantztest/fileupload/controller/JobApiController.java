@@ -0,0 +1,85 @@
+package com.applicantztest.fileupload.controller;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.applicantztest.fileupload.dto.JobStatus;
+import com.applicantztest.fileupload.dto.ValidationResult;
+import com.applicantztest.fileupload.exception.FileManageException;
+import com.applicantztest.fileupload.service.FileValidationService;
+import com.applicantztest.fileupload.service.UploadJobService;
+
+@RestController
+@RequestMapping("/api/jobs")
+public class JobApiController {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobApiController.class);
+
+    // Seconds a client should wait before retrying when the queue is full
+    private static final String RETRY_AFTER_SECONDS = "5";
+
+    private final UploadJobService uploadJobService;
+    private final FileValidationService fileValidationService;
+
+    public JobApiController(UploadJobService uploadJobService, FileValidationService fileValidationService) {
+        this.uploadJobService = uploadJobService;
+        this.fileValidationService = fileValidationService;
+    }
+
+    @PostMapping
+    public ResponseEntity<?> submitJob(@RequestParam("file") MultipartFile file) throws IOException {
+        logger.info("Received async upload request for file: {}",
+                file != null ? file.getOriginalFilename() : "null");
+
+        ValidationResult validationResult = fileValidationService.validateFile(file);
+        if (!validationResult.isValid()) {
+            logger.warn("File validation failed: {}", validationResult.getErrors());
+            return ResponseEntity.badRequest().body(validationResult.getErrors());
+        }
+
+        try {
+            JobStatus status = uploadJobService.submit(file);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/jobs/" + status.getJobId()))
+                    .body(status);
+        } catch (FileManageException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<JobStatus> getJob(@PathVariable Long id) {
+        return uploadJobService.getStatus(id)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(path = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe(@PathVariable Long id) throws IOException {
+        return uploadJobService.subscribe(id);
+    }
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> handleBadRequest(IllegalArgumentException e) {
+        logger.warn("Bad job request: {}", e.getMessage());
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
@@ -0,0 +1,109 @@
+package com.applicantztest.fileupload.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+import com.applicantztest.fileupload.service.AdmissionService;
+import com.applicantztest.fileupload.service.AdmissionService.Admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Admits upload requests before their body is read, which for multipart
+ * requests happens before any controller runs. A full endpoint answers 429,
+ * an exhausted heap budget 503, both with Retry-After.
+ */
+@Component
+public class UploadAdmissionFilter extends OncePerRequestFilter {
+
+    private static final List<Endpoint> ENDPOINTS = List.of(
+            new Endpoint("POST", "/upload", "upload"),
+            new Endpoint("POST", "/api/files/bulk", "bulk"),
+            new Endpoint("POST", "/api/files/import", "import"),
+            new Endpoint("PUT", "/api/files/[^/]+", "stream"),
+            new Endpoint("POST", "/api/jobs", "jobs"),
+            new Endpoint("PUT", "/api/uploads/[^/]+/chunks", "chunks"));
+
+    private final AdmissionService admissionService;
+
+    public UploadAdmissionFilter(AdmissionService admissionService) {
+        this.admissionService = admissionService;
+        if (admissionService.isEnabled()) {
+            ENDPOINTS.forEach(endpoint -> admissionService.registerEndpoint(endpoint.name));
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !admissionService.isEnabled() || endpointOf(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Admission admission;
+        try {
+            admission = admissionService.admit(endpointOf(request), request.getContentLengthLong());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Server is shutting down, please retry later");
+            return;
+        }
+
+        if (!admission.isAdmitted()) {
+            if (UploadMetrics.ADMISSION_CONCURRENCY.equals(admission.getRejection())) {
+                reject(response, HttpStatus.TOO_MANY_REQUESTS, "Too many uploads in progress, please retry later");
+            } else {
+                reject(response, HttpStatus.SERVICE_UNAVAILABLE, "Server is busy, please retry later");
+            }
+            return;
+        }
+
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            admission.release();
+        }
+    }
+
+    private void reject(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(admissionService.getRetryAfterSeconds()));
+        response.setContentType(MediaType.TEXT_PLAIN_VALUE);
+        response.getWriter().write(message);
+    }
+
+    private static String endpointOf(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        for (Endpoint endpoint : ENDPOINTS) {
+            if (endpoint.method.equals(request.getMethod()) && endpoint.path.matcher(path).matches()) {
+                return endpoint.name;
+            }
+        }
+        return null;
+    }
+
+    private static final class Endpoint {
+
+        private final String method;
+        private final Pattern path;
+        private final String name;
+
+        private Endpoint(String method, String path, String name) {
+            this.method = method;
+            this.path = Pattern.compile(path);
+            this.name = name;
+        }
+    }
+}
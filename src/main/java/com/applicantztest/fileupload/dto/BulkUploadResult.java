@@ -0,0 +1,26 @@
+package com.applicantztest.fileupload.dto;
+
+import java.util.List;
+
+import com.applicantztest.fileupload.model.ProcessingStatus;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+public class BulkUploadResult {
+
+    private int totalFiles;
+    private int successCount;
+    private int failedCount;
+    private List<FileResult> files;
+
+    public BulkUploadResult(List<FileResult> files) {
+        this.files = files;
+        this.totalFiles = files.size();
+        this.successCount = (int) files.stream().filter(file -> file.getStatus() == ProcessingStatus.SUCCESS).count();
+        this.failedCount = totalFiles - successCount;
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.applicantztest.fileupload.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkedUploadRequest {
+
+    private String filename;
+    private long size;
+
+}
@@ -0,0 +1,46 @@
+package com.applicantztest.fileupload.dto;
+
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkedUploadStatus {
+
+    private String uploadId;
+    private String filename;
+    private long totalSize;
+    private long receivedBytes;
+    private int chunkCount;
+    private long maxChunkSize;
+
+    // set once the upload is completed and saved
+    private Long fileId;
+    private ProcessingStatus status;
+    private Long lineCount;
+    private Long wordCount;
+
+    public ChunkedUploadStatus(String uploadId, String filename, long totalSize, long receivedBytes, int chunkCount,
+            long maxChunkSize) {
+        this.uploadId = uploadId;
+        this.filename = filename;
+        this.totalSize = totalSize;
+        this.receivedBytes = receivedBytes;
+        this.chunkCount = chunkCount;
+        this.maxChunkSize = maxChunkSize;
+    }
+
+    public ChunkedUploadStatus completedAs(FileManagement file) {
+        this.fileId = file.getId();
+        this.status = file.getStatus();
+        this.lineCount = file.getLineCount();
+        this.wordCount = file.getWordCount();
+        return this;
+    }
+
+}
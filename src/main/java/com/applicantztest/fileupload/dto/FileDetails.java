@@ -0,0 +1,35 @@
+package com.applicantztest.fileupload.dto;
+
+import java.time.LocalDateTime;
+
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.model.TextEncoding;
+
+import lombok.Value;
+
+/**
+ * Detached, immutable copy of the metadata of a {@code FileManagement} row,
+ * without its CSV profile, so it can be cached and shared between requests.
+ */
+@Value
+public class FileDetails {
+
+    Long id;
+    String filename;
+    String fileType;
+    Long fileSize;
+    Long lineCount;
+    Long wordCount;
+    ProcessingStatus status;
+    String errorMessage;
+    LocalDateTime processedAt;
+    String contentHash;
+    TextEncoding encoding;
+
+    public static FileDetails from(FileManagement file) {
+        return new FileDetails(file.getId(), file.getFilename(), file.getFileType(), file.getFileSize(),
+                file.getLineCount(), file.getWordCount(), file.getStatus(), file.getErrorMessage(),
+                file.getProcessedAt(), file.getContentHash(), file.getEncoding());
+    }
+}
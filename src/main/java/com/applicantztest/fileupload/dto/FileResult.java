@@ -0,0 +1,32 @@
+package com.applicantztest.fileupload.dto;
+
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileResult {
+
+    // null when the file was rejected before anything was saved
+    private Long id;
+    private String filename;
+    private ProcessingStatus status;
+    private Long lineCount;
+    private Long wordCount;
+    private String errorMessage;
+
+    public static FileResult from(FileManagement file) {
+        return new FileResult(file.getId(), file.getFilename(), file.getStatus(), file.getLineCount(),
+                file.getWordCount(), file.getErrorMessage());
+    }
+
+    public static FileResult rejected(String filename, String errorMessage) {
+        return new FileResult(null, filename, ProcessingStatus.FAILED, 0L, 0L, errorMessage);
+    }
+
+}
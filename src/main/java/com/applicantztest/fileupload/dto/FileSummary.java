@@ -0,0 +1,33 @@
+package com.applicantztest.fileupload.dto;
+
+import java.time.LocalDateTime;
+
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.model.TextEncoding;
+
+/**
+ * Metadata-only view of a {@code FileManagement} row for history listings.
+ */
+public interface FileSummary {
+
+    Long getId();
+
+    String getFilename();
+
+    String getFileType();
+
+    Long getFileSize();
+
+    Long getLineCount();
+
+    Long getWordCount();
+
+    ProcessingStatus getStatus();
+
+    TextEncoding getEncoding();
+
+    String getErrorMessage();
+
+    LocalDateTime getProcessedAt();
+
+}
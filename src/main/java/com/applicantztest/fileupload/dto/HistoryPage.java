@@ -0,0 +1,18 @@
+package com.applicantztest.fileupload.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HistoryPage {
+
+    private List<FileSummary> items;
+    private boolean hasNext;
+    private String nextCursor;
+
+}
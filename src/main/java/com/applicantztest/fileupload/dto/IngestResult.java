@@ -0,0 +1,47 @@
+package com.applicantztest.fileupload.dto;
+
+import java.util.List;
+
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.TextEncoding;
+import com.applicantztest.fileupload.processing.ProcessorStage;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IngestResult {
+
+    private long byteCount;
+    private long lineCount;
+    private long wordCount;
+    private long controlCharCount;
+    private long charCount;
+    // null when the content was not scanned
+    private TextEncoding encoding;
+    private String contentHash;
+    // Completed stages of the file type's processors
+    private List<ProcessorStage> processorStages = List.of();
+
+    public IngestResult(long byteCount, long lineCount, long wordCount, long controlCharCount, long charCount,
+            String contentHash) {
+        this(byteCount, lineCount, wordCount, controlCharCount, charCount, null, contentHash, List.of());
+    }
+
+    /**
+     * Copies the encoding and the results of the file type's processors onto
+     * the row.
+     */
+    public void applyTo(FileManagement file) {
+        file.setEncoding(encoding);
+        processorStages.forEach(stage -> stage.applyTo(file));
+    }
+
+    public double getNonPrintableRatio() {
+        return charCount == 0 ? 0 : (double) controlCharCount / charCount;
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.applicantztest.fileupload.dto;
+
+import java.time.LocalDateTime;
+
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobStatus {
+
+    private Long jobId;
+    private String filename;
+    private ProcessingStatus status;
+    private Long lineCount;
+    private Long wordCount;
+    private String errorMessage;
+    private LocalDateTime updatedAt;
+
+    public static JobStatus from(FileManagement file) {
+        return new JobStatus(file.getId(), file.getFilename(), file.getStatus(), file.getLineCount(),
+                file.getWordCount(), file.getErrorMessage(), file.getProcessedAt());
+    }
+
+    public static JobStatus from(FileDetails file) {
+        return new JobStatus(file.getId(), file.getFilename(), file.getStatus(), file.getLineCount(),
+                file.getWordCount(), file.getErrorMessage(), file.getProcessedAt());
+    }
+
+    public boolean isFinished() {
+        return status == ProcessingStatus.SUCCESS || status == ProcessingStatus.FAILED;
+    }
+
+}
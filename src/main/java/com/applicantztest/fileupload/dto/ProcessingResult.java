@@ -9,11 +9,11 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 public class ProcessingResult {
 
-    private int lineCount;
-    private int wordCount;
+    private long lineCount;
+    private long wordCount;
     private String errorMessage;
 
-    public ProcessingResult(int lineCount, int wordCount) {
+    public ProcessingResult(long lineCount, long wordCount) {
         this.lineCount = lineCount;
         this.wordCount = wordCount;
         this.errorMessage = null;
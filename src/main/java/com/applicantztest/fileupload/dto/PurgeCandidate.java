@@ -0,0 +1,23 @@
+package com.applicantztest.fileupload.dto;
+
+import com.applicantztest.fileupload.model.ProcessingStatus;
+
+/**
+ * What is left to clean up once a {@code FileManagement} row is deleted in
+ * bulk: its counts for the statistics, its content and its CSV profile.
+ */
+public interface PurgeCandidate {
+
+    Long getId();
+
+    ProcessingStatus getStatus();
+
+    Long getLineCount();
+
+    Long getWordCount();
+
+    String getContentHash();
+
+    Long getCsvProfileId();
+
+}
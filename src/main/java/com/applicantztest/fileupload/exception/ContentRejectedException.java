@@ -0,0 +1,16 @@
+package com.applicantztest.fileupload.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown while reading content once its first bytes show it cannot be
+ * accepted, so the rest of it is not read.
+ */
+public class ContentRejectedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    public ContentRejectedException(String message) {
+        super(message);
+    }
+}
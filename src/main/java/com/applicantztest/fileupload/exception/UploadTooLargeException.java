@@ -0,0 +1,23 @@
+package com.applicantztest.fileupload.exception;
+
+import java.io.IOException;
+
+/**
+ * Thrown while reading content whose size was not known up front once it
+ * passes the upload size limit.
+ */
+public class UploadTooLargeException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long maxSize;
+
+    public UploadTooLargeException(long maxSize) {
+        super("Content exceeds the maximum size of " + maxSize + " bytes");
+        this.maxSize = maxSize;
+    }
+
+    public long getMaxSize() {
+        return maxSize;
+    }
+}
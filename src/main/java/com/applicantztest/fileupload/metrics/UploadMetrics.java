@@ -0,0 +1,178 @@
+package com.applicantztest.fileupload.metrics;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Meters for the upload pipeline. Every stage reports into the one
+ * {@code upload.stage.duration} timer tagged by stage, so per-stage latency
+ * and SLOs can be read from a single metric. Content processors report
+ * under their own name. Tagged meters are built once per tag and cached, so
+ * recording never goes through the registry.
+ */
+@Component
+public class UploadMetrics {
+
+    public static final String STAGE_VALIDATION = "validation";
+    public static final String STAGE_COUNTING = "counting";
+    public static final String STAGE_SCANNING = "scanning";
+    public static final String STAGE_HASHING = "hashing";
+    public static final String STAGE_STORAGE = "storage";
+    public static final String STAGE_PERSISTENCE = "persistence";
+
+    public static final String REJECTED_EMPTY = "empty";
+    public static final String REJECTED_TYPE = "type";
+    public static final String REJECTED_SIZE = "size";
+    public static final String REJECTED_CONTENT = "content";
+    public static final String REJECTED_DUPLICATE = "duplicate";
+    public static final String REJECTED_QUEUE_FULL = "queue_full";
+
+    public static final String ADMITTED = "admitted";
+    public static final String ADMISSION_CONCURRENCY = "concurrency";
+    public static final String ADMISSION_MEMORY = "memory";
+
+    private final MeterRegistry registry;
+    private final Counter bytesProcessed;
+    private final DistributionSummary uploadSize;
+    private final Counter downloadBytes;
+
+    private final Map<String, Timer> stageTimers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> rejections = new ConcurrentHashMap<>();
+    private final Map<String, Counter> purged = new ConcurrentHashMap<>();
+    private final Map<String, Timer> downloads = new ConcurrentHashMap<>();
+    // by endpoint, then outcome
+    private final Map<String, Map<String, Counter>> admissions = new ConcurrentHashMap<>();
+
+    public UploadMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.bytesProcessed = Counter.builder("upload.bytes.processed")
+                .description("Bytes read through the ingest pipeline")
+                .baseUnit("bytes")
+                .register(registry);
+        this.uploadSize = DistributionSummary.builder("upload.size")
+                .description("Size of ingested uploads")
+                .baseUnit("bytes")
+                .register(registry);
+        this.downloadBytes = Counter.builder("file.download.bytes")
+                .description("Bytes of file content served")
+                .baseUnit("bytes")
+                .register(registry);
+
+        // the fixed tags are known up front, so they are reported from zero
+        List.of(STAGE_VALIDATION, STAGE_COUNTING, STAGE_SCANNING, STAGE_HASHING, STAGE_STORAGE, STAGE_PERSISTENCE)
+                .forEach(this::stageTimer);
+        List.of(REJECTED_EMPTY, REJECTED_TYPE, REJECTED_SIZE, REJECTED_CONTENT, REJECTED_DUPLICATE,
+                REJECTED_QUEUE_FULL).forEach(this::rejectionCounter);
+    }
+
+    public MeterRegistry getRegistry() {
+        return registry;
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    public void recordStage(String stage, Timer.Sample sample) {
+        sample.stop(stageTimer(stage));
+    }
+
+    public void recordStage(String stage, long nanos) {
+        stageTimer(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Builds the timers of further stages up front, e.g. those of content
+     * processors.
+     */
+    public void registerStages(Collection<String> stages) {
+        stages.forEach(this::stageTimer);
+    }
+
+    public void recordIngested(long bytes) {
+        bytesProcessed.increment(bytes);
+        uploadSize.record(bytes);
+    }
+
+    public void recordRejection(String reason) {
+        rejectionCounter(reason).increment();
+    }
+
+    public void recordPurged(String status, long count) {
+        purged.computeIfAbsent(status, tag -> Counter.builder("file.retention.purged")
+                .description("Rows deleted by the retention purge, by status")
+                .tag("status", tag)
+                .register(registry))
+                .increment(count);
+    }
+
+    public void recordDownload(Timer.Sample sample, String outcome, long bytes) {
+        sample.stop(downloads.computeIfAbsent(outcome, tag -> Timer.builder("file.download.duration")
+                .description("Time spent serving a download request")
+                .tag("outcome", tag)
+                .register(registry)));
+        downloadBytes.increment(bytes);
+    }
+
+    /**
+     * Counts an admission decision for an endpoint: admitted, or the limit
+     * that turned the request away.
+     */
+    public void recordAdmission(String endpoint, String outcome) {
+        admissions.computeIfAbsent(endpoint, tag -> new ConcurrentHashMap<>())
+                .computeIfAbsent(outcome, tag -> Counter.builder("upload.admission.requests")
+                        .description("Upload requests by admission outcome")
+                        .tag("endpoint", endpoint)
+                        .tag("outcome", tag)
+                        .register(registry))
+                .increment();
+    }
+
+    public void registerAdmissionPool(String endpoint, Supplier<Number> active, Supplier<Number> queued) {
+        Gauge.builder("upload.admission.active", active)
+                .description("Admitted upload requests in progress")
+                .tag("endpoint", endpoint)
+                .register(registry);
+        Gauge.builder("upload.admission.queued", queued)
+                .description("Upload requests waiting for admission")
+                .tag("endpoint", endpoint)
+                .register(registry);
+    }
+
+    public void registerAdmissionMemory(Supplier<Number> reserved, long budget) {
+        Gauge.builder("upload.admission.memory.reserved", reserved)
+                .description("Heap reserved by admitted upload requests")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("upload.admission.memory.budget", () -> budget)
+                .description("Heap upload requests may reserve in total")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private Timer stageTimer(String stage) {
+        return stageTimers.computeIfAbsent(stage, tag -> Timer.builder("upload.stage.duration")
+                .description("Time spent in each upload pipeline stage")
+                .tag("stage", tag)
+                .register(registry));
+    }
+
+    private Counter rejectionCounter(String reason) {
+        return rejections.computeIfAbsent(reason, tag -> Counter.builder("upload.rejections")
+                .description("Uploads rejected before being stored, by reason")
+                .tag("reason", tag)
+                .register(registry));
+    }
+}
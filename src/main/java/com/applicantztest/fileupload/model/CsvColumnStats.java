@@ -0,0 +1,46 @@
+package com.applicantztest.fileupload.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class CsvColumnStats {
+
+    // Header value, null when the file has no header
+    @Column(name = "column_name")
+    private String name;
+
+    @Column(name = "null_count", nullable = false)
+    private long nullCount;
+
+    @Column(name = "value_count", nullable = false)
+    private long valueCount;
+
+    // True when every non-empty value parses as a number
+    @Column(name = "numeric_values", nullable = false)
+    private boolean numeric;
+
+    // Compared numerically for numeric columns, otherwise by code point
+    @Column(name = "min_value")
+    private String minValue;
+
+    @Column(name = "max_value")
+    private String maxValue;
+
+    // HyperLogLog estimate of the distinct non-empty values
+    @Column(name = "distinct_estimate", nullable = false)
+    private long distinctEstimate;
+
+    public double getNullRate() {
+        long total = nullCount + valueCount;
+        return total == 0 ? 0 : (double) nullCount / total;
+    }
+
+}
@@ -0,0 +1,50 @@
+package com.applicantztest.fileupload.model;
+
+import jakarta.persistence.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "csv_profile")
+public class CsvProfile {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "csv_profile_seq")
+    @SequenceGenerator(name = "csv_profile_seq", sequenceName = "csv_profile_seq", allocationSize = 50)
+    private Long id;
+
+    // Data records, the header is not counted
+    @Column(name = "record_count", nullable = false)
+    private long recordCount;
+
+    @Column(name = "delimiter", nullable = false, length = 1)
+    private String delimiter;
+
+    @Column(name = "has_header", nullable = false)
+    private boolean headerPresent;
+
+    @Column(name = "min_fields", nullable = false)
+    private int minFieldsPerRecord;
+
+    @Column(name = "max_fields", nullable = false)
+    private int maxFieldsPerRecord;
+
+    // Records whose field count differs from the first record
+    @Column(name = "irregular_records", nullable = false)
+    private long irregularRecords;
+
+    // Columns past the statistics limit are counted but not profiled
+    @Column(name = "truncated_columns", nullable = false)
+    private boolean truncatedColumns;
+
+    @ElementCollection
+    @CollectionTable(name = "csv_column_stats", joinColumns = @JoinColumn(name = "profile_id"))
+    @OrderColumn(name = "column_index")
+    private List<CsvColumnStats> columns = new ArrayList<>();
+
+}
@@ -6,19 +6,33 @@ import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 
 import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "file_management")
+// keep in sync with the migrations under db/migration, which own the schema in the prod profile
+@Table(name = "file_management", indexes = {
+        @Index(name = "ux_file_management_content_hash", columnList = "content_hash", unique = true),
+        @Index(name = "ix_file_management_processed_at", columnList = "processed_at DESC, id DESC"),
+        @Index(name = "ix_file_management_status", columnList = "status, processed_at DESC, id DESC"),
+        @Index(name = "ix_file_management_file_type", columnList = "file_type, processed_at DESC, id DESC"),
+        @Index(name = "ix_file_management_filename_size_status", columnList = "filename, file_size, status")
+})
 public class FileManagement {
 
+    // sequence ids are allocated in blocks, so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "file_management_seq")
+    @SequenceGenerator(name = "file_management_seq", sequenceName = "file_management_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Filename cannot be blank")
@@ -37,12 +51,12 @@ public class FileManagement {
     @NotNull(message = "Line count cannot be null")
     @PositiveOrZero(message = "Line count must be positive or zero")
     @Column(name = "line_count", nullable = false)
-    private Integer lineCount;
+    private Long lineCount;
 
     @NotNull(message = "Word count cannot be null")
     @PositiveOrZero(message = "Word count must be positive or zero")
     @Column(name = "word_count", nullable = false)
-    private Integer wordCount;
+    private Long wordCount;
 
     @NotNull(message = "Processing timestamp cannot be null")
     @Column(name = "processed_at", nullable = false)
@@ -56,11 +70,24 @@ public class FileManagement {
     @Column(name = "error_message", length = 1000)
     private String errorMessage;
 
-    @Lob
-    @Column(name = "content")
-    private byte[] content;
+    // SHA-256 of the content, also the key of the stored blob
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
 
-    public FileManagement(String filename, String fileType, Long fileSize, Integer lineCount, Integer wordCount) {
+    // Encoding the content was detected as, null until it has been processed
+    @Enumerated(EnumType.STRING)
+    @Column(name = "encoding", length = 16)
+    private TextEncoding encoding;
+
+    // Column statistics of a CSV file, saved and deleted together with the row
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    @OneToOne(fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
+    @JoinColumn(name = "csv_profile_id")
+    private CsvProfile csvProfile;
+
+    public FileManagement(String filename, String fileType, Long fileSize, Long lineCount, Long wordCount) {
         this.filename = filename;
         this.fileType = fileType;
         this.fileSize = fileSize;
@@ -70,25 +97,35 @@ public class FileManagement {
         this.status = ProcessingStatus.SUCCESS;
     }
 
+    public FileManagement(String filename, String fileType, Long fileSize) {
+        this.filename = filename;
+        this.fileType = fileType;
+        this.fileSize = fileSize;
+        this.lineCount = 0L;
+        this.wordCount = 0L;
+        this.processedAt = LocalDateTime.now();
+        this.status = ProcessingStatus.PENDING;
+    }
+
     public FileManagement(String filename, String fileType, Long fileSize, String errorMessage) {
         this.filename = filename;
         this.fileType = fileType;
         this.fileSize = fileSize;
-        this.lineCount = 0;
-        this.wordCount = 0;
+        this.lineCount = 0L;
+        this.wordCount = 0L;
         this.errorMessage = errorMessage;
         this.processedAt = LocalDateTime.now();
         this.status = ProcessingStatus.FAILED;
     }
 
-    public FileManagement(String filename, String fileType, Long fileSize, Integer lineCount, Integer wordCount,
-            byte[] content) {
+    public FileManagement(String filename, String fileType, Long fileSize, Long lineCount, Long wordCount,
+            String contentHash) {
         this.filename = filename;
         this.fileType = fileType;
         this.fileSize = fileSize;
         this.lineCount = lineCount;
         this.wordCount = wordCount;
-        this.content = content;
+        this.contentHash = contentHash;
         this.processedAt = LocalDateTime.now();
         this.status = ProcessingStatus.SUCCESS;
     }
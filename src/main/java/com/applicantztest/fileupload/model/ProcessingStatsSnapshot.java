@@ -0,0 +1,45 @@
+package com.applicantztest.fileupload.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "processing_stats")
+public class ProcessingStatsSnapshot {
+
+    // Single row table
+    public static final Long SNAPSHOT_ID = 1L;
+
+    @Id
+    private Long id;
+
+    @Column(name = "total_files", nullable = false)
+    private long totalFiles;
+
+    @Column(name = "successful_files", nullable = false)
+    private long successfulFiles;
+
+    @Column(name = "failed_files", nullable = false)
+    private long failedFiles;
+
+    @Column(name = "total_lines", nullable = false)
+    private long totalLines;
+
+    @Column(name = "total_words", nullable = false)
+    private long totalWords;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Whether it was written on shutdown, with no change after it
+    @Column(name = "clean_shutdown", nullable = false)
+    private boolean cleanShutdown;
+
+}
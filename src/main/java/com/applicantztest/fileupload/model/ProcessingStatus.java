@@ -3,5 +3,6 @@ package com.applicantztest.fileupload.model;
 public enum ProcessingStatus {
         SUCCESS,
         FAILED,
-        PENDING
+        PENDING,
+        PROCESSING
 }
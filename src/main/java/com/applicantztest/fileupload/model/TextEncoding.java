@@ -0,0 +1,17 @@
+package com.applicantztest.fileupload.model;
+
+/**
+ * Encoding verdict for uploaded content, from a scan of its raw bytes.
+ */
+public enum TextEncoding {
+        // only 7-bit bytes, valid as UTF-8 and every ASCII-compatible charset
+        ASCII,
+        // well-formed UTF-8 with multi-byte characters
+        UTF_8,
+        // starts with a UTF-16 byte order mark
+        UTF_16,
+        // not well-formed UTF-8, most likely a single-byte charset such as Windows-1252
+        LEGACY_8BIT,
+        // contains NUL bytes, which text never does
+        BINARY
+}
@@ -0,0 +1,37 @@
+package com.applicantztest.fileupload.processing;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * A stage of the ingest pipeline. Each stage sees every chunk of the upload
+ * exactly once, in order, and must not keep a reference to the buffer after
+ * {@link #accept} returns because the pipeline reuses it for the next read.
+ */
+public interface ChunkConsumer {
+
+    void accept(byte[] buffer, int offset, int length) throws IOException;
+
+    /**
+     * Accepts the remaining bytes of the buffer without moving its position,
+     * e.g. a region of a memory-mapped file. Stages that can read the buffer
+     * in place override this, by default it is copied through a small array.
+     */
+    default void accept(ByteBuffer buffer) throws IOException {
+        if (buffer.hasArray()) {
+            accept(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+        ByteBuffer source = buffer.duplicate();
+        // 64KB, the same as the pipeline's read buffer
+        byte[] scratch = new byte[Math.min(source.remaining(), 64 * 1024)];
+        while (source.hasRemaining()) {
+            int length = Math.min(source.remaining(), scratch.length);
+            source.get(scratch, 0, length);
+            accept(scratch, 0, length);
+        }
+    }
+
+    default void complete() throws IOException {
+    }
+}
@@ -0,0 +1,44 @@
+package com.applicantztest.fileupload.processing;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes the SHA-256 of the upload incrementally as chunks pass through.
+ */
+public class ContentDigest implements ChunkConsumer {
+
+    private static final String ALGORITHM = "SHA-256";
+
+    private final MessageDigest digest;
+    private String hash;
+
+    public ContentDigest() {
+        try {
+            this.digest = MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    @Override
+    public void accept(byte[] buffer, int offset, int length) {
+        digest.update(buffer, offset, length);
+    }
+
+    @Override
+    public void accept(ByteBuffer buffer) {
+        digest.update(buffer.duplicate());
+    }
+
+    @Override
+    public void complete() {
+        hash = HexFormat.of().formatHex(digest.digest());
+    }
+
+    public String getHash() {
+        return hash;
+    }
+}
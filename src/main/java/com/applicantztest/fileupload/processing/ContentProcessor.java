@@ -0,0 +1,40 @@
+package com.applicantztest.fileupload.processing;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Extension point for file-type specific processing. Processors are Spring
+ * beans; for every upload the ingest pipeline asks each processor that
+ * handles the upload's type for fresh stages and runs them in the same single
+ * pass as counting, scanning and hashing. The file types of all processors
+ * are the types an upload may have.
+ */
+public interface ContentProcessor {
+
+    /**
+     * Stage tag under which the time spent in this processor's stages is
+     * recorded.
+     */
+    String getName();
+
+    /**
+     * Lower case file extensions this processor handles.
+     */
+    Set<String> getFileTypes();
+
+    /**
+     * Whether the content of these types is text, which validation checks
+     * for binary bytes and unsupported encodings. Processors of binary
+     * formats return false.
+     */
+    default boolean isText() {
+        return true;
+    }
+
+    /**
+     * Stages for one upload. Empty when the shared counting is all the type
+     * needs.
+     */
+    List<ProcessorStage> newStages(String fileType);
+}
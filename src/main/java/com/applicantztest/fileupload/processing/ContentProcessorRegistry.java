@@ -0,0 +1,70 @@
+package com.applicantztest.fileupload.processing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Looks up the {@link ContentProcessor} beans that handle a file type.
+ */
+@Component
+public class ContentProcessorRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentProcessorRegistry.class);
+
+    private final Map<String, List<ContentProcessor>> processorsByType = new HashMap<>();
+    private final Set<String> fileTypes;
+    private final Set<String> textTypes = new HashSet<>();
+    private final Set<String> processorNames = new TreeSet<>();
+
+    public ContentProcessorRegistry(List<ContentProcessor> processors) {
+        for (ContentProcessor processor : processors) {
+            processorNames.add(processor.getName());
+            for (String fileType : processor.getFileTypes()) {
+                processorsByType.computeIfAbsent(fileType, type -> new ArrayList<>()).add(processor);
+            }
+        }
+        this.fileTypes = Collections.unmodifiableSet(new TreeSet<>(processorsByType.keySet()));
+        processorsByType.forEach((fileType, typeProcessors) -> {
+            if (typeProcessors.stream().allMatch(ContentProcessor::isText)) {
+                textTypes.add(fileType);
+            }
+        });
+        logger.info("Content processors registered for file types: {}", fileTypes);
+    }
+
+    public List<ContentProcessor> getProcessors(String fileType) {
+        return processorsByType.getOrDefault(fileType, List.of());
+    }
+
+    /**
+     * File types handled by at least one processor, sorted.
+     */
+    public Set<String> getFileTypes() {
+        return fileTypes;
+    }
+
+    /**
+     * Names of all processors, the stage tags their stages are timed under.
+     */
+    public Set<String> getProcessorNames() {
+        return Collections.unmodifiableSet(processorNames);
+    }
+
+    /**
+     * Whether all processors of the type handle text content. False for a
+     * type no processor handles.
+     */
+    public boolean isTextType(String fileType) {
+        return textTypes.contains(fileType);
+    }
+}
@@ -0,0 +1,305 @@
+package com.applicantztest.fileupload.processing;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import com.applicantztest.fileupload.model.TextEncoding;
+
+/**
+ * Counts non-printable control bytes (anything below 0x20 except tab, LF and
+ * CR) and the number of UTF-16 chars the content decodes to, so the
+ * non-printable ratio can be checked without building a String. In the same
+ * pass it checks that the content is well-formed UTF-8 and settles on a
+ * {@link TextEncoding}.
+ * <p>
+ * ASCII is classified eight bytes at a time with SWAR (SIMD within a
+ * register) arithmetic on a long. Everything else goes through a table-driven
+ * UTF-8 automaton, one lookup per byte, which keeps its state across chunks.
+ */
+public class ContentScanner implements ChunkConsumer {
+
+    private static final VarHandle LONGS = MethodHandles.byteArrayViewVarHandle(long[].class,
+            ByteOrder.LITTLE_ENDIAN);
+
+    private static final long HIGH_BITS = 0x8080808080808080L;
+    private static final long LOW_BITS = 0x7F7F7F7F7F7F7F7FL;
+    private static final long SPACES = 0x2020202020202020L;
+    private static final long BELOW_SPACE = 0x6060606060606060L;
+    private static final long TABS = 0x0909090909090909L;
+    private static final long LFS = 0x0A0A0A0A0A0A0A0AL;
+    private static final long CRS = 0x0D0D0D0D0D0D0D0DL;
+
+    // automaton states, named by what the next byte must be
+    private static final int ACCEPT = 0;
+    private static final int ONE_MORE = 1;
+    private static final int TWO_MORE = 2;
+    private static final int THREE_MORE = 3;
+    private static final int AFTER_E0 = 4;
+    private static final int AFTER_ED = 5;
+    private static final int AFTER_F0 = 6;
+    private static final int AFTER_F4 = 7;
+    private static final int REJECT = 8;
+
+    // byte classes, by the ranges RFC 3629 allows after each lead byte
+    private static final int CLASSES = 12;
+    private static final byte[] BYTE_CLASS = new byte[256];
+    private static final byte[] TRANSITIONS = new byte[(REJECT + 1) * CLASSES];
+    // UTF-16 chars each byte starts: 1, or 2 for a four-byte lead, none for a continuation
+    private static final byte[] CHARS = new byte[256];
+
+    static {
+        for (int b = 0; b < 256; b++) {
+            int byteClass;
+            if (b < 0x80) {
+                byteClass = 0;
+            } else if (b < 0x90) {
+                byteClass = 1;
+            } else if (b < 0xA0) {
+                byteClass = 2;
+            } else if (b < 0xC0) {
+                byteClass = 3;
+            } else if (b < 0xC2 || b > 0xF4) {
+                byteClass = 4;
+            } else if (b < 0xE0) {
+                byteClass = 5;
+            } else if (b == 0xE0) {
+                byteClass = 6;
+            } else if (b == 0xED) {
+                byteClass = 8;
+            } else if (b < 0xF0) {
+                byteClass = 7;
+            } else if (b == 0xF0) {
+                byteClass = 9;
+            } else if (b < 0xF4) {
+                byteClass = 10;
+            } else {
+                byteClass = 11;
+            }
+            BYTE_CLASS[b] = (byte) byteClass;
+            CHARS[b] = (byte) (byteClass == 0 || byteClass >= 5 ? (b >= 0xF0 ? 2 : 1) : 0);
+        }
+
+        Arrays.fill(TRANSITIONS, (byte) REJECT);
+        transition(ACCEPT, ACCEPT, 0);
+        transition(ACCEPT, ONE_MORE, 5);
+        transition(ACCEPT, AFTER_E0, 6);
+        transition(ACCEPT, TWO_MORE, 7);
+        transition(ACCEPT, AFTER_ED, 8);
+        transition(ACCEPT, AFTER_F0, 9);
+        transition(ACCEPT, THREE_MORE, 10);
+        transition(ACCEPT, AFTER_F4, 11);
+        transition(ONE_MORE, ACCEPT, 1, 2, 3);
+        transition(TWO_MORE, ONE_MORE, 1, 2, 3);
+        transition(THREE_MORE, TWO_MORE, 1, 2, 3);
+        transition(AFTER_E0, ONE_MORE, 3);
+        transition(AFTER_ED, ONE_MORE, 1, 2);
+        transition(AFTER_F0, TWO_MORE, 2, 3);
+        transition(AFTER_F4, TWO_MORE, 1);
+    }
+
+    private static void transition(int from, int to, int... byteClasses) {
+        for (int byteClass : byteClasses) {
+            TRANSITIONS[from * CLASSES + byteClass] = (byte) to;
+        }
+    }
+
+    private long controlCount;
+    private long charCount;
+    private long nulCount;
+    private long malformedCount;
+    private int seenBytes;
+    private int state = ACCEPT;
+
+    // the first two bytes, for a byte order mark
+    private final int[] header = new int[2];
+    private int headerLength;
+
+    @Override
+    public void accept(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; headerLength < header.length && i < end; i++) {
+            header[headerLength++] = buffer[i] & 0xFF;
+        }
+
+        // the automaton state is a local so each step only waits on one table lookup
+        int state = this.state;
+        long chars = 0;
+        int seen = 0;
+        int i = offset;
+        while (i < end) {
+            if (state == ACCEPT && end - i >= Long.BYTES) {
+                int ascii = acceptAscii((long) LONGS.get(buffer, i));
+                if (ascii > 0) {
+                    chars += ascii;
+                    i += ascii;
+                    continue;
+                }
+            }
+            int b = buffer[i++] & 0xFF;
+            int next = TRANSITIONS[state * CLASSES + BYTE_CLASS[b]];
+            if (next == REJECT) {
+                state = reject(state, b);
+                continue;
+            }
+            state = next;
+            chars += CHARS[b];
+            seen |= b;
+            if (b < 0x20) {
+                countControl(b);
+            }
+        }
+        this.state = state;
+        this.charCount += chars;
+        this.seenBytes |= seen;
+    }
+
+    @Override
+    public void accept(ByteBuffer buffer) {
+        if (buffer.hasArray()) {
+            accept(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+            return;
+        }
+        int end = buffer.limit();
+        for (int i = buffer.position(); headerLength < header.length && i < end; i++) {
+            header[headerLength++] = buffer.get(i) & 0xFF;
+        }
+
+        // words are read little-endian so the first byte is the lowest lane
+        ByteBuffer words = buffer.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int state = this.state;
+        long chars = 0;
+        int seen = 0;
+        int i = buffer.position();
+        while (i < end) {
+            if (state == ACCEPT && end - i >= Long.BYTES) {
+                int ascii = acceptAscii(words.getLong(i));
+                if (ascii > 0) {
+                    chars += ascii;
+                    i += ascii;
+                    continue;
+                }
+            }
+            int b = buffer.get(i++) & 0xFF;
+            int next = TRANSITIONS[state * CLASSES + BYTE_CLASS[b]];
+            if (next == REJECT) {
+                state = reject(state, b);
+                continue;
+            }
+            state = next;
+            chars += CHARS[b];
+            seen |= b;
+            if (b < 0x20) {
+                countControl(b);
+            }
+        }
+        this.state = state;
+        this.charCount += chars;
+        this.seenBytes |= seen;
+    }
+
+    @Override
+    public void complete() {
+        if (state != ACCEPT) {
+            // content ends inside a multi-byte sequence
+            malformedCount++;
+            state = ACCEPT;
+        }
+    }
+
+    /*
+     * Counts the control bytes among the ASCII bytes at the start of a
+     * little-endian word and returns how many ASCII bytes there were. Lanes from the first non-ASCII byte on are masked
+     * to spaces; per-lane sums then stay below 0x100, so no carry crosses a
+     * lane.
+     */
+    private int acceptAscii(long word) {
+        long high = word & HIGH_BITS;
+        int count = high == 0 ? Long.BYTES : Long.numberOfTrailingZeros(high) >>> 3;
+        if (count == 0) {
+            return 0;
+        }
+        if (count < Long.BYTES) {
+            long keep = (1L << (count * 8)) - 1;
+            word = (word & keep) | (SPACES & ~keep);
+        }
+
+        long belowSpace = controlLanes(word);
+        if (belowSpace != 0) {
+            long allowed = zeroLanes(word ^ TABS) | zeroLanes(word ^ LFS) | zeroLanes(word ^ CRS);
+            controlCount += Long.bitCount(belowSpace & ~allowed);
+            nulCount += Long.bitCount(zeroLanes(word));
+        }
+        return count;
+    }
+
+    // the high bit of every lane below 0x20, for a word without high bits
+    static long controlLanes(long word) {
+        return ~(word + BELOW_SPACE) & HIGH_BITS;
+    }
+
+    // the high bit of every zero lane, for a word without high bits
+    static long zeroLanes(long word) {
+        return ~(word + LOW_BITS) & HIGH_BITS;
+    }
+
+    // a byte the automaton cannot take in its current state
+    private int reject(int state, int b) {
+        int byteClass = BYTE_CLASS[b];
+        if (state != ACCEPT) {
+            // truncated sequence, reprocess this byte on its own
+            malformedCount++;
+            int restarted = TRANSITIONS[ACCEPT * CLASSES + byteClass];
+            if (restarted != REJECT) {
+                charCount += CHARS[b];
+                seenBytes |= b;
+                if (b < 0x20) {
+                    countControl(b);
+                }
+                return restarted;
+            }
+        }
+        // stray continuation or invalid lead byte, decodes to U+FFFD
+        malformedCount++;
+        charCount++;
+        seenBytes |= b;
+        return ACCEPT;
+    }
+
+    private void countControl(int b) {
+        if (b == 0) {
+            nulCount++;
+        }
+        if (b != '\t' && b != '\n' && b != '\r') {
+            controlCount++;
+        }
+    }
+
+    public long getControlCount() {
+        return controlCount;
+    }
+
+    public long getCharCount() {
+        return charCount;
+    }
+
+    public long getMalformedCount() {
+        return malformedCount;
+    }
+
+    public TextEncoding getEncoding() {
+        if (headerLength == 2 && ((header[0] == 0xFE && header[1] == 0xFF)
+                || (header[0] == 0xFF && header[1] == 0xFE))) {
+            return TextEncoding.UTF_16;
+        }
+        if (nulCount > 0) {
+            return TextEncoding.BINARY;
+        }
+        if (malformedCount > 0) {
+            return TextEncoding.LEGACY_8BIT;
+        }
+        return (seenBytes & 0x80) != 0 ? TextEncoding.UTF_8 : TextEncoding.ASCII;
+    }
+}
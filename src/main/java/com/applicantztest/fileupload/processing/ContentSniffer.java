@@ -0,0 +1,86 @@
+package com.applicantztest.fileupload.processing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Recognises common binary formats by the magic number at the start of the
+ * content, e.g. a PDF or a ZIP archive renamed to {@code .csv}. Formats that
+ * are obviously binary from their first bytes (NULs and the like) are left to
+ * {@link ContentScanner}; the ones listed here can start with bytes that pass
+ * for text.
+ */
+public final class ContentSniffer {
+
+    private static final List<Signature> SIGNATURES = List.of(
+            new Signature("PDF", 0, ascii("%PDF-")),
+            new Signature("PNG", 0, bytes(0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)),
+            new Signature("JPEG", 0, bytes(0xFF, 0xD8, 0xFF)),
+            new Signature("GIF", 0, ascii("GIF87a")),
+            new Signature("GIF", 0, ascii("GIF89a")),
+            new Signature("ZIP", 0, bytes('P', 'K', 0x03, 0x04)),
+            new Signature("ZIP", 0, bytes('P', 'K', 0x05, 0x06)),
+            new Signature("GZIP", 0, bytes(0x1F, 0x8B)),
+            new Signature("BZIP2", 4, bytes(0x31, 0x41, 0x59, 0x26, 0x53, 0x59)),
+            new Signature("XZ", 0, bytes(0xFD, '7', 'z', 'X', 'Z', 0x00)),
+            new Signature("ZSTD", 0, bytes(0x28, 0xB5, 0x2F, 0xFD)),
+            new Signature("7Z", 0, bytes('7', 'z', 0xBC, 0xAF, 0x27, 0x1C)),
+            new Signature("RAR", 0, bytes('R', 'a', 'r', '!', 0x1A, 0x07)),
+            new Signature("OLE2", 0, bytes(0xD0, 0xCF, 0x11, 0xE0, 0xA1, 0xB1, 0x1A, 0xE1)),
+            new Signature("ELF", 0, bytes(0x7F, 'E', 'L', 'F')),
+            new Signature("Java class", 0, bytes(0xCA, 0xFE, 0xBA, 0xBE)),
+            new Signature("SQLite", 0, ascii("SQLite format 3\0")));
+
+    private ContentSniffer() {
+    }
+
+    /**
+     * The name of the binary format the content starts like, or null if it
+     * matches none of them.
+     */
+    public static String detectBinaryFormat(byte[] prefix, int length) {
+        for (Signature signature : SIGNATURES) {
+            if (signature.matches(prefix, length)) {
+                return signature.format;
+            }
+        }
+        return null;
+    }
+
+    private static byte[] ascii(String magic) {
+        return magic.getBytes(StandardCharsets.ISO_8859_1);
+    }
+
+    private static byte[] bytes(int... magic) {
+        byte[] result = new byte[magic.length];
+        for (int i = 0; i < magic.length; i++) {
+            result[i] = (byte) magic[i];
+        }
+        return result;
+    }
+
+    private static final class Signature {
+
+        private final String format;
+        private final int offset;
+        private final byte[] magic;
+
+        private Signature(String format, int offset, byte[] magic) {
+            this.format = format;
+            this.offset = offset;
+            this.magic = magic;
+        }
+
+        private boolean matches(byte[] prefix, int length) {
+            if (length < offset + magic.length) {
+                return false;
+            }
+            for (int i = 0; i < magic.length; i++) {
+                if (prefix[offset + i] != magic[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
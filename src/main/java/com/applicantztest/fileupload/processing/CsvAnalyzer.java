@@ -0,0 +1,509 @@
+package com.applicantztest.fileupload.processing;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.applicantztest.fileupload.model.CsvColumnStats;
+import com.applicantztest.fileupload.model.CsvProfile;
+import com.applicantztest.fileupload.model.FileManagement;
+
+/**
+ * Streaming RFC 4180 parser that profiles a CSV file as its chunks pass
+ * through: record count, fields per record, the delimiter, whether the first
+ * record is a header, and per-column null rate, min/max and distinct estimate.
+ * Quoted fields may contain delimiters, doubled quotes and line breaks.
+ * Memory depends on the number of profiled columns, not on the file size.
+ */
+public class CsvAnalyzer implements ProcessorStage {
+
+    private static final byte QUOTE = '"';
+
+    // In order of preference when the sample does not decide
+    private static final byte[] CANDIDATE_DELIMITERS = { ',', ';', '\t', '|' };
+
+    // The delimiter is detected on the start of the file (64KB)
+    private static final int SAMPLE_SIZE = 64 * 1024;
+    private static final int SAMPLE_RECORDS = 50;
+
+    // Columns past this are counted but not profiled
+    static final int MAX_COLUMNS = 256;
+
+    // Leading bytes of each field kept for min/max, number parsing and the header
+    static final int MAX_RETAINED = 64;
+
+    // Exact powers of ten, for the fast decimal path of parseNumber
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+    private static final int MAX_FAST_DIGITS = 18;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    // Parser states
+    private static final int FIELD_START = 0;
+    private static final int UNQUOTED = 1;
+    private static final int QUOTED = 2;
+    private static final int QUOTE_IN_QUOTED = 3;
+
+    private byte[] sample = new byte[SAMPLE_SIZE];
+    private int sampleLength;
+    private byte delimiter = ',';
+
+    private int state = FIELD_START;
+    private boolean previousCr;
+    private boolean recordStarted;
+
+    // Field being parsed
+    private final byte[] retained = new byte[MAX_RETAINED];
+    private int retainedLength;
+    private long fieldLength;
+    private long fieldHash = FNV_OFFSET;
+    private int fieldIndex;
+
+    private long recordCount;
+    private int firstRecordFields;
+    private int minFields = Integer.MAX_VALUE;
+    private int maxFields;
+    private long irregularRecords;
+
+    // Kept aside until the end decides whether it is a header
+    private final List<FieldValue> firstRecord = new ArrayList<>();
+    private final List<ColumnAccumulator> columns = new ArrayList<>();
+
+    private CsvProfile profile;
+
+    @Override
+    public void accept(byte[] buffer, int offset, int length) {
+        if (sample != null) {
+            int copied = Math.min(length, SAMPLE_SIZE - sampleLength);
+            System.arraycopy(buffer, offset, sample, sampleLength, copied);
+            sampleLength += copied;
+            if (sampleLength < SAMPLE_SIZE) {
+                return;
+            }
+            parseSample();
+            offset += copied;
+            length -= copied;
+        }
+        parse(buffer, offset, length);
+    }
+
+    @Override
+    public void complete() {
+        if (sample != null) {
+            parseSample();
+        }
+        if (recordStarted) {
+            endRecord();
+        }
+
+        boolean header = recordCount > 1 && firstRecordLooksLikeHeader();
+        if (!header) {
+            for (int i = 0; i < firstRecord.size(); i++) {
+                FieldValue value = firstRecord.get(i);
+                column(i).add(value.bytes, value.bytes.length, value.length, value.hash);
+            }
+        }
+
+        profile = new CsvProfile();
+        profile.setRecordCount(header ? recordCount - 1 : recordCount);
+        profile.setDelimiter(String.valueOf((char) delimiter));
+        profile.setHeaderPresent(header);
+        profile.setMinFieldsPerRecord(recordCount == 0 ? 0 : minFields);
+        profile.setMaxFieldsPerRecord(maxFields);
+        profile.setIrregularRecords(irregularRecords);
+        profile.setTruncatedColumns(maxFields > MAX_COLUMNS);
+        for (int i = 0; i < Math.min(maxFields, MAX_COLUMNS); i++) {
+            String name = header && i < firstRecord.size() ? firstRecord.get(i).text() : null;
+            profile.getColumns().add(column(i).toStats(name));
+        }
+        // the profile is all that is needed from here on
+        firstRecord.clear();
+        columns.clear();
+    }
+
+    @Override
+    public void applyTo(FileManagement file) {
+        file.setCsvProfile(profile);
+    }
+
+    /**
+     * Quoted fields may span lines, so a CSV has as many lines as records.
+     */
+    @Override
+    public long getLineCount() {
+        return recordCount;
+    }
+
+    public CsvProfile getProfile() {
+        return profile;
+    }
+
+    /**
+     * All records including the header, i.e. the logical lines of the file.
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    private void parseSample() {
+        byte[] buffered = sample;
+        sample = null;
+        delimiter = detectDelimiter(buffered, sampleLength);
+        parse(buffered, 0, sampleLength);
+    }
+
+    private void parse(byte[] buffer, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            byte b = buffer[i];
+            switch (state) {
+                case QUOTED:
+                    if (b == QUOTE) {
+                        state = QUOTE_IN_QUOTED;
+                    } else {
+                        append(b);
+                    }
+                    break;
+                case QUOTE_IN_QUOTED:
+                    if (b == QUOTE) {
+                        // doubled quote is an escaped quote
+                        append(b);
+                        state = QUOTED;
+                    } else {
+                        unquoted(b);
+                    }
+                    break;
+                case FIELD_START:
+                    if (b == QUOTE) {
+                        state = QUOTED;
+                        recordStarted = true;
+                        previousCr = false;
+                    } else {
+                        unquoted(b);
+                    }
+                    break;
+                default:
+                    unquoted(b);
+            }
+        }
+    }
+
+    private void unquoted(byte b) {
+        if (b == '\n' && previousCr) {
+            // second half of a CRLF terminator
+            previousCr = false;
+            return;
+        }
+        previousCr = false;
+
+        if (b == delimiter) {
+            endField();
+            recordStarted = true;
+            state = FIELD_START;
+        } else if (b == '\r' || b == '\n') {
+            // blank lines are skipped rather than read as single empty fields
+            if (recordStarted) {
+                endRecord();
+            }
+            previousCr = b == '\r';
+            state = FIELD_START;
+        } else {
+            append(b);
+            recordStarted = true;
+            state = UNQUOTED;
+        }
+    }
+
+    private void append(byte b) {
+        if (retainedLength < MAX_RETAINED) {
+            retained[retainedLength++] = b;
+        }
+        fieldHash = (fieldHash ^ (b & 0xFF)) * FNV_PRIME;
+        fieldLength++;
+    }
+
+    private void endField() {
+        if (fieldIndex < MAX_COLUMNS) {
+            if (recordCount == 0) {
+                firstRecord.add(new FieldValue(Arrays.copyOf(retained, retainedLength), fieldLength, fieldHash));
+            } else {
+                column(fieldIndex).add(retained, retainedLength, fieldLength, fieldHash);
+            }
+        }
+        fieldIndex++;
+        retainedLength = 0;
+        fieldLength = 0;
+        fieldHash = FNV_OFFSET;
+    }
+
+    private void endRecord() {
+        endField();
+        if (recordCount == 0) {
+            firstRecordFields = fieldIndex;
+        } else if (fieldIndex != firstRecordFields) {
+            irregularRecords++;
+        }
+        minFields = Math.min(minFields, fieldIndex);
+        maxFields = Math.max(maxFields, fieldIndex);
+        recordCount++;
+        fieldIndex = 0;
+        recordStarted = false;
+    }
+
+    private ColumnAccumulator column(int index) {
+        while (columns.size() <= index) {
+            columns.add(new ColumnAccumulator());
+        }
+        return columns.get(index);
+    }
+
+    // A header is all text: no empty, numeric or repeated values
+    private boolean firstRecordLooksLikeHeader() {
+        Set<Long> seen = new HashSet<>();
+        for (FieldValue value : firstRecord) {
+            if (value.length == 0 || !Double.isNaN(parseNumber(value.bytes, value.bytes.length, value.length))
+                    || !seen.add(value.hash)) {
+                return false;
+            }
+        }
+        return !firstRecord.isEmpty();
+    }
+
+    /**
+     * Picks the candidate that occurs the same, non-zero number of times
+     * outside quotes on the most sampled records.
+     */
+    static byte detectDelimiter(byte[] sample, int length) {
+        byte best = CANDIDATE_DELIMITERS[0];
+        int bestRecords = 0;
+        int bestCount = 0;
+
+        for (byte candidate : CANDIDATE_DELIMITERS) {
+            int[] counts = new int[SAMPLE_RECORDS];
+            int records = 0;
+            int count = 0;
+            boolean quoted = false;
+            for (int i = 0; i < length && records < SAMPLE_RECORDS; i++) {
+                byte b = sample[i];
+                if (b == QUOTE) {
+                    quoted = !quoted;
+                } else if (!quoted && b == candidate) {
+                    count++;
+                } else if (!quoted && (b == '\r' || (b == '\n' && (i == 0 || sample[i - 1] != '\r')))) {
+                    counts[records++] = count;
+                    count = 0;
+                }
+            }
+            // the sample may end mid-record, so a trailing partial record only counts alone
+            if (records == 0) {
+                counts[records++] = count;
+            }
+
+            int modeCount = 0;
+            int modeRecords = 0;
+            for (int i = 0; i < records; i++) {
+                if (counts[i] == 0) {
+                    continue;
+                }
+                int matching = 0;
+                for (int j = 0; j < records; j++) {
+                    if (counts[j] == counts[i]) {
+                        matching++;
+                    }
+                }
+                if (matching > modeRecords || (matching == modeRecords && counts[i] > modeCount)) {
+                    modeRecords = matching;
+                    modeCount = counts[i];
+                }
+            }
+
+            if (modeRecords > bestRecords || (modeRecords == bestRecords && modeCount > bestCount)) {
+                best = candidate;
+                bestRecords = modeRecords;
+                bestCount = modeCount;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Parses a field as a decimal number, or returns NaN. Only fields short
+     * enough to be fully retained are considered. Plain decimals of up to 18
+     * digits are converted without allocating, exactly up to 15 digits and
+     * within an ulp or two beyond, which is plenty for min/max. Exponents go
+     * through Double.parseDouble.
+     */
+    static double parseNumber(byte[] bytes, int retainedLength, long length) {
+        if (length > retainedLength) {
+            return Double.NaN;
+        }
+        int start = 0;
+        int end = retainedLength;
+        while (start < end && bytes[start] == ' ') {
+            start++;
+        }
+        while (end > start && bytes[end - 1] == ' ') {
+            end--;
+        }
+
+        int i = start;
+        boolean negative = false;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) {
+            negative = bytes[i] == '-';
+            i++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = -1;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                digits++;
+                if (fractionDigits >= 0) {
+                    fractionDigits++;
+                }
+            } else if (b == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                break;
+            }
+        }
+        if (i == end) {
+            if (digits == 0) {
+                return Double.NaN;
+            }
+            if (digits <= MAX_FAST_DIGITS) {
+                // with an exact mantissa the division is correctly rounded
+                double value = fractionDigits > 0 ? mantissa / POWERS_OF_TEN[fractionDigits] : mantissa;
+                return negative ? -value : value;
+            }
+        }
+
+        for (int j = start; j < end; j++) {
+            byte b = bytes[j];
+            if ((b < '0' || b > '9') && b != '+' && b != '-' && b != '.' && b != 'e' && b != 'E') {
+                return Double.NaN;
+            }
+        }
+        try {
+            return Double.parseDouble(new String(bytes, start, end - start, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+
+    // Decodes retained bytes, dropping a character cut off at the retention limit
+    static String decode(byte[] bytes, int length) {
+        int end = length;
+        if (length == MAX_RETAINED) {
+            int start = end - 1;
+            while (start > 0 && (bytes[start] & 0xC0) == 0x80) {
+                start--;
+            }
+            int lead = bytes[start] & 0xFF;
+            int expected = lead >= 0xF0 ? 4 : lead >= 0xE0 ? 3 : lead >= 0xC0 ? 2 : 1;
+            if (end - start < expected) {
+                end = start;
+            }
+        }
+        return new String(bytes, 0, end, StandardCharsets.UTF_8);
+    }
+
+    private static final class FieldValue {
+
+        private final byte[] bytes;
+        private final long length;
+        private final long hash;
+
+        private FieldValue(byte[] bytes, long length, long hash) {
+            this.bytes = bytes;
+            this.length = length;
+            this.hash = hash;
+        }
+
+        private String text() {
+            return decode(bytes, bytes.length);
+        }
+    }
+
+    private static final class ColumnAccumulator {
+
+        private final HyperLogLog distinct = new HyperLogLog();
+        private long nullCount;
+        private long valueCount;
+        private long numericCount;
+
+        private double minNumber;
+        private double maxNumber;
+        private final byte[] minNumberText = new byte[MAX_RETAINED];
+        private final byte[] maxNumberText = new byte[MAX_RETAINED];
+        private int minNumberLength;
+        private int maxNumberLength;
+
+        // UTF-8 byte order is code point order, so text is compared unsigned
+        private final byte[] minText = new byte[MAX_RETAINED];
+        private final byte[] maxText = new byte[MAX_RETAINED];
+        private int minTextLength = -1;
+        private int maxTextLength = -1;
+
+        private void add(byte[] value, int retainedLength, long length, long hash) {
+            if (length == 0) {
+                nullCount++;
+                return;
+            }
+            valueCount++;
+            distinct.offer(hash);
+
+            // stop parsing once the column has shown a non-numeric value
+            if (numericCount == valueCount - 1) {
+                double number = parseNumber(value, retainedLength, length);
+                if (!Double.isNaN(number)) {
+                    if (numericCount == 0 || number < minNumber) {
+                        minNumber = number;
+                        System.arraycopy(value, 0, minNumberText, 0, retainedLength);
+                        minNumberLength = retainedLength;
+                    }
+                    if (numericCount == 0 || number > maxNumber) {
+                        maxNumber = number;
+                        System.arraycopy(value, 0, maxNumberText, 0, retainedLength);
+                        maxNumberLength = retainedLength;
+                    }
+                    numericCount++;
+                }
+            }
+
+            if (minTextLength < 0
+                    || Arrays.compareUnsigned(value, 0, retainedLength, minText, 0, minTextLength) < 0) {
+                System.arraycopy(value, 0, minText, 0, retainedLength);
+                minTextLength = retainedLength;
+            }
+            if (maxTextLength < 0
+                    || Arrays.compareUnsigned(value, 0, retainedLength, maxText, 0, maxTextLength) > 0) {
+                System.arraycopy(value, 0, maxText, 0, retainedLength);
+                maxTextLength = retainedLength;
+            }
+        }
+
+        private CsvColumnStats toStats(String name) {
+            boolean numeric = valueCount > 0 && numericCount == valueCount;
+            String min = null;
+            String max = null;
+            if (numeric) {
+                min = decode(minNumberText, minNumberLength).trim();
+                max = decode(maxNumberText, maxNumberLength).trim();
+            } else if (valueCount > 0) {
+                min = decode(minText, minTextLength);
+                max = decode(maxText, maxTextLength);
+            }
+            long distinctEstimate = valueCount == 0 ? 0 : Math.min(distinct.estimate(), valueCount);
+            return new CsvColumnStats(name, nullCount, valueCount, numeric, min, max, distinctEstimate);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.applicantztest.fileupload.processing;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Profiles CSV files with a {@link CsvAnalyzer}.
+ */
+@Component
+public class CsvProcessor implements ContentProcessor {
+
+    @Override
+    public String getName() {
+        return "csv_profiling";
+    }
+
+    @Override
+    public Set<String> getFileTypes() {
+        return Set.of("csv");
+    }
+
+    @Override
+    public List<ProcessorStage> newStages(String fileType) {
+        return List.of(new CsvAnalyzer());
+    }
+}
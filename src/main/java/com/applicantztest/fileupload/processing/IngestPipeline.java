@@ -0,0 +1,313 @@
+package com.applicantztest.fileupload.processing;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.applicantztest.fileupload.dto.IngestResult;
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+
+/**
+ * Reads an upload once, in fixed-size chunks, and hands every chunk to the
+ * counting, content-scan and hashing stages, the stages of the
+ * {@link ContentProcessor}s for the file type, and the storage sink. The only
+ * per-upload buffer is the read buffer itself, and files already on local disk
+ * are mapped instead of read. An optional {@link PrefixCheck} sees the first
+ * bytes before any stage does and can abort the ingest right there.
+ */
+@Component
+public class IngestPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(IngestPipeline.class);
+
+    // Read buffer size in bytes (64KB)
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // Files on local disk are mapped this many bytes at a time (256MB)
+    private static final int MAP_WINDOW_SIZE = 256 * 1024 * 1024;
+
+    private final ParallelTextCounter parallelTextCounter;
+    private final ContentProcessorRegistry processorRegistry;
+    private final UploadMetrics uploadMetrics;
+
+    public IngestPipeline(ParallelTextCounter parallelTextCounter, ContentProcessorRegistry processorRegistry,
+            UploadMetrics uploadMetrics) {
+        this.parallelTextCounter = parallelTextCounter;
+        this.processorRegistry = processorRegistry;
+        this.uploadMetrics = uploadMetrics;
+        uploadMetrics.registerStages(processorRegistry.getProcessorNames());
+    }
+
+    public IngestResult ingest(InputStream input, OutputStream sink, long expectedSize) throws IOException {
+        return ingest(input, sink, expectedSize, null);
+    }
+
+    public IngestResult ingest(InputStream input, OutputStream sink, long expectedSize, String fileType)
+            throws IOException {
+        return ingest(input, sink, expectedSize, fileType, null);
+    }
+
+    public IngestResult ingest(InputStream input, OutputStream sink, long expectedSize, String fileType,
+            PrefixCheck prefixCheck) throws IOException {
+        IngestSession session = newSession(sink, expectedSize, fileType, prefixCheck);
+        byte[] buffer = new byte[BUFFER_SIZE];
+        int read;
+
+        while ((read = input.read(buffer)) != -1) {
+            if (read == 0) {
+                continue;
+            }
+            session.accept(buffer, 0, read);
+        }
+
+        return session.finish();
+    }
+
+    /**
+     * Ingests a file on local disk by mapping it window by window, so every
+     * stage reads the page cache in place and nothing is copied onto the heap.
+     * Storing the file is left to the caller. The file must not change while
+     * it is mapped.
+     */
+    public IngestResult ingestFile(Path file, String fileType, PrefixCheck prefixCheck) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            // Large files are counted window by window on the fork/join pool
+            TextCountingConsumer counter = parallelTextCounter.shouldParallelize(size)
+                    ? parallelTextCounter.newMappedCounter()
+                    : new TextCounter();
+            IngestSession session = newSession(counter, null, fileType, prefixCheck);
+
+            long position = 0;
+            while (position < size) {
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position,
+                        Math.min(MAP_WINDOW_SIZE, size - position));
+                int length = window.limit();
+                if (position + length < size && (window.get(length - 1) & 0x80) != 0) {
+                    // the mapped counter needs windows that end between characters
+                    length = ParallelTextCounter.alignToCharBoundary(window, length - 1, 0);
+                    window.limit(length);
+                }
+                session.accept(window);
+                position += length;
+            }
+            return session.finish();
+        }
+    }
+
+    /**
+     * Starts an ingest whose content arrives over time, e.g. one chunk per
+     * request of a resumable upload. Chunks must be passed in content order.
+     * The sink is null when the content is stored some other way, the prefix
+     * check is null when the content is not checked early.
+     */
+    public IngestSession newSession(OutputStream sink, long expectedSize, String fileType,
+            PrefixCheck prefixCheck) {
+        // Large uploads are counted segment by segment on the fork/join pool
+        TextCountingConsumer counter = parallelTextCounter.shouldParallelize(expectedSize)
+                ? parallelTextCounter.newStreamingCounter()
+                : new TextCounter();
+        return newSession(counter, sink, fileType, prefixCheck);
+    }
+
+    private IngestSession newSession(TextCountingConsumer counter, OutputStream sink, String fileType,
+            PrefixCheck prefixCheck) {
+        List<ProcessorStage> stages = new ArrayList<>();
+        List<String> stageNames = new ArrayList<>();
+        for (ContentProcessor processor : processorRegistry.getProcessors(fileType)) {
+            for (ProcessorStage stage : processor.newStages(fileType)) {
+                stages.add(stage);
+                stageNames.add(processor.getName());
+            }
+        }
+        return new IngestSession(counter, stages, stageNames, sink, prefixCheck);
+    }
+
+    public final class IngestSession {
+
+        private final TextCountingConsumer counter;
+        private final ContentScanner scanner = new ContentScanner();
+        private final ContentDigest digest = new ContentDigest();
+        private final ProcessorStage[] stages;
+        private final String[] stageNames;
+        // null when the content is already stored
+        private final OutputStream sink;
+        private long byteCount;
+
+        // cleared once the prefix has been checked
+        private PrefixCheck prefixCheck;
+        private final byte[] prefix;
+        private int prefixLength;
+
+        // stages share each chunk, so their time is summed per chunk and recorded once
+        private long countingNanos;
+        private long scanningNanos;
+        private long hashingNanos;
+        private final long[] stageNanos;
+        private long storageNanos;
+
+        private IngestSession(TextCountingConsumer counter, List<ProcessorStage> stages, List<String> stageNames,
+                OutputStream sink, PrefixCheck prefixCheck) {
+            this.counter = counter;
+            this.stages = stages.toArray(new ProcessorStage[0]);
+            this.stageNames = stageNames.toArray(new String[0]);
+            this.stageNanos = new long[this.stages.length];
+            this.sink = sink;
+            this.prefixCheck = prefixCheck;
+            this.prefix = prefixCheck != null ? new byte[prefixCheck.getPrefixSize()] : null;
+        }
+
+        public void accept(byte[] buffer, int offset, int length) throws IOException {
+            if (prefixCheck != null) {
+                int copied = Math.min(length, prefix.length - prefixLength);
+                System.arraycopy(buffer, offset, prefix, prefixLength, copied);
+                collectedPrefix(copied);
+            }
+            long started = System.nanoTime();
+            counter.accept(buffer, offset, length);
+            long counted = System.nanoTime();
+            scanner.accept(buffer, offset, length);
+            long scanned = System.nanoTime();
+            digest.accept(buffer, offset, length);
+            long hashed = System.nanoTime();
+            long processed = hashed;
+            for (int i = 0; i < stages.length; i++) {
+                stages[i].accept(buffer, offset, length);
+                long now = System.nanoTime();
+                stageNanos[i] += now - processed;
+                processed = now;
+            }
+            if (sink != null) {
+                sink.write(buffer, offset, length);
+            }
+            long stored = System.nanoTime();
+
+            countingNanos += counted - started;
+            scanningNanos += scanned - counted;
+            hashingNanos += hashed - scanned;
+            storageNanos += stored - processed;
+            byteCount += length;
+        }
+
+        /**
+         * Passes the remaining bytes of the buffer, e.g. a mapped file region,
+         * to every stage without copying it first. The buffer's position is
+         * left unchanged. A session with a storage sink only takes arrays.
+         */
+        public void accept(ByteBuffer buffer) throws IOException {
+            if (sink != null) {
+                throw new IllegalStateException("A session with a storage sink only accepts arrays");
+            }
+            if (prefixCheck != null) {
+                int copied = Math.min(buffer.remaining(), prefix.length - prefixLength);
+                buffer.get(buffer.position(), prefix, prefixLength, copied);
+                collectedPrefix(copied);
+            }
+            long started = System.nanoTime();
+            counter.accept(buffer);
+            long counted = System.nanoTime();
+            scanner.accept(buffer);
+            long scanned = System.nanoTime();
+            digest.accept(buffer);
+            long hashed = System.nanoTime();
+            long processed = hashed;
+            for (int i = 0; i < stages.length; i++) {
+                stages[i].accept(buffer);
+                long now = System.nanoTime();
+                stageNanos[i] += now - processed;
+                processed = now;
+            }
+
+            countingNanos += counted - started;
+            scanningNanos += scanned - counted;
+            hashingNanos += hashed - scanned;
+            byteCount += buffer.remaining();
+        }
+
+        public long getByteCount() {
+            return byteCount;
+        }
+
+        public IngestResult finish() throws IOException {
+            if (prefixCheck != null) {
+                // content shorter than the prefix is checked as a whole
+                checkPrefix();
+            }
+            long completing = System.nanoTime();
+            counter.complete();
+            long counted = System.nanoTime();
+            scanner.complete();
+            digest.complete();
+            long hashed = System.nanoTime();
+            long processed = hashed;
+            for (int i = 0; i < stages.length; i++) {
+                stages[i].complete();
+                long now = System.nanoTime();
+                stageNanos[i] += now - processed;
+                processed = now;
+            }
+            if (sink != null) {
+                sink.flush();
+            }
+            long flushed = System.nanoTime();
+
+            uploadMetrics.recordStage(UploadMetrics.STAGE_COUNTING, countingNanos + counted - completing);
+            uploadMetrics.recordStage(UploadMetrics.STAGE_SCANNING, scanningNanos);
+            uploadMetrics.recordStage(UploadMetrics.STAGE_HASHING, hashingNanos + hashed - counted);
+            recordProcessorStages();
+            if (sink != null) {
+                uploadMetrics.recordStage(UploadMetrics.STAGE_STORAGE, storageNanos + flushed - processed);
+            }
+            uploadMetrics.recordIngested(byteCount);
+
+            TextCounts counts = counter.getCounts();
+            long lineCount = counts.getLineCount();
+            for (ProcessorStage stage : stages) {
+                if (stage.getLineCount() >= 0) {
+                    lineCount = stage.getLineCount();
+                }
+            }
+            logger.debug("Ingested {} bytes in a single pass. Lines: {}, Words: {}, Hash: {}",
+                    byteCount, lineCount, counts.getWordCount(), digest.getHash());
+
+            return new IngestResult(byteCount, lineCount, counts.getWordCount(),
+                    scanner.getControlCount(), scanner.getCharCount(), scanner.getEncoding(), digest.getHash(),
+                    List.of(stages));
+        }
+
+        private void collectedPrefix(int length) throws IOException {
+            prefixLength += length;
+            if (prefixLength == prefix.length) {
+                checkPrefix();
+            }
+        }
+
+        private void checkPrefix() throws IOException {
+            PrefixCheck check = prefixCheck;
+            prefixCheck = null;
+            check.check(prefix, prefixLength);
+        }
+
+        // one sample per processor, however many stages it contributed
+        private void recordProcessorStages() {
+            Map<String, Long> nanosByName = new LinkedHashMap<>();
+            for (int i = 0; i < stages.length; i++) {
+                nanosByName.merge(stageNames[i], stageNanos[i], Long::sum);
+            }
+            nanosByName.forEach(uploadMetrics::recordStage);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package com.applicantztest.fileupload.processing;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Counts lines and words of large content on a ForkJoinPool. Content is split
+ * into byte ranges on UTF-8 character boundaries, each range is counted with
+ * its own {@link TextCounter} and the partial {@link TextCounts} are merged in
+ * order, which stitches words and CRLF pairs that straddle a split.
+ */
+@Component
+public class ParallelTextCounter {
+
+    private static final Logger logger = LoggerFactory.getLogger(ParallelTextCounter.class);
+
+    // Ranges at or below this size are counted on a single thread (128KB)
+    private static final int DEFAULT_LEAF_SIZE = 128 * 1024;
+
+    private final ForkJoinPool pool;
+    private final long parallelThreshold;
+    private final int segmentSize;
+    private final int leafSize;
+
+    @Autowired
+    public ParallelTextCounter(FileUploadProperties fileUploadProperties) {
+        this(fileUploadProperties.getProcessing().getParallelism(),
+                fileUploadProperties.getProcessing().getParallelThreshold().toBytes(),
+                Math.toIntExact(fileUploadProperties.getProcessing().getSegmentSize().toBytes()),
+                DEFAULT_LEAF_SIZE);
+    }
+
+    ParallelTextCounter(int parallelism, long parallelThreshold, int segmentSize, int leafSize) {
+        this.pool = new ForkJoinPool(parallelism);
+        this.parallelThreshold = parallelThreshold;
+        this.segmentSize = segmentSize;
+        this.leafSize = leafSize;
+        logger.info("Parallel counting enabled for content of {} bytes or more (parallelism: {})",
+                parallelThreshold, parallelism);
+    }
+
+    public boolean shouldParallelize(long contentSize) {
+        return contentSize >= parallelThreshold;
+    }
+
+    /**
+     * Counts the remaining bytes of the buffer, which may be a heap buffer or
+     * a mapped file region.
+     */
+    public TextCounts count(ByteBuffer content) {
+        return pool.invoke(new CountTask(content, content.position(), content.limit(), leafSize));
+    }
+
+    /**
+     * A pipeline stage that copies incoming chunks into fixed-size segments and
+     * counts every full segment on the pool while the upload keeps streaming.
+     * At most one segment per pool thread is in flight, so memory stays bounded.
+     */
+    public TextCountingConsumer newStreamingCounter() {
+        return new StreamingCounter();
+    }
+
+    /**
+     * A pipeline stage that counts each accepted buffer in place on the pool,
+     * for content that is already mapped or in memory, so nothing is copied.
+     * Every buffer but the last must end on a UTF-8 character boundary.
+     */
+    public TextCountingConsumer newMappedCounter() {
+        return new MappedCounter();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    static int alignToCharBoundary(ByteBuffer content, int index, int from) {
+        int boundary = index;
+        int steps = 0;
+        while (boundary > from && steps < 3 && isContinuation(content.get(boundary))) {
+            boundary--;
+            steps++;
+        }
+        if (boundary == from || isContinuation(content.get(boundary))) {
+            // a stray continuation byte, the decoder is idle here anyway
+            return index;
+        }
+        return boundary;
+    }
+
+    private static boolean isContinuation(byte b) {
+        return (b & 0xC0) == 0x80;
+    }
+
+    private static final class CountTask extends RecursiveTask<TextCounts> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient ByteBuffer content;
+        private final int from;
+        private final int to;
+        private final int leafSize;
+
+        CountTask(ByteBuffer content, int from, int to, int leafSize) {
+            this.content = content;
+            this.from = from;
+            this.to = to;
+            this.leafSize = leafSize;
+        }
+
+        @Override
+        protected TextCounts compute() {
+            if (to - from <= leafSize) {
+                TextCounter counter = new TextCounter();
+                counter.accept(content.duplicate().limit(to).position(from));
+                return counter.getCounts();
+            }
+
+            int split = alignToCharBoundary(content, from + (to - from) / 2, from);
+            CountTask left = new CountTask(content, from, split, leafSize);
+            CountTask right = new CountTask(content, split, to, leafSize);
+            left.fork();
+            TextCounts rightCounts = right.compute();
+            return left.join().merge(rightCounts);
+        }
+    }
+
+    private final class StreamingCounter implements TextCountingConsumer {
+
+        private final Deque<ForkJoinTask<TextCounts>> inFlight = new ArrayDeque<>();
+        private final Deque<byte[]> inFlightSegments = new ArrayDeque<>();
+        private final Deque<byte[]> freeSegments = new ArrayDeque<>();
+
+        private byte[] segment = new byte[segmentSize];
+        private int filled;
+        private TextCounts counts = TextCounts.EMPTY;
+
+        @Override
+        public void accept(byte[] buffer, int offset, int length) {
+            while (length > 0) {
+                int copied = Math.min(length, segment.length - filled);
+                System.arraycopy(buffer, offset, segment, filled, copied);
+                filled += copied;
+                offset += copied;
+                length -= copied;
+
+                if (filled == segment.length) {
+                    submitSegment();
+                }
+            }
+        }
+
+        @Override
+        public void accept(ByteBuffer buffer) {
+            int position = buffer.position();
+            int length = buffer.remaining();
+            while (length > 0) {
+                int copied = Math.min(length, segment.length - filled);
+                buffer.get(position, segment, filled, copied);
+                filled += copied;
+                position += copied;
+                length -= copied;
+
+                if (filled == segment.length) {
+                    submitSegment();
+                }
+            }
+        }
+
+        @Override
+        public void complete() {
+            if (filled > 0) {
+                inFlight.addLast(pool.submit(
+                        new CountTask(ByteBuffer.wrap(segment, 0, filled), 0, filled, leafSize)));
+                inFlightSegments.addLast(segment);
+                filled = 0;
+            }
+            while (!inFlight.isEmpty()) {
+                joinOldest();
+            }
+        }
+
+        @Override
+        public TextCounts getCounts() {
+            return counts;
+        }
+
+        private void submitSegment() {
+            ByteBuffer full = ByteBuffer.wrap(segment, 0, filled);
+            int boundary = alignToCharBoundary(full, filled - 1, 0);
+            if ((segment[filled - 1] & 0x80) == 0) {
+                // last byte is ASCII, nothing to carry over
+                boundary = filled;
+            }
+
+            inFlight.addLast(pool.submit(new CountTask(full, 0, boundary, leafSize)));
+            inFlightSegments.addLast(segment);
+
+            byte[] next = freeSegments.isEmpty() ? new byte[segmentSize] : freeSegments.pollFirst();
+            int carried = filled - boundary;
+            System.arraycopy(segment, boundary, next, 0, carried);
+            segment = next;
+            filled = carried;
+
+            if (inFlight.size() >= pool.getParallelism()) {
+                joinOldest();
+            }
+        }
+
+        private void joinOldest() {
+            counts = counts.merge(inFlight.pollFirst().join());
+            freeSegments.addLast(inFlightSegments.pollFirst());
+        }
+    }
+
+    private final class MappedCounter implements TextCountingConsumer {
+
+        private TextCounts counts = TextCounts.EMPTY;
+
+        @Override
+        public void accept(byte[] buffer, int offset, int length) {
+            accept(ByteBuffer.wrap(buffer, offset, length));
+        }
+
+        @Override
+        public void accept(ByteBuffer buffer) {
+            counts = counts.merge(count(buffer));
+        }
+
+        @Override
+        public TextCounts getCounts() {
+            return counts;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.applicantztest.fileupload.processing;
+
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Plain text only needs the line and word counts every upload gets.
+ */
+@Component
+public class PlainTextProcessor implements ContentProcessor {
+
+    @Override
+    public String getName() {
+        return "text";
+    }
+
+    @Override
+    public Set<String> getFileTypes() {
+        return Set.of("txt");
+    }
+
+    @Override
+    public List<ProcessorStage> newStages(String fileType) {
+        return List.of();
+    }
+}
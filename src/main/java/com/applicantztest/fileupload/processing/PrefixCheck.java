@@ -0,0 +1,20 @@
+package com.applicantztest.fileupload.processing;
+
+import java.io.IOException;
+
+/**
+ * Looks at the first bytes of an upload before the ingest pipeline passes
+ * them on, so content that is clearly unacceptable is turned away after a
+ * few kilobytes instead of after the whole body. Throwing from
+ * {@link #check} aborts the ingest.
+ */
+public interface PrefixCheck {
+
+    /**
+     * How many bytes to collect before checking. Shorter content is checked
+     * once it is complete.
+     */
+    int getPrefixSize();
+
+    void check(byte[] prefix, int length) throws IOException;
+}
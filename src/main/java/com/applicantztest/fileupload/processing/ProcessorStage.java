@@ -0,0 +1,20 @@
+package com.applicantztest.fileupload.processing;
+
+import com.applicantztest.fileupload.model.FileManagement;
+
+/**
+ * Per-upload stage of a {@link ContentProcessor}. After {@link #complete()}
+ * it copies its results onto the row saved for the upload.
+ */
+public interface ProcessorStage extends ChunkConsumer {
+
+    void applyTo(FileManagement file);
+
+    /**
+     * Line count to report instead of the counted text lines, or -1 to keep
+     * the text line count.
+     */
+    default long getLineCount() {
+        return -1;
+    }
+}
@@ -0,0 +1,199 @@
+package com.applicantztest.fileupload.processing;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Allocation-free line and word counter that works directly on UTF-8 bytes.
+ * <p>
+ * Lines follow {@link java.io.BufferedReader#readLine()}: LF, CR and CRLF each
+ * end a line and a trailing line without a terminator still counts. A word is
+ * a run of bytes between ASCII whitespace (space, tab, LF, VT, FF, CR) that
+ * contains at least one letter or digit, so tokens made only of symbols are
+ * not words. Multi-byte sequences are decoded in place to classify letters;
+ * malformed bytes never count as letters, matching the replacement char a
+ * decoder would produce.
+ */
+public class TextCounter implements TextCountingConsumer {
+
+    private static final byte OTHER = 0;
+    private static final byte ALNUM = 1;
+    private static final byte SPACE = 2;
+    private static final byte LF = 3;
+    private static final byte CR = 4;
+
+    private static final byte[] ASCII_CLASS = new byte[128];
+
+    static {
+        for (int c = '0'; c <= '9'; c++) {
+            ASCII_CLASS[c] = ALNUM;
+        }
+        for (int c = 'A'; c <= 'Z'; c++) {
+            ASCII_CLASS[c] = ALNUM;
+            ASCII_CLASS[c + ('a' - 'A')] = ALNUM;
+        }
+        ASCII_CLASS[' '] = SPACE;
+        ASCII_CLASS['\t'] = SPACE;
+        ASCII_CLASS[0x0B] = SPACE;
+        ASCII_CLASS['\f'] = SPACE;
+        ASCII_CLASS['\n'] = LF;
+        ASCII_CLASS['\r'] = CR;
+    }
+
+    // line state
+    private long terminators;
+    private boolean previousCr;
+    private boolean endsWithTerminator;
+    private long byteCount;
+    private boolean startsWithLf;
+
+    // word state
+    private long words;
+    private boolean inToken;
+    private boolean tokenAlnum;
+    private boolean sawSpace;
+    private boolean firstTokenAlnum;
+
+    // UTF-8 decoder state
+    private int pending;
+    private int codePoint;
+    private int lowerBound = 0x80;
+    private int upperBound = 0xBF;
+
+    @Override
+    public void accept(byte[] buffer, int offset, int length) {
+        if (length > 0 && byteCount == 0) {
+            startsWithLf = buffer[offset] == '\n';
+        }
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            update(buffer[i] & 0xFF);
+        }
+        byteCount += length;
+    }
+
+    /**
+     * Counts the remaining bytes of the buffer without moving its position.
+     */
+    @Override
+    public void accept(ByteBuffer buffer) {
+        int start = buffer.position();
+        int end = buffer.limit();
+        if (end > start && byteCount == 0) {
+            startsWithLf = buffer.get(start) == '\n';
+        }
+        for (int i = start; i < end; i++) {
+            update(buffer.get(i) & 0xFF);
+        }
+        byteCount += end - start;
+    }
+
+    private void update(int b) {
+        if (pending > 0) {
+            if (b >= lowerBound && b <= upperBound) {
+                codePoint = (codePoint << 6) | (b & 0x3F);
+                lowerBound = 0x80;
+                upperBound = 0xBF;
+                if (--pending == 0 && codePoint < 0x10000 && Character.isLetterOrDigit(codePoint)) {
+                    tokenAlnum = true;
+                }
+                return;
+            }
+            // malformed sequence, reprocess this byte on its own
+            pending = 0;
+            lowerBound = 0x80;
+            upperBound = 0xBF;
+        }
+
+        if (b < 0x80) {
+            switch (ASCII_CLASS[b]) {
+                case ALNUM:
+                    inToken = true;
+                    tokenAlnum = true;
+                    previousCr = false;
+                    endsWithTerminator = false;
+                    return;
+                case SPACE:
+                    endToken();
+                    previousCr = false;
+                    endsWithTerminator = false;
+                    return;
+                case LF:
+                    endToken();
+                    if (!previousCr) {
+                        terminators++;
+                    }
+                    previousCr = false;
+                    endsWithTerminator = true;
+                    return;
+                case CR:
+                    endToken();
+                    terminators++;
+                    previousCr = true;
+                    endsWithTerminator = true;
+                    return;
+                default:
+                    inToken = true;
+                    previousCr = false;
+                    endsWithTerminator = false;
+                    return;
+            }
+        }
+
+        inToken = true;
+        previousCr = false;
+        endsWithTerminator = false;
+
+        if (b >= 0xC2 && b <= 0xDF) {
+            pending = 1;
+            codePoint = b & 0x1F;
+        } else if (b >= 0xE0 && b <= 0xEF) {
+            pending = 2;
+            codePoint = b & 0x0F;
+            if (b == 0xE0) {
+                lowerBound = 0xA0;
+            } else if (b == 0xED) {
+                upperBound = 0x9F;
+            }
+        } else if (b >= 0xF0 && b <= 0xF4) {
+            pending = 3;
+            codePoint = b & 0x07;
+            if (b == 0xF0) {
+                lowerBound = 0x90;
+            } else if (b == 0xF4) {
+                upperBound = 0x8F;
+            }
+        }
+        // anything else is a stray continuation or invalid lead byte
+    }
+
+    private void endToken() {
+        if (!sawSpace) {
+            sawSpace = true;
+            firstTokenAlnum = inToken && tokenAlnum;
+        }
+        if (inToken && tokenAlnum) {
+            words++;
+        }
+        inToken = false;
+        tokenAlnum = false;
+    }
+
+    @Override
+    public TextCounts getCounts() {
+        boolean trailingAlnum = inToken && tokenAlnum;
+        if (!sawSpace) {
+            return new TextCounts(byteCount, terminators, startsWithLf, previousCr, endsWithTerminator,
+                    false, trailingAlnum, 0, trailingAlnum);
+        }
+        return new TextCounts(byteCount, terminators, startsWithLf, previousCr, endsWithTerminator,
+                true, firstTokenAlnum, words - (firstTokenAlnum ? 1 : 0), trailingAlnum);
+    }
+
+    public long getLineCount() {
+        return terminators + (byteCount > 0 && !endsWithTerminator ? 1 : 0);
+    }
+
+    public long getWordCount() {
+        return words + (inToken && tokenAlnum ? 1 : 0);
+    }
+}
@@ -0,0 +1,10 @@
+package com.applicantztest.fileupload.processing;
+
+/**
+ * A pipeline stage that produces line and word counts once all chunks have
+ * been accepted and {@link #complete()} has been called.
+ */
+public interface TextCountingConsumer extends ChunkConsumer {
+
+    TextCounts getCounts();
+}
@@ -0,0 +1,88 @@
+package com.applicantztest.fileupload.processing;
+
+/**
+ * Line and word counts of a contiguous byte range, together with the edge
+ * state needed to combine it with its neighbours. Ranges counted separately
+ * can be merged left to right to get exactly the counts of the whole content:
+ * a word split across the boundary is counted once, and a CR at the end of
+ * one range followed by an LF at the start of the next is one terminator.
+ */
+public final class TextCounts {
+
+    public static final TextCounts EMPTY = new TextCounts(0, 0, false, false, false, false, false, 0, false);
+
+    private final long byteCount;
+    private final long terminators;
+    private final boolean startsWithLf;
+    private final boolean endsWithCr;
+    private final boolean endsWithTerminator;
+    private final boolean hasSpace;
+    // without whitespace the whole range is one partial token and leadingAlnum holds its state
+    private final boolean leadingAlnum;
+    private final long innerWords;
+    private final boolean trailingAlnum;
+
+    TextCounts(long byteCount, long terminators, boolean startsWithLf, boolean endsWithCr,
+            boolean endsWithTerminator, boolean hasSpace, boolean leadingAlnum, long innerWords,
+            boolean trailingAlnum) {
+        this.byteCount = byteCount;
+        this.terminators = terminators;
+        this.startsWithLf = startsWithLf;
+        this.endsWithCr = endsWithCr;
+        this.endsWithTerminator = endsWithTerminator;
+        this.hasSpace = hasSpace;
+        this.leadingAlnum = leadingAlnum;
+        this.innerWords = innerWords;
+        this.trailingAlnum = trailingAlnum;
+    }
+
+    public TextCounts merge(TextCounts next) {
+        if (byteCount == 0) {
+            return next;
+        }
+        if (next.byteCount == 0) {
+            return this;
+        }
+
+        long mergedTerminators = terminators + next.terminators - (endsWithCr && next.startsWithLf ? 1 : 0);
+
+        boolean leading;
+        long inner;
+        boolean trailing;
+        if (!hasSpace && !next.hasSpace) {
+            leading = leadingAlnum || next.leadingAlnum;
+            inner = 0;
+            trailing = leading;
+        } else if (!hasSpace) {
+            leading = leadingAlnum || next.leadingAlnum;
+            inner = next.innerWords;
+            trailing = next.trailingAlnum;
+        } else if (!next.hasSpace) {
+            leading = leadingAlnum;
+            inner = innerWords;
+            trailing = trailingAlnum || next.leadingAlnum;
+        } else {
+            leading = leadingAlnum;
+            inner = innerWords + next.innerWords + (trailingAlnum || next.leadingAlnum ? 1 : 0);
+            trailing = next.trailingAlnum;
+        }
+
+        return new TextCounts(byteCount + next.byteCount, mergedTerminators, startsWithLf, next.endsWithCr,
+                next.endsWithTerminator, hasSpace || next.hasSpace, leading, inner, trailing);
+    }
+
+    public long getByteCount() {
+        return byteCount;
+    }
+
+    public long getLineCount() {
+        return terminators + (byteCount > 0 && !endsWithTerminator ? 1 : 0);
+    }
+
+    public long getWordCount() {
+        if (!hasSpace) {
+            return leadingAlnum ? 1 : 0;
+        }
+        return (leadingAlnum ? 1 : 0) + innerWords + (trailingAlnum ? 1 : 0);
+    }
+}
@@ -0,0 +1,11 @@
+package com.applicantztest.fileupload.repository;
+
+import com.applicantztest.fileupload.model.CsvProfile;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CsvProfileRepo extends JpaRepository<CsvProfile, Long> {
+
+}
@@ -1,20 +1,44 @@
 package com.applicantztest.fileupload.repository;
 
+import com.applicantztest.fileupload.dto.FileSummary;
+import com.applicantztest.fileupload.dto.ProcessingStat;
+import com.applicantztest.fileupload.dto.PurgeCandidate;
 import com.applicantztest.fileupload.model.FileManagement;
 import com.applicantztest.fileupload.model.ProcessingStatus;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.LockModeType;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface FileManageRepo extends JpaRepository<FileManagement, Long> {
 
+    String SUMMARY_SELECT = "SELECT f.id AS id, f.filename AS filename, f.fileType AS fileType, "
+            + "f.fileSize AS fileSize, f.lineCount AS lineCount, f.wordCount AS wordCount, f.status AS status, "
+            + "f.encoding AS encoding, f.errorMessage AS errorMessage, f.processedAt AS processedAt "
+            + "FROM FileManagement f ";
+
+    String HISTORY_FILTER = "WHERE (:status IS NULL OR f.status = :status) "
+            + "AND (:fileType IS NULL OR f.fileType = :fileType) ";
+
+    String HISTORY_ORDER = "ORDER BY f.processedAt DESC, f.id DESC";
+
+    String PURGE_SELECT = "SELECT f.id AS id, f.status AS status, f.lineCount AS lineCount, "
+            + "f.wordCount AS wordCount, f.contentHash AS contentHash, f.csvProfile.id AS csvProfileId "
+            + "FROM FileManagement f ";
+
     List<FileManagement> findByFilename(String filename);
 
     List<FileManagement> findByFileType(String fileType);
@@ -29,6 +53,8 @@ public interface FileManageRepo extends JpaRepository<FileManagement, Long> {
 
     List<FileManagement> findByStatusOrderByProcessedAtDesc(String status);
 
+    List<FileManagement> findByStatusIn(Collection<ProcessingStatus> statuses);
+
     @Query("SELECT COUNT(f) FROM FileManagement f WHERE f.status = 'SUCCESS'")
     long countSuccessfulProcessing();
 
@@ -41,17 +67,57 @@ public interface FileManageRepo extends JpaRepository<FileManagement, Long> {
     @Query("SELECT COALESCE(SUM(f.wordCount), 0) FROM FileManagement f WHERE f.status = 'SUCCESS'")
     long getTotalWordsProcessed();
 
+    // all counters in one statement, so they describe the same state of the table
+    @Query("SELECT new com.applicantztest.fileupload.dto.ProcessingStat(COUNT(f), "
+            + "COALESCE(SUM(CASE WHEN f.status = 'SUCCESS' THEN 1 ELSE 0 END), 0), "
+            + "COALESCE(SUM(CASE WHEN f.status = 'FAILED' THEN 1 ELSE 0 END), 0), "
+            + "COALESCE(SUM(CASE WHEN f.status = 'SUCCESS' THEN f.lineCount ELSE 0 END), 0), "
+            + "COALESCE(SUM(CASE WHEN f.status = 'SUCCESS' THEN f.wordCount ELSE 0 END), 0)) "
+            + "FROM FileManagement f")
+    @Transactional(readOnly = true)
+    ProcessingStat computeStatistics();
+
+    @Query("SELECT MAX(f.processedAt) FROM FileManagement f")
+    LocalDateTime findLatestProcessedAt();
+
     @Query("SELECT f FROM FileManagement f WHERE f.lineCount > :lineCount AND f.status = 'SUCCESS'")
-    List<FileManagement> findFilesWithLineCountGreaterThan(@Param("lineCount") Integer lineCount);
+    List<FileManagement> findFilesWithLineCountGreaterThan(@Param("lineCount") Long lineCount);
 
     @Query("SELECT f FROM FileManagement f WHERE f.wordCount > :wordCount AND f.status = 'SUCCESS'")
-    List<FileManagement> findFilesWithWordCountGreaterThan(@Param("wordCount") Integer wordCount);
-
-    @Query("DELETE FROM FileManagement f WHERE f.processedAt < :date AND f.status = :status")
-    void deleteByProcessedAtBeforeAndStatus(@Param("date") LocalDateTime date,
-            @Param("status") ProcessingStatus status);
+    List<FileManagement> findFilesWithWordCountGreaterThan(@Param("wordCount") Long wordCount);
+
+    /**
+     * Locks a batch of rows of the status processed before the given time,
+     * for deleting them by id in the same transaction. Unordered, so the
+     * status index finds them without sorting.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(PURGE_SELECT + "WHERE f.status = :status AND f.processedAt < :before")
+    List<PurgeCandidate> findPurgeBatch(@Param("status") ProcessingStatus status,
+            @Param("before") LocalDateTime before, Limit limit);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(PURGE_SELECT)
+    List<PurgeCandidate> findPurgeBatch(Limit limit);
 
     Optional<FileManagement> findByFilenameAndFileSizeAndStatus(String filename, long fileSize,
             ProcessingStatus status);
 
+    @Query(SUMMARY_SELECT + HISTORY_FILTER + HISTORY_ORDER)
+    List<FileSummary> findHistory(@Param("status") ProcessingStatus status, @Param("fileType") String fileType,
+            Limit limit);
+
+    @Query(SUMMARY_SELECT + HISTORY_FILTER
+            + "AND (f.processedAt < :processedAt OR (f.processedAt = :processedAt AND f.id < :id)) "
+            + HISTORY_ORDER)
+    List<FileSummary> findHistoryAfter(@Param("status") ProcessingStatus status, @Param("fileType") String fileType,
+            @Param("processedAt") LocalDateTime processedAt, @Param("id") Long id, Limit limit);
+
+    boolean existsByContentHash(String contentHash);
+
+    boolean existsByContentHashAndStatus(String contentHash, ProcessingStatus status);
+
+    @Query("SELECT f.contentHash FROM FileManagement f WHERE f.status = :status AND f.contentHash IS NOT NULL")
+    Stream<String> streamContentHashesByStatus(@Param("status") ProcessingStatus status);
+
 }
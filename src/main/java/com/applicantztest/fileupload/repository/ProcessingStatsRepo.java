@@ -0,0 +1,11 @@
+package com.applicantztest.fileupload.repository;
+
+import com.applicantztest.fileupload.model.ProcessingStatsSnapshot;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ProcessingStatsRepo extends JpaRepository<ProcessingStatsSnapshot, Long> {
+
+}
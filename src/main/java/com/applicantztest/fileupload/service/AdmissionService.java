@@ -0,0 +1,176 @@
+package com.applicantztest.fileupload.service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.applicantztest.fileupload.config.DatabaseConfig;
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+
+/**
+ * Decides whether an upload request may start. Each endpoint has its own
+ * pool of concurrency permits and all endpoints share one heap budget; a
+ * request is charged its content length, at least {@link #MIN_REQUEST_COST}
+ * and at most the configured maximum, which is about what a streamed upload
+ * keeps in memory. A request that cannot get both within the maximum wait
+ * is turned away instead of piling up.
+ */
+@Service
+public class AdmissionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AdmissionService.class);
+
+    // Smallest charge per request, one read buffer (64KB)
+    static final long MIN_REQUEST_COST = 64 * 1024;
+
+    // The memory semaphore counts kilobytes so large budgets fit in its int permits
+    private static final int KB = 1024;
+
+    private final UploadMetrics uploadMetrics;
+    private final boolean enabled;
+    private final long memoryBudget;
+    private final long maxRequestCost;
+    private final int defaultMaxConcurrent;
+    private final Map<String, Integer> maxConcurrent;
+    private final long maxWaitNanos;
+    private final long retryAfterSeconds;
+
+    private final Semaphore memory;
+    private final Map<String, Pool> pools = new ConcurrentHashMap<>();
+
+    public AdmissionService(UploadMetrics uploadMetrics, FileUploadProperties fileUploadProperties) {
+        DatabaseConfig.Admission admission = fileUploadProperties.getAdmission();
+        this.uploadMetrics = uploadMetrics;
+        this.enabled = admission.isEnabled();
+        this.memoryBudget = admission.getMemoryBudget() != null
+                ? admission.getMemoryBudget().toBytes()
+                : Runtime.getRuntime().maxMemory() / 4;
+        this.maxRequestCost = Math.min(admission.getMaxRequestCost().toBytes(), memoryBudget);
+        this.defaultMaxConcurrent = admission.getDefaultMaxConcurrent();
+        this.maxConcurrent = Map.copyOf(admission.getMaxConcurrent());
+        this.maxWaitNanos = admission.getMaxWait().toNanos();
+        this.retryAfterSeconds = Math.max(1, admission.getRetryAfter().toSeconds());
+
+        int budgetKb = Math.toIntExact(memoryBudget / KB);
+        this.memory = new Semaphore(budgetKb, true);
+        uploadMetrics.registerAdmissionMemory(() -> (long) (budgetKb - memory.availablePermits()) * KB,
+                memoryBudget);
+
+        if (enabled) {
+            logger.info("Upload admission enabled with a heap budget of {} bytes, at most {} bytes per request",
+                    memoryBudget, maxRequestCost);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+
+    // pools are created on first use, registering up front publishes their gauges right away
+    public void registerEndpoint(String endpoint) {
+        pools.computeIfAbsent(endpoint, this::newPool);
+    }
+
+    /**
+     * Waits up to the maximum wait for a permit of the endpoint and for the
+     * request's share of the heap budget. The returned admission must be
+     * released once the request is done, whether it was admitted or not.
+     *
+     * @param contentLength the declared request size, or -1 if unknown
+     */
+    public Admission admit(String endpoint, long contentLength) throws InterruptedException {
+        Pool pool = pools.computeIfAbsent(endpoint, this::newPool);
+        long deadline = System.nanoTime() + maxWaitNanos;
+        int costKb = costKb(contentLength);
+
+        pool.queued.incrementAndGet();
+        try {
+            if (!pool.permits.tryAcquire(maxWaitNanos, TimeUnit.NANOSECONDS)) {
+                return reject(endpoint, UploadMetrics.ADMISSION_CONCURRENCY);
+            }
+            if (!memory.tryAcquire(costKb, Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                pool.permits.release();
+                return reject(endpoint, UploadMetrics.ADMISSION_MEMORY);
+            }
+        } finally {
+            pool.queued.decrementAndGet();
+        }
+
+        uploadMetrics.recordAdmission(endpoint, UploadMetrics.ADMITTED);
+        return new Admission(pool, costKb, null);
+    }
+
+    private int costKb(long contentLength) {
+        long cost = contentLength < 0
+                ? maxRequestCost
+                : Math.max(MIN_REQUEST_COST, Math.min(contentLength, maxRequestCost));
+        return Math.toIntExact((cost + KB - 1) / KB);
+    }
+
+    private Admission reject(String endpoint, String reason) {
+        logger.warn("Upload request to {} not admitted, {} limit reached", endpoint, reason);
+        uploadMetrics.recordAdmission(endpoint, reason);
+        return new Admission(null, 0, reason);
+    }
+
+    private Pool newPool(String endpoint) {
+        int limit = maxConcurrent.getOrDefault(endpoint, defaultMaxConcurrent);
+        Pool pool = new Pool(limit);
+        uploadMetrics.registerAdmissionPool(endpoint, () -> limit - pool.permits.availablePermits(),
+                pool.queued::get);
+        return pool;
+    }
+
+    private static final class Pool {
+
+        private final Semaphore permits;
+        private final AtomicInteger queued = new AtomicInteger();
+
+        private Pool(int limit) {
+            this.permits = new Semaphore(limit, true);
+        }
+    }
+
+    public final class Admission {
+
+        private final Pool pool;
+        private final int costKb;
+        private final String rejection;
+
+        private Admission(Pool pool, int costKb, String rejection) {
+            this.pool = pool;
+            this.costKb = costKb;
+            this.rejection = rejection;
+        }
+
+        public boolean isAdmitted() {
+            return rejection == null;
+        }
+
+        /**
+         * The limit that turned the request away, {@link UploadMetrics#ADMISSION_CONCURRENCY}
+         * or {@link UploadMetrics#ADMISSION_MEMORY}; null if it was admitted.
+         */
+        public String getRejection() {
+            return rejection;
+        }
+
+        public void release() {
+            if (pool != null) {
+                memory.release(costKb);
+                pool.permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.applicantztest.fileupload.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.dto.FileResult;
+import com.applicantztest.fileupload.dto.BulkUploadResult;
+import com.applicantztest.fileupload.dto.ValidationResult;
+import com.applicantztest.fileupload.exception.FileValidationException;
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+import com.applicantztest.fileupload.model.FileManagement;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Processes many files from one request, given as separate multipart parts
+ * or as entries of ZIP archives. Entries are ingested in parallel and all
+ * results are saved in one batched transaction.
+ */
+@Service
+public class BulkUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkUploadService.class);
+
+    private final FileManageService fileManageService;
+    private final FileValidationService fileValidationService;
+    private final UploadMetrics uploadMetrics;
+    private final ExecutorService executor;
+    private final int maxEntries;
+
+    public BulkUploadService(FileManageService fileManageService, FileValidationService fileValidationService,
+            UploadMetrics uploadMetrics, FileUploadProperties fileUploadProperties) {
+        this.fileManageService = fileManageService;
+        this.fileValidationService = fileValidationService;
+        this.uploadMetrics = uploadMetrics;
+        this.maxEntries = fileUploadProperties.getBulk().getMaxEntries();
+        this.executor = Executors.newFixedThreadPool(fileUploadProperties.getBulk().getParallelism(),
+                new CustomizableThreadFactory("bulk-upload-"));
+    }
+
+    public BulkUploadResult upload(List<MultipartFile> files) throws IOException {
+        if (files == null || files.isEmpty()) {
+            throw new IllegalArgumentException("No files were uploaded");
+        }
+
+        List<BulkEntry> entries = new ArrayList<>();
+        List<ZipFile> archives = new ArrayList<>();
+        List<Path> stagedArchives = new ArrayList<>();
+
+        try {
+            for (MultipartFile file : files) {
+                if ("zip".equalsIgnoreCase(FilenameUtils.getExtension(file.getOriginalFilename()))) {
+                    Path staged = Files.createTempFile("bulk-", ".zip");
+                    stagedArchives.add(staged);
+                    file.transferTo(staged);
+                    ZipFile archive = new ZipFile(staged.toFile());
+                    archives.add(archive);
+                    addArchiveEntries(archive, entries);
+                } else {
+                    addEntry(entries, new BulkEntry(file.getOriginalFilename(), file.getSize(),
+                            fileValidationService.validateFile(file), file::getInputStream));
+                }
+            }
+
+            logger.info("Processing bulk upload of {} files", entries.size());
+            return new BulkUploadResult(process(entries));
+
+        } finally {
+            for (ZipFile archive : archives) {
+                archive.close();
+            }
+            for (Path staged : stagedArchives) {
+                Files.deleteIfExists(staged);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private void addArchiveEntries(ZipFile archive, List<BulkEntry> entries) {
+        Enumeration<? extends ZipEntry> zipEntries = archive.entries();
+        while (zipEntries.hasMoreElements()) {
+            ZipEntry zipEntry = zipEntries.nextElement();
+            String filename = FilenameUtils.getName(zipEntry.getName());
+            // skip folders and the resource forks macOS adds to archives
+            if (zipEntry.isDirectory() || filename.isEmpty() || zipEntry.getName().startsWith("__MACOSX/")) {
+                continue;
+            }
+            addEntry(entries, new BulkEntry(filename, zipEntry.getSize(),
+                    fileValidationService.validateEntry(filename, zipEntry.getSize()),
+                    () -> boundedEntryStream(archive, zipEntry)));
+        }
+    }
+
+    // checked per entry, so an archive with a huge directory is not listed in full
+    private void addEntry(List<BulkEntry> entries, BulkEntry entry) {
+        if (entries.size() >= maxEntries) {
+            throw new IllegalArgumentException("Too many files in one bulk upload, the limit is " + maxEntries);
+        }
+        entries.add(entry);
+    }
+
+    // the declared entry size may be a lie, stop inflating once it passes the limit
+    private InputStream boundedEntryStream(ZipFile archive, ZipEntry zipEntry) throws IOException {
+        return fileValidationService.enforceMaxFileSize(archive.getInputStream(zipEntry));
+    }
+
+    private List<FileResult> process(List<BulkEntry> entries) throws IOException {
+        List<Callable<FileManagement>> tasks = new ArrayList<>();
+        for (BulkEntry entry : entries) {
+            if (entry.validation.isValid()) {
+                tasks.add(() -> processEntry(entry));
+            }
+        }
+
+        List<Future<FileManagement>> futures;
+        try {
+            futures = executor.invokeAll(tasks);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Bulk upload was interrupted", e);
+        }
+
+        // results keep request order; the second of two identical entries is a duplicate
+        List<FileResult> results = new ArrayList<>(entries.size());
+        List<FileManagement> toSave = new ArrayList<>();
+        List<Integer> savedPositions = new ArrayList<>();
+        Set<String> batchHashes = new HashSet<>();
+        int taskIndex = 0;
+
+        for (BulkEntry entry : entries) {
+            if (!entry.validation.isValid()) {
+                results.add(FileResult.rejected(entry.filename, entry.validation.getErrors()));
+                continue;
+            }
+            try {
+                FileManagement result = futures.get(taskIndex++).get();
+                if (result.getContentHash() != null && !batchHashes.add(result.getContentHash())) {
+                    fileManageService.abandon(result);
+                    uploadMetrics.recordRejection(UploadMetrics.REJECTED_DUPLICATE);
+                    results.add(FileResult.rejected(entry.filename,
+                            FileValidationService.DUPLICATE_CONTENT_MESSAGE));
+                    continue;
+                }
+                savedPositions.add(results.size());
+                results.add(null);
+                toSave.add(result);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof FileValidationException) {
+                    results.add(FileResult.rejected(entry.filename, cause.getMessage()));
+                } else {
+                    logger.error("Unexpected error processing bulk entry: {}", entry.filename, cause);
+                    results.add(FileResult.rejected(entry.filename, "Processing error: " + cause.getMessage()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Bulk upload was interrupted", e);
+            }
+        }
+
+        List<FileManagement> saved = fileManageService.saveAllToDatabase(toSave);
+        for (int i = 0; i < saved.size(); i++) {
+            results.set(savedPositions.get(i), FileResult.from(saved.get(i)));
+        }
+        return results;
+    }
+
+    private FileManagement processEntry(BulkEntry entry) throws IOException, FileValidationException {
+        try (InputStream input = entry.content.open()) {
+            return fileManageService.processWithoutSaving(entry.filename, entry.size, input);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ContentSource {
+        InputStream open() throws IOException;
+    }
+
+    private static final class BulkEntry {
+
+        private final String filename;
+        private final long size;
+        private final ValidationResult validation;
+        private final ContentSource content;
+
+        private BulkEntry(String filename, long size, ValidationResult validation, ContentSource content) {
+            this.filename = filename;
+            this.size = size;
+            this.validation = validation;
+            this.content = content;
+        }
+    }
+}
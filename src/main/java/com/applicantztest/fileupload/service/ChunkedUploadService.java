@@ -0,0 +1,368 @@
+package com.applicantztest.fileupload.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+import org.apache.commons.io.FilenameUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.dto.ChunkedUploadStatus;
+import com.applicantztest.fileupload.dto.IngestResult;
+import com.applicantztest.fileupload.dto.ValidationResult;
+import com.applicantztest.fileupload.exception.ContentRejectedException;
+import com.applicantztest.fileupload.exception.FileManageException;
+import com.applicantztest.fileupload.exception.FileValidationException;
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.processing.IngestPipeline;
+import com.applicantztest.fileupload.processing.IngestPipeline.IngestSession;
+
+/**
+ * Resumable uploads: a client initiates an upload, sends its content as
+ * chunks at increasing offsets, each with its SHA-256, and completes it.
+ * Verified chunks are appended to a staging file and fed to an ingest
+ * session right away, so completing only finalises the counts and moves the
+ * staging file into the blob store. The number of open uploads is bounded,
+ * and an upload holds no counting buffers until its first chunk arrives.
+ */
+@Service
+public class ChunkedUploadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedUploadService.class);
+
+    private static final Pattern SHA256_HEX = Pattern.compile("[0-9a-f]{64}");
+
+    // Copy buffer size in bytes (64KB)
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final FileManageService fileManageService;
+    private final FileValidationService fileValidationService;
+    private final IngestPipeline ingestPipeline;
+    private final Path stagingDir;
+    private final long maxFileSize;
+    private final long maxChunkSize;
+    private final Duration sessionTimeout;
+
+    private final Map<String, ChunkedUpload> uploads = new ConcurrentHashMap<>();
+    // one permit per entry in uploads, returned when the entry is removed
+    private final Semaphore openUploads;
+
+    public ChunkedUploadService(FileManageService fileManageService, FileValidationService fileValidationService,
+            IngestPipeline ingestPipeline, FileUploadProperties fileUploadProperties)
+            throws IOException {
+        this.fileManageService = fileManageService;
+        this.fileValidationService = fileValidationService;
+        this.ingestPipeline = ingestPipeline;
+        this.stagingDir = Files.createDirectories(
+                Paths.get(fileUploadProperties.getUploadDir()).toAbsolutePath().normalize().resolve("chunked"));
+        this.maxFileSize = fileUploadProperties.getChunked().getMaxFileSize().toBytes();
+        this.maxChunkSize = fileUploadProperties.getChunked().getMaxChunkSize().toBytes();
+        this.sessionTimeout = fileUploadProperties.getChunked().getSessionTimeout();
+        this.openUploads = new Semaphore(fileUploadProperties.getChunked().getMaxOpenUploads());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void removeStaleParts() throws IOException {
+        // counting state lives in memory, so uploads cannot resume across a restart
+        try (DirectoryStream<Path> parts = Files.newDirectoryStream(stagingDir, "*.part")) {
+            for (Path part : parts) {
+                Files.deleteIfExists(part);
+            }
+        }
+    }
+
+    public long getMaxChunkSize() {
+        return maxChunkSize;
+    }
+
+    public ChunkedUploadStatus initiate(String filename, long size)
+            throws IOException, FileValidationException, FileManageException {
+        if (size < 0) {
+            throw new IllegalArgumentException("The total file size is required to initiate an upload");
+        }
+        ValidationResult validation = fileValidationService.validateEntry(filename, size, maxFileSize);
+        if (!validation.isValid()) {
+            throw new FileValidationException(validation.getErrors(), filename, "metadata");
+        }
+
+        if (!openUploads.tryAcquire()) {
+            logger.warn("Refused chunked upload for file: {}, too many uploads are open", filename);
+            throw new FileManageException("Too many uploads in progress, please retry later", filename, "initiate");
+        }
+        String uploadId = UUID.randomUUID().toString();
+        Path part = stagingDir.resolve(uploadId + ".part");
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(part,
+                    StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        } catch (IOException | RuntimeException exception) {
+            openUploads.release();
+            throw exception;
+        }
+        ChunkedUpload upload = new ChunkedUpload(uploadId, filename, size, part, channel);
+        uploads.put(uploadId, upload);
+
+        logger.info("Initiated chunked upload {} for file: {} ({} bytes)", uploadId, filename, size);
+        return status(upload);
+    }
+
+    public ChunkedUploadStatus getStatus(String uploadId) {
+        return status(find(uploadId));
+    }
+
+    /**
+     * Appends one chunk. A chunk re-sent at an offset that was already
+     * received with the same checksum is acknowledged again, so a client can
+     * retry a chunk whose response was lost. A chunk that fails to arrive
+     * intact is cut off again so it can be re-sent, while an upload whose
+     * first chunk shows invalid content, or whose chunk fails to process, is
+     * discarded right away.
+     */
+    public ChunkedUploadStatus writeChunk(String uploadId, long offset, String checksum, InputStream body)
+            throws IOException, FileValidationException {
+        ChunkedUpload upload = find(uploadId);
+        String expectedChecksum = checksum == null ? null : checksum.trim().toLowerCase();
+        if (expectedChecksum == null || !SHA256_HEX.matcher(expectedChecksum).matches()) {
+            throw new IllegalArgumentException("Each chunk needs its SHA-256 as 64 hex characters");
+        }
+
+        if (!upload.lock.tryLock()) {
+            throw new IllegalStateException("Another chunk of this upload is being written");
+        }
+        try {
+            upload.lastActivity = Instant.now();
+            long received = upload.receivedBytes;
+
+            if (offset < received) {
+                if (expectedChecksum.equals(upload.chunkChecksums.get(offset))) {
+                    logger.debug("Chunk at offset {} of upload {} was already received", offset, uploadId);
+                    return status(upload);
+                }
+                throw new IllegalStateException(
+                        "Offset " + offset + " was already received, resume at offset " + received);
+            }
+            if (offset > received) {
+                throw new IllegalStateException(
+                        "Offset " + offset + " would leave a gap, resume at offset " + received);
+            }
+
+            long length = appendChunk(upload, offset, expectedChecksum, body);
+            try {
+                feedChunk(upload, offset, length);
+            } catch (ContentRejectedException exception) {
+                discard(upload);
+                logger.warn("Discarded chunked upload {} for file: {}, rejected after its first chunk", uploadId,
+                        upload.filename);
+                throw new FileValidationException(exception.getMessage(), upload.filename, "content");
+            } catch (IOException | RuntimeException exception) {
+                // the ingest session may have taken part of the chunk and cannot be rewound
+                discard(upload);
+                logger.warn("Discarded chunked upload {} for file: {}, the chunk at offset {} could not be processed",
+                        uploadId, upload.filename, offset, exception);
+                throw exception;
+            }
+            upload.chunkChecksums.put(offset, expectedChecksum);
+            upload.receivedBytes = offset + length;
+
+            logger.debug("Received chunk of {} bytes at offset {} for upload {}", length, offset, uploadId);
+            return status(upload);
+        } finally {
+            upload.lock.unlock();
+        }
+    }
+
+    public ChunkedUploadStatus complete(String uploadId) throws IOException, FileValidationException {
+        ChunkedUpload upload = find(uploadId);
+        if (!upload.lock.tryLock()) {
+            throw new IllegalStateException("A chunk of this upload is still being written");
+        }
+        try {
+            if (upload.receivedBytes != upload.totalSize) {
+                throw new IllegalStateException("Upload is incomplete, received " + upload.receivedBytes
+                        + " of " + upload.totalSize + " bytes");
+            }
+            remove(upload);
+            upload.channel.close();
+
+            IngestResult ingestResult = session(upload).finish();
+            ValidationResult validation = fileValidationService.validateContent(upload.filename, ingestResult);
+            if (!validation.isValid()) {
+                throw new FileValidationException(validation.getErrors(), upload.filename, "content");
+            }
+
+            FileManagement saved = fileManageService.saveImported(upload.part, upload.filename, ingestResult);
+            logger.info("Completed chunked upload {} for file: {} in {} chunks", uploadId, upload.filename,
+                    upload.chunkChecksums.size());
+            return status(upload).completedAs(saved);
+        } finally {
+            // the session is gone either way, so is its staging file unless it became a blob
+            if (!uploads.containsKey(uploadId)) {
+                Files.deleteIfExists(upload.part);
+            }
+            upload.lock.unlock();
+        }
+    }
+
+    public void abort(String uploadId) throws IOException {
+        ChunkedUpload upload = find(uploadId);
+        upload.lock.lock();
+        try {
+            discard(upload);
+        } finally {
+            upload.lock.unlock();
+        }
+        logger.info("Aborted chunked upload {} for file: {}", uploadId, upload.filename);
+    }
+
+    @Scheduled(fixedDelayString = "${app.chunked.cleanup-interval:10m}")
+    public void expireIdleUploads() {
+        Instant cutoff = Instant.now().minus(sessionTimeout);
+        for (ChunkedUpload upload : uploads.values()) {
+            if (upload.lastActivity.isBefore(cutoff) && upload.lock.tryLock()) {
+                try {
+                    discard(upload);
+                    logger.info("Expired idle chunked upload {} for file: {}", upload.uploadId, upload.filename);
+                } catch (IOException e) {
+                    logger.warn("Could not remove expired upload {}", upload.uploadId, e);
+                } finally {
+                    upload.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private long appendChunk(ChunkedUpload upload, long offset, String expectedChecksum, InputStream body)
+            throws IOException {
+        MessageDigest digest = newDigest();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long length = 0;
+        int read;
+
+        upload.channel.position(offset);
+        try {
+            while ((read = body.read(buffer)) != -1) {
+                length += read;
+                if (length > maxChunkSize || offset + length > upload.totalSize) {
+                    throw new IllegalArgumentException("Chunk at offset " + offset + " exceeds the chunk size limit of "
+                            + maxChunkSize + " bytes or the declared file size");
+                }
+                digest.update(buffer, 0, read);
+                ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+                while (chunk.hasRemaining()) {
+                    upload.channel.write(chunk);
+                }
+            }
+        } catch (IOException | RuntimeException exception) {
+            // a broken or oversized chunk leaves nothing behind, the client resumes at the same offset
+            upload.channel.truncate(offset);
+            throw exception;
+        }
+
+        String actualChecksum = HexFormat.of().formatHex(digest.digest());
+        if (length == 0 || !actualChecksum.equals(expectedChecksum)) {
+            upload.channel.truncate(offset);
+            throw new IllegalArgumentException("Checksum mismatch for chunk at offset " + offset
+                    + ", expected " + expectedChecksum + " but received " + actualChecksum);
+        }
+        return length;
+    }
+
+    // map the verified chunk (still in the page cache) into the ingest session
+    private void feedChunk(ChunkedUpload upload, long offset, long length) throws IOException {
+        MappedByteBuffer chunk = upload.channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+        session(upload).accept(chunk);
+    }
+
+    // started with the first chunk, so uploads that were only initiated hold no counting buffers
+    private IngestSession session(ChunkedUpload upload) {
+        if (upload.session == null) {
+            upload.session = ingestPipeline.newSession(null, upload.totalSize,
+                    FilenameUtils.getExtension(upload.filename).toLowerCase(),
+                    fileValidationService.prefixCheck(upload.filename));
+        }
+        return upload.session;
+    }
+
+    private void discard(ChunkedUpload upload) throws IOException {
+        remove(upload);
+        upload.channel.close();
+        Files.deleteIfExists(upload.part);
+    }
+
+    private void remove(ChunkedUpload upload) {
+        if (uploads.remove(upload.uploadId, upload)) {
+            openUploads.release();
+        }
+    }
+
+    private ChunkedUpload find(String uploadId) {
+        ChunkedUpload upload = uploads.get(uploadId);
+        if (upload == null) {
+            throw new NoSuchElementException("Upload not found: " + uploadId);
+        }
+        return upload;
+    }
+
+    private ChunkedUploadStatus status(ChunkedUpload upload) {
+        return new ChunkedUploadStatus(upload.uploadId, upload.filename, upload.totalSize, upload.receivedBytes,
+                upload.chunkChecksums.size(), maxChunkSize);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class ChunkedUpload {
+
+        private final String uploadId;
+        private final String filename;
+        private final long totalSize;
+        private final Path part;
+        private final FileChannel channel;
+        private final ReentrantLock lock = new ReentrantLock();
+        // guarded by lock
+        private IngestSession session;
+
+        // offsets and checksums of received chunks, for acknowledging retries
+        private final Map<Long, String> chunkChecksums = new ConcurrentHashMap<>();
+        private volatile long receivedBytes;
+        private volatile Instant lastActivity = Instant.now();
+
+        private ChunkedUpload(String uploadId, String filename, long totalSize, Path part, FileChannel channel) {
+            this.uploadId = uploadId;
+            this.filename = filename;
+            this.totalSize = totalSize;
+            this.part = part;
+            this.channel = channel;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.applicantztest.fileupload.service;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.stereotype.Component;
+
+import com.applicantztest.fileupload.repository.FileManageRepo;
+import com.applicantztest.fileupload.storage.BlobStore;
+import com.applicantztest.fileupload.storage.BlobWriter;
+
+/**
+ * Keeps shared blobs alive between storing content and saving the row that
+ * references it. An upload claims the content hash when it commits or
+ * imports the blob, which may find the blob already there, and releases the
+ * claim once its row is saved or given up. Deleting a blob checks claims and
+ * rows under the same per-hash lock as storing, so it never removes content
+ * a row is about to point at.
+ */
+@Component
+public class ContentClaims {
+
+    // Number of locks the hashes are spread over
+    private static final int STRIPES = 256;
+
+    private final BlobStore blobStore;
+    private final FileManageRepo fileManageRepo;
+    // j.u.c. locks rather than monitors so waiting virtual threads unmount instead of pinning
+    private final Lock[] locks = new Lock[STRIPES];
+    private final Map<String, Integer> claims = new ConcurrentHashMap<>();
+
+    public ContentClaims(BlobStore blobStore, FileManageRepo fileManageRepo) {
+        this.blobStore = blobStore;
+        this.fileManageRepo = fileManageRepo;
+        for (int i = 0; i < STRIPES; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Publishes the written content and claims it for the caller.
+     */
+    public void commit(BlobWriter writer, String contentHash) throws IOException {
+        Lock lock = lockFor(contentHash);
+        lock.lock();
+        try {
+            writer.commit(contentHash);
+            claims.merge(contentHash, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Moves a local file into the store and claims it for the caller.
+     */
+    public void importFile(Path source, String contentHash) throws IOException {
+        Lock lock = lockFor(contentHash);
+        lock.lock();
+        try {
+            blobStore.importFile(source, contentHash);
+            claims.merge(contentHash, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops one claim, once the row that references the content is saved or
+     * will not be saved.
+     */
+    public void release(String contentHash) {
+        if (contentHash == null) {
+            return;
+        }
+        Lock lock = lockFor(contentHash);
+        lock.lock();
+        try {
+            claims.computeIfPresent(contentHash, (hash, count) -> count > 1 ? count - 1 : null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Drops one claim on content whose row will not be saved, deleting the
+     * blob unless another upload or a row still references it. Returns
+     * whether it was deleted.
+     */
+    public boolean discard(String contentHash) throws IOException {
+        release(contentHash);
+        return deleteIfUnreferenced(contentHash);
+    }
+
+    /**
+     * Deletes the stored blob unless a row references it or an upload still
+     * holds a claim on it. Returns whether it was deleted.
+     */
+    public boolean deleteIfUnreferenced(String contentHash) throws IOException {
+        if (contentHash == null) {
+            return false;
+        }
+        Lock lock = lockFor(contentHash);
+        lock.lock();
+        try {
+            if (claims.containsKey(contentHash) || fileManageRepo.existsByContentHash(contentHash)) {
+                return false;
+            }
+            return blobStore.delete(contentHash);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Lock lockFor(String contentHash) {
+        return locks[Math.floorMod(contentHash.hashCode(), STRIPES)];
+    }
+}
@@ -0,0 +1,121 @@
+package com.applicantztest.fileupload.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.dto.BulkUploadResult;
+import com.applicantztest.fileupload.dto.FileResult;
+import com.applicantztest.fileupload.dto.ValidationResult;
+import com.applicantztest.fileupload.exception.FileValidationException;
+import com.applicantztest.fileupload.model.FileManagement;
+
+/**
+ * Imports the files of a folder in the import directory under the upload dir,
+ * e.g. a nightly drop. Files are memory-mapped instead of read into the heap,
+ * imported files are moved into the blob store and all results are saved in
+ * one batched transaction. Rejected files stay in the folder.
+ */
+@Service
+public class DirectoryImportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DirectoryImportService.class);
+
+    private final FileManageService fileManageService;
+    private final FileValidationService fileValidationService;
+    private final Path importDir;
+    private final long maxFileSize;
+    private final int maxFiles;
+
+    public DirectoryImportService(FileManageService fileManageService, FileValidationService fileValidationService,
+            FileUploadProperties fileUploadProperties) throws IOException {
+        this.fileManageService = fileManageService;
+        this.fileValidationService = fileValidationService;
+        this.importDir = Files.createDirectories(
+                Paths.get(fileUploadProperties.getUploadDir()).toAbsolutePath().normalize().resolve("import"));
+        this.maxFileSize = fileUploadProperties.getImports().getMaxFileSize().toBytes();
+        this.maxFiles = fileUploadProperties.getImports().getMaxFiles();
+    }
+
+    /**
+     * Imports the regular files directly inside the given folder, which is
+     * relative to the import directory. Without a folder the import directory
+     * itself is imported.
+     */
+    public BulkUploadResult importDirectory(String folder) throws IOException {
+        Path dir = resolveFolder(folder);
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            // links could point outside the import directory; hidden files are
+            // usually still being written, e.g. by rsync
+            files = listing.filter(file -> Files.isRegularFile(file, LinkOption.NOFOLLOW_LINKS))
+                    .filter(file -> !file.getFileName().toString().startsWith("."))
+                    .sorted()
+                    .limit(maxFiles + 1L)
+                    .toList();
+        }
+        if (files.size() > maxFiles) {
+            throw new IllegalArgumentException("Too many files in one import, the limit is " + maxFiles);
+        }
+
+        logger.info("Importing {} files from {}", files.size(), dir);
+        return new BulkUploadResult(process(files));
+    }
+
+    // the folder must stay inside the import directory, also through links
+    private Path resolveFolder(String folder) throws IOException {
+        Path dir = folder == null || folder.isBlank() ? importDir : importDir.resolve(folder).normalize();
+        if (!Files.isDirectory(dir)) {
+            throw new IllegalArgumentException("Import folder not found: " + folder);
+        }
+        if (!dir.toRealPath().startsWith(importDir.toRealPath())) {
+            throw new IllegalArgumentException("Import folder must be inside the import directory: " + folder);
+        }
+        return dir;
+    }
+
+    // large files are already counted in parallel, so files are imported one at a time
+    private List<FileResult> process(List<Path> files) throws IOException {
+        List<FileResult> results = new ArrayList<>(files.size());
+        List<FileManagement> toSave = new ArrayList<>();
+        List<Integer> savedPositions = new ArrayList<>();
+        Set<String> batchHashes = new HashSet<>();
+
+        for (Path file : files) {
+            String filename = file.getFileName().toString();
+            ValidationResult validation = fileValidationService.validateEntry(filename, Files.size(file), maxFileSize);
+            if (!validation.isValid()) {
+                results.add(FileResult.rejected(filename, validation.getErrors()));
+                continue;
+            }
+            try {
+                // identical content in one drop is imported once, the later file is rejected as a duplicate
+                FileManagement result = fileManageService.importWithoutSaving(file, batchHashes);
+                savedPositions.add(results.size());
+                results.add(null);
+                toSave.add(result);
+            } catch (FileValidationException e) {
+                results.add(FileResult.rejected(filename, e.getMessage()));
+            }
+        }
+
+        List<FileManagement> saved = fileManageService.saveAllToDatabase(toSave);
+        for (int i = 0; i < saved.size(); i++) {
+            results.set(savedPositions.get(i), FileResult.from(saved.get(i)));
+        }
+        return results;
+    }
+}
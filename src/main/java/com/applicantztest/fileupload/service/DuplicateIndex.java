@@ -0,0 +1,213 @@
+package com.applicantztest.fileupload.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.repository.FileManageRepo;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Answers "has this content already been processed successfully?" by SHA-256.
+ * A Bloom filter rejects most new content without touching the database, a
+ * bounded LRU cache answers repeated duplicates, and only the remaining
+ * lookups fall through to the indexed {@code content_hash} column.
+ */
+@Component
+public class DuplicateIndex implements MeterBinder {
+
+    private static final Logger logger = LoggerFactory.getLogger(DuplicateIndex.class);
+
+    // Target false positive rate of the Bloom filter at the expected file count
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final FileManageRepo repository;
+    private final int cacheSize;
+    private final int expectedFiles;
+
+    private volatile BloomFilter bloomFilter;
+    private final Map<String, Boolean> knownHashes;
+    // a j.u.c. lock rather than a monitor so waiting virtual threads unmount instead of pinning
+    private final Lock knownHashesLock = new ReentrantLock();
+
+    private final LongAdder bloomRejects = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder databaseLookups = new LongAdder();
+
+    public DuplicateIndex(FileManageRepo repository, FileUploadProperties fileUploadProperties) {
+        this.repository = repository;
+        this.expectedFiles = fileUploadProperties.getDedup().getExpectedFiles();
+        this.cacheSize = fileUploadProperties.getDedup().getCacheSize();
+        this.bloomFilter = new BloomFilter(expectedFiles, FALSE_POSITIVE_RATE);
+        this.knownHashes = new LinkedHashMap<>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > DuplicateIndex.this.cacheSize;
+            }
+        };
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void warmUp() {
+        BloomFilter filter = new BloomFilter(expectedFiles, FALSE_POSITIVE_RATE);
+        long loaded;
+        try (Stream<String> hashes = repository.streamContentHashesByStatus(ProcessingStatus.SUCCESS)) {
+            loaded = hashes.peek(filter::put).count();
+        }
+        bloomFilter = filter;
+        logger.info("Duplicate index loaded {} content hashes", loaded);
+    }
+
+    public boolean isDuplicate(String contentHash) {
+        if (contentHash == null) {
+            return false;
+        }
+        if (!bloomFilter.mightContain(contentHash)) {
+            bloomRejects.increment();
+            return false;
+        }
+        knownHashesLock.lock();
+        try {
+            if (knownHashes.get(contentHash) != null) {
+                cacheHits.increment();
+                return true;
+            }
+        } finally {
+            knownHashesLock.unlock();
+        }
+
+        databaseLookups.increment();
+        boolean exists = repository.existsByContentHashAndStatus(contentHash, ProcessingStatus.SUCCESS);
+        if (exists) {
+            remember(contentHash);
+        }
+        return exists;
+    }
+
+    public void register(String contentHash) {
+        if (contentHash != null) {
+            bloomFilter.put(contentHash);
+            remember(contentHash);
+        }
+    }
+
+    public void evict(String contentHash) {
+        // a Bloom filter cannot forget, a stale bit only costs one database lookup
+        knownHashesLock.lock();
+        try {
+            knownHashes.remove(contentHash);
+        } finally {
+            knownHashesLock.unlock();
+        }
+    }
+
+    public void clear() {
+        bloomFilter = new BloomFilter(expectedFiles, FALSE_POSITIVE_RATE);
+        knownHashesLock.lock();
+        try {
+            knownHashes.clear();
+        } finally {
+            knownHashesLock.unlock();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        bindLookupCounter(registry, "bloom_reject", bloomRejects);
+        bindLookupCounter(registry, "cache_hit", cacheHits);
+        bindLookupCounter(registry, "database", databaseLookups);
+    }
+
+    public long getBloomRejects() {
+        return bloomRejects.sum();
+    }
+
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getDatabaseLookups() {
+        return databaseLookups.sum();
+    }
+
+    private void bindLookupCounter(MeterRegistry registry, String result, LongAdder counter) {
+        FunctionCounter.builder("upload.dedup.lookups", counter, LongAdder::sum)
+                .description("Duplicate checks by where they were answered")
+                .tag("result", result)
+                .register(registry);
+    }
+
+    private void remember(String contentHash) {
+        knownHashesLock.lock();
+        try {
+            knownHashes.put(contentHash, Boolean.TRUE);
+        } finally {
+            knownHashesLock.unlock();
+        }
+    }
+
+    /**
+     * Bloom filter over SHA-256 hex strings. The hash is already uniform, so
+     * two 64-bit halves of it drive double hashing instead of extra hash
+     * functions.
+     */
+    static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        BloomFilter(int expectedInsertions, double falsePositiveRate) {
+            long n = Math.max(1, expectedInsertions);
+            long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bitCount = Math.max(64, (m + 63) / 64 * 64);
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+            this.bits = new AtomicLongArray(Math.toIntExact(bitCount / 64));
+        }
+
+        void put(String contentHash) {
+            long h1 = Long.parseUnsignedLong(contentHash.substring(0, 16), 16);
+            long h2 = Long.parseUnsignedLong(contentHash.substring(16, 32), 16);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = bits.get(word);
+                } while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        boolean mightContain(String contentHash) {
+            long h1 = Long.parseUnsignedLong(contentHash.substring(0, 16), 16);
+            long h2 = Long.parseUnsignedLong(contentHash.substring(16, 32), 16);
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+                if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.applicantztest.fileupload.service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import com.applicantztest.fileupload.dto.FileDetails;
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+import com.applicantztest.fileupload.storage.BlobCodec;
+import com.applicantztest.fileupload.storage.BlobStore;
+
+import io.micrometer.core.instrument.Timer;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Streams stored file content to the client without loading it into the heap.
+ * Uses Tomcat sendfile when the connector supports it, otherwise
+ * {@link FileChannel#transferTo}, and honours single byte-range requests and
+ * {@code If-None-Match} against the content hash. A compressed blob is sent
+ * as stored, with {@code Content-Encoding}, to clients that accept its
+ * encoding, and decoded on the fly for everyone else and for range requests.
+ * Decoding a range starts at the beginning of the blob; the store keeps
+ * blobs above {@code app.storage.compression.max-size} uncompressed, which
+ * bounds that cost.
+ */
+@Service
+public class FileDownloadService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileDownloadService.class);
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final BlobStore blobStore;
+    private final UploadMetrics uploadMetrics;
+
+    public FileDownloadService(BlobStore blobStore, UploadMetrics uploadMetrics) {
+        this.blobStore = blobStore;
+        this.uploadMetrics = uploadMetrics;
+    }
+
+    public void serve(FileDetails file, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        // with sendfile the timer covers setup only, Tomcat sends the bytes after the handler returns
+        Timer.Sample sample = uploadMetrics.start();
+        long bytes = 0;
+        String outcome = "error";
+        try {
+            bytes = sendContent(file, request, response);
+            outcome = String.valueOf(response.getStatus());
+        } finally {
+            uploadMetrics.recordDownload(sample, outcome, bytes);
+        }
+    }
+
+    /**
+     * Writes the headers and the requested bytes, returning how many content
+     * bytes the response carries.
+     */
+    private long sendContent(FileDetails file, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String contentHash = file.getContentHash();
+        if (contentHash == null || !blobStore.exists(contentHash)) {
+            throw new FileNotFoundException("File content not found for: " + file.getFilename());
+        }
+
+        BlobCodec codec = blobStore.codec(contentHash);
+        // ranges always refer to the original content
+        boolean sendEncoded = codec.isCompressed() && request.getHeader(HttpHeaders.RANGE) == null
+                && acceptsEncoding(request, codec.getContentEncoding());
+        // stored bytes go out untouched unless the client needs them decoded
+        boolean sendStored = sendEncoded || !codec.isCompressed();
+
+        // each representation needs its own strong validator
+        String etag = sendEncoded
+                ? "\"" + contentHash + "-" + codec.getContentEncoding() + "\""
+                : "\"" + contentHash + "\"";
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (codec.isCompressed()) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+        if (new ServletWebRequest(request, response).checkNotModified(etag)) {
+            logger.debug("File {} not modified for ETag {}", file.getFilename(), etag);
+            return 0;
+        }
+
+        long length = sendStored ? blobStore.size(contentHash) : file.getFileSize();
+        long start = 0;
+        long end = length;
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentDispositionFormData("attachment", file.getFilename());
+        headers.forEach((name, values) -> response.setHeader(name, values.get(0)));
+        response.setContentType(MediaType.APPLICATION_OCTET_STREAM_VALUE);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (sendEncoded) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, codec.getContentEncoding());
+        }
+
+        HttpRange range = requestedRange(request, etag);
+        if (range != null) {
+            if (length == 0 || !isSatisfiable(range, length)) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return 0;
+            }
+            start = range.getRangeStart(length);
+            end = range.getRangeEnd(length) + 1;
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + (end - 1) + "/" + length);
+        }
+
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod())) {
+            return 0;
+        }
+
+        if (!sendStored) {
+            try (ReadableByteChannel source = Channels.newChannel(blobStore.open(contentHash))) {
+                copyRange(source, Channels.newChannel(response.getOutputStream()), start, end);
+            }
+            logger.debug("Streamed {} decoded bytes of {}", end - start, file.getFilename());
+            return end - start;
+        }
+
+        Optional<Path> localPath = blobStore.localPath(contentHash);
+        if (localPath.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // Tomcat writes the file after the handler returns, straight from the page cache
+            request.setAttribute(SENDFILE_FILENAME, localPath.get().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            logger.debug("Serving {} bytes of {} with sendfile", end - start, file.getFilename());
+            return end - start;
+        }
+
+        try (ReadableByteChannel source = blobStore.openChannel(contentHash)) {
+            WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+            if (source instanceof FileChannel fileChannel) {
+                long position = start;
+                while (position < end) {
+                    position += fileChannel.transferTo(position, end - position, target);
+                }
+            } else {
+                copyRange(source, target, start, end);
+            }
+        }
+        logger.debug("Streamed {} bytes of {}", end - start, file.getFilename());
+        return end - start;
+    }
+
+    // true when Accept-Encoding lists the encoding, or *, without q=0
+    private boolean acceptsEncoding(HttpServletRequest request, String encoding) {
+        Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING);
+        while (headers != null && headers.hasMoreElements()) {
+            for (String entry : headers.nextElement().split(",")) {
+                String[] parts = entry.trim().split(";");
+                String coding = parts[0].trim();
+                if (!coding.equalsIgnoreCase(encoding) && !coding.equals("*")) {
+                    continue;
+                }
+                boolean refused = false;
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim();
+                    if (parameter.startsWith("q=")) {
+                        try {
+                            refused = Double.parseDouble(parameter.substring(2)) == 0;
+                        } catch (NumberFormatException e) {
+                            refused = true;
+                        }
+                    }
+                }
+                return !refused;
+            }
+        }
+        return false;
+    }
+
+    private HttpRange requestedRange(HttpServletRequest request, String etag) {
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null) {
+            return null;
+        }
+
+        // a stale If-Range validator means the client wants the whole file
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null && !ifRange.equals(etag)) {
+            return null;
+        }
+
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            // multiple ranges are answered with the full content
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            logger.debug("Ignoring malformed Range header: {}", rangeHeader);
+            return null;
+        }
+    }
+
+    private boolean isSatisfiable(HttpRange range, long length) {
+        try {
+            return range.getRangeStart(length) < length && range.getRangeEnd(length) >= range.getRangeStart(length);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void copyRange(ReadableByteChannel source, WritableByteChannel target, long start, long end)
+            throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+        long position = 0;
+        while (position < end) {
+            buffer.clear();
+            int read = source.read(buffer);
+            if (read == -1) {
+                break;
+            }
+            buffer.flip();
+            long chunkStart = position;
+            position += read;
+            if (position <= start) {
+                continue;
+            }
+            if (chunkStart < start) {
+                buffer.position((int) (start - chunkStart));
+            }
+            if (position > end) {
+                buffer.limit(buffer.limit() - (int) (position - end));
+            }
+            while (buffer.hasRemaining()) {
+                target.write(buffer);
+            }
+        }
+    }
+}
@@ -1,34 +1,93 @@
 package com.applicantztest.fileupload.service;
 
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.regex.Pattern;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 
 import org.apache.commons.io.FilenameUtils;
+import org.hibernate.Hibernate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.multipart.MultipartFile;
 
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.dto.FileDetails;
+import com.applicantztest.fileupload.dto.FileSummary;
+import com.applicantztest.fileupload.dto.HistoryPage;
+import com.applicantztest.fileupload.dto.IngestResult;
 import com.applicantztest.fileupload.dto.ProcessingResult;
 import com.applicantztest.fileupload.dto.ProcessingStat;
+import com.applicantztest.fileupload.dto.PurgeCandidate;
+import com.applicantztest.fileupload.dto.ValidationResult;
+import com.applicantztest.fileupload.exception.ContentRejectedException;
+import com.applicantztest.fileupload.exception.FileValidationException;
+import com.applicantztest.fileupload.exception.UploadTooLargeException;
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+import com.applicantztest.fileupload.model.CsvProfile;
 import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.processing.IngestPipeline;
+import com.applicantztest.fileupload.repository.CsvProfileRepo;
 import com.applicantztest.fileupload.repository.FileManageRepo;
+import com.applicantztest.fileupload.storage.BlobStore;
+import com.applicantztest.fileupload.storage.BlobWriter;
+
+import io.micrometer.core.instrument.Timer;
 
 @Service
 public class FileManageService {
 
     private static final Logger logger = LoggerFactory.getLogger(FileManageService.class);
 
-    private final FileManageRepo fileManageRepo;
-
-    private static final Pattern WORD_PATTERN = Pattern.compile("\\s+");
+    // Largest history page a client may request
+    private static final int MAX_PAGE_SIZE = 100;
 
-    public FileManageService(FileManageRepo fileManageRepo) {
+    private final FileManageRepo fileManageRepo;
+    private final CsvProfileRepo csvProfileRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final FileValidationService fileValidationService;
+    private final IngestPipeline ingestPipeline;
+    private final BlobStore blobStore;
+    private final ContentClaims contentClaims;
+    private final DuplicateIndex duplicateIndex;
+    private final StatisticsAggregate statisticsAggregate;
+    private final FileMetadataCache fileMetadataCache;
+    private final UploadMetrics uploadMetrics;
+    private final int deleteBatchSize;
+
+    public FileManageService(FileManageRepo fileManageRepo, CsvProfileRepo csvProfileRepo,
+            TransactionTemplate transactionTemplate, FileValidationService fileValidationService,
+            IngestPipeline ingestPipeline, BlobStore blobStore, ContentClaims contentClaims,
+            DuplicateIndex duplicateIndex,
+            StatisticsAggregate statisticsAggregate, FileMetadataCache fileMetadataCache,
+            UploadMetrics uploadMetrics, FileUploadProperties fileUploadProperties) {
         this.fileManageRepo = fileManageRepo;
+        this.csvProfileRepo = csvProfileRepo;
+        this.transactionTemplate = transactionTemplate;
+        this.fileValidationService = fileValidationService;
+        this.ingestPipeline = ingestPipeline;
+        this.blobStore = blobStore;
+        this.contentClaims = contentClaims;
+        this.duplicateIndex = duplicateIndex;
+        this.statisticsAggregate = statisticsAggregate;
+        this.fileMetadataCache = fileMetadataCache;
+        this.uploadMetrics = uploadMetrics;
+        this.deleteBatchSize = fileUploadProperties.getRetention().getBatchSize();
     }
 
     public ProcessingResult processFile(MultipartFile file) {
@@ -40,29 +99,16 @@ public class FileManageService {
         String filename = file.getOriginalFilename();
         logger.info("Starting file processing for: {}", filename);
 
-        try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
-
-            int lineCount = 0;
-            int wordCount = 0;
-            String line;
+        try (InputStream input = file.getInputStream()) {
 
-            while ((line = reader.readLine()) != null) {
-                lineCount++;
-
-                int wordsInLine = countWordsInLine(line);
-                wordCount += wordsInLine;
-
-                if (lineCount % 1000 == 0) {
-                    logger.debug("Processed {} lines, {} words so far for file: {}",
-                            lineCount, wordCount, filename);
-                }
-            }
+            String fileType = FilenameUtils.getExtension(filename).toLowerCase();
+            IngestResult ingestResult = ingestPipeline.ingest(input, OutputStream.nullOutputStream(),
+                    file.getSize(), fileType);
 
             logger.info("File processing completed for: {}. Lines: {}, Words: {}",
-                    filename, lineCount, wordCount);
+                    filename, ingestResult.getLineCount(), ingestResult.getWordCount());
 
-            return new ProcessingResult(lineCount, wordCount);
+            return new ProcessingResult(ingestResult.getLineCount(), ingestResult.getWordCount());
 
         } catch (IOException e) {
             logger.error("IOException occurred while processing file: {}", filename, e);
@@ -73,155 +119,501 @@ public class FileManageService {
         }
     }
 
-    private int countWordsInLine(String line) {
-        if (line == null || line.trim().isEmpty()) {
-            return 0;
-        }
-
-        // Trim the line and split by whitespace
-        String trimmedLine = line.trim();
-        if (trimmedLine.isEmpty()) {
-            return 0;
-        }
-
-        // Split by one or more whitespace char
-        String[] words = WORD_PATTERN.split(trimmedLine);
-
-        // Filter out empty strings
-        int wordCount = 0;
-        for (String word : words) {
-            String trimmedWord = word.trim();
-
-            if (!trimmedWord.isEmpty() && !isSingleSymbol(trimmedWord)) {
-                wordCount++;
-            }
-        }
-
-        return wordCount;
-    }
-
-    private boolean isSingleSymbol(String word) {
-        if (word.isEmpty()) {
-            return true;
-        }
-
-        for (char c : word.toCharArray()) {
-            if (Character.isLetterOrDigit(c)) {
-                return false;
-            }
-        }
-        return true;
-    }
-
     public FileManagement saveToDatabase(FileManagement result) {
         if (result == null) {
             logger.error("Cannot save to database: Result is null");
             throw new IllegalArgumentException("FileProcessingResult cannot be null");
         }
 
+        Timer.Sample sample = uploadMetrics.start();
         try {
             logger.debug("Saving processing result to database: {}", result);
-            FileManagement savedResult = fileManageRepo.save(result);
+            FileManagement savedResult = statisticsAggregate.change(() -> fileManageRepo.save(result),
+                    statisticsAggregate::recordSaved);
+            uploadMetrics.recordStage(UploadMetrics.STAGE_PERSISTENCE, sample);
+            fileMetadataCache.evict(savedResult.getId());
             logger.info("Successfully saved processing result to database with Id: {}", savedResult.getId());
             return savedResult;
+        } catch (DataIntegrityViolationException exception) {
+            logger.warn("Constraint violation while saving processing result: {}", result);
+            throw exception;
         } catch (Exception exception) {
             logger.error("Failed to save processing result to database: {}", result, exception);
             throw new RuntimeException("Failed to save processing result to database", exception);
         }
     }
 
-    public FileManagement processAndSaveFile(MultipartFile file) {
+    public FileManagement processAndSaveFile(MultipartFile file) throws FileValidationException {
         if (file == null || file.isEmpty()) {
             logger.error("Cannot process and save: File is null or empty");
             throw new IllegalArgumentException("File cannot be null or empty");
         }
 
         String filename = file.getOriginalFilename();
-        String fileType = FilenameUtils.getExtension(filename).toLowerCase();
         long fileSize = file.getSize();
 
+        try (InputStream input = file.getInputStream()) {
+            return processAndSave(filename, fileSize, input);
+        } catch (IOException exception) {
+            logger.error("Error occurred while reading uploaded file: {}", filename, exception);
+            return saveErrorResult(filename, fileSize, exception);
+        }
+    }
+
+    public FileManagement processAndSave(String filename, long fileSize, InputStream input)
+            throws FileValidationException {
+        String fileType = FilenameUtils.getExtension(filename).toLowerCase();
+
         logger.info("Processing and saving file: {} (type: {}, size: {} bytes)",
                 filename, fileType, fileSize);
 
         try {
-            byte[] content = file.getBytes();
-
-            // Process the file to get line and word counts
-            ProcessingResult processingResult = processFile(file);
-
-            FileManagement result;
-
-            if (processingResult.hasError()) {
-                // Create failed result
-                result = new FileManagement(filename, fileType, fileSize,
-                        processingResult.getErrorMessage());
-                logger.warn("File processing failed for: {}. Error: {}",
-                        filename, processingResult.getErrorMessage());
-            } else {
-                // Create successful result
-                result = new FileManagement(filename, fileType, fileSize,
-                        processingResult.getLineCount(),
-                        processingResult.getWordCount(), content);
-                logger.info("File processing successful for: {}. Lines: {}, Words: {}",
-                        filename, processingResult.getLineCount(), processingResult.getWordCount());
+            IngestResult ingestResult = ingestAndStore(filename, fileSize, input);
+            logger.info("File processing successful for: {}. Lines: {}, Words: {}",
+                    filename, ingestResult.getLineCount(), ingestResult.getWordCount());
+            boolean saved = false;
+            try {
+                FileManagement savedResult = saveIngested(filename, ingestResult);
+                saved = true;
+                return savedResult;
+            } finally {
+                releaseClaim(ingestResult.getContentHash(), saved);
             }
 
-            // Save to database
+        } catch (FileValidationException exception) {
+            throw exception;
+        } catch (UploadTooLargeException exception) {
+            throw tooLarge(filename, exception);
+        } catch (Exception exception) {
+            logger.error("Error occurred while processing and saving file: {}", filename, exception);
+            return saveErrorResult(filename, fileSize, exception);
+        }
+    }
+
+    /**
+     * Moves an ingested and validated local file into the blob store and
+     * saves its result.
+     */
+    public FileManagement saveImported(Path file, String filename, IngestResult ingestResult)
+            throws IOException, FileValidationException {
+        contentClaims.importFile(file, ingestResult.getContentHash());
+        boolean saved = false;
+        try {
+            FileManagement savedResult = saveIngested(filename, ingestResult);
+            saved = true;
+            return savedResult;
+        } finally {
+            releaseClaim(ingestResult.getContentHash(), saved);
+        }
+    }
+
+    /**
+     * Saves the result of content that is already stored and validated.
+     */
+    public FileManagement saveIngested(String filename, IngestResult ingestResult)
+            throws FileValidationException {
+        FileManagement result = successResult(filename, ingestResult);
+
+        try {
             FileManagement savedResult = saveToDatabase(result);
+            duplicateIndex.register(savedResult.getContentHash());
             logger.info("File processing result saved to database with Id: {}", savedResult.getId());
-
             return savedResult;
+        } catch (DataIntegrityViolationException exception) {
+            // a concurrent upload of the same content won the unique content_hash index
+            logger.warn("Duplicate content detected on save for file: {}", filename);
+            uploadMetrics.recordRejection(UploadMetrics.REJECTED_DUPLICATE);
+            throw new FileValidationException(FileValidationService.DUPLICATE_CONTENT_MESSAGE, filename, "duplicate");
+        }
+    }
+
+    /**
+     * Processes one upload without saving it, for callers that persist results
+     * in batches. Validation failures are thrown, processing errors come back
+     * as a FAILED result. A result that will not be saved must be given to
+     * {@link #abandon}.
+     */
+    public FileManagement processWithoutSaving(String filename, long fileSize, InputStream input)
+            throws FileValidationException {
+        String fileType = FilenameUtils.getExtension(filename).toLowerCase();
 
+        try {
+            IngestResult ingestResult = ingestAndStore(filename, fileSize, input);
+            logger.info("File processing successful for: {}. Lines: {}, Words: {}",
+                    filename, ingestResult.getLineCount(), ingestResult.getWordCount());
+            return successResult(filename, ingestResult);
+
+        } catch (FileValidationException exception) {
+            throw exception;
+        } catch (UploadTooLargeException exception) {
+            throw tooLarge(filename, exception);
         } catch (Exception exception) {
-            logger.error("Error occurred while processing and saving file: {}", filename, exception);
+            logger.error("Error occurred while processing file: {}", filename, exception);
+            return new FileManagement(filename, fileType, fileSize, "Processing error: " + exception.getMessage());
+        }
+    }
 
-            FileManagement errorResult = new FileManagement(filename, fileType, fileSize,
+    /**
+     * Processes a file on local disk without saving it, for callers that
+     * persist results in batches. The file is mapped rather than read and is
+     * moved into the blob store once it passes validation; a rejected file is
+     * left where it is. Content already imported in the same batch, whose
+     * hashes are collected in {@code batchHashes}, is rejected as a duplicate
+     * too. A result that will not be saved must be given to {@link #abandon}.
+     */
+    public FileManagement importWithoutSaving(Path file, Set<String> batchHashes) throws FileValidationException {
+        String filename = file.getFileName().toString();
+        String fileType = FilenameUtils.getExtension(filename).toLowerCase();
+
+        try {
+            IngestResult ingestResult = ingestPipeline.ingestFile(file, fileType,
+                    fileValidationService.prefixCheck(filename));
+            ValidationResult contentValidation = fileValidationService.validateContent(filename, ingestResult);
+            if (!contentValidation.isValid()) {
+                throw new FileValidationException(contentValidation.getErrors(), filename, "content");
+            }
+
+            // the earlier file's row is not saved yet, so the duplicate check above cannot see it
+            if (batchHashes.contains(ingestResult.getContentHash())) {
+                logger.warn("Content of {} was already imported in this batch", filename);
+                uploadMetrics.recordRejection(UploadMetrics.REJECTED_DUPLICATE);
+                throw new FileValidationException(FileValidationService.DUPLICATE_CONTENT_MESSAGE, filename,
+                        "duplicate");
+            }
+            contentClaims.importFile(file, ingestResult.getContentHash());
+            batchHashes.add(ingestResult.getContentHash());
+            logger.info("File import successful for: {}. Lines: {}, Words: {}",
+                    filename, ingestResult.getLineCount(), ingestResult.getWordCount());
+            return successResult(filename, ingestResult);
+
+        } catch (FileValidationException exception) {
+            throw exception;
+        } catch (ContentRejectedException exception) {
+            throw rejected(filename, exception);
+        } catch (Exception exception) {
+            logger.error("Error occurred while importing file: {}", file, exception);
+            return new FileManagement(filename, fileType, file.toFile().length(),
                     "Processing error: " + exception.getMessage());
+        }
+    }
 
-            try {
-                return saveToDatabase(errorResult);
-            } catch (Exception saveException) {
-                logger.error("Failed to save error result to database for file: {}", filename, saveException);
-                throw new RuntimeException("Failed to process file and save result", saveException);
+    /**
+     * Saves results in one transaction so Hibernate can batch the inserts. If
+     * a concurrent upload claimed one of the content hashes first, the batch
+     * is rolled back and saved row by row, turning the losers into duplicate
+     * failures.
+     */
+    public List<FileManagement> saveAllToDatabase(List<FileManagement> results) {
+        if (results.isEmpty()) {
+            return results;
+        }
+
+        // the hashes of rows that turn out to be duplicates are cleared while saving
+        List<String> claimedHashes = results.stream()
+                .map(FileManagement::getContentHash)
+                .filter(Objects::nonNull)
+                .toList();
+        boolean saved = false;
+        try {
+            List<FileManagement> savedResults = saveAll(results);
+            saved = true;
+            return savedResults;
+        } finally {
+            for (String contentHash : claimedHashes) {
+                releaseClaim(contentHash, saved);
             }
         }
     }
 
-    public byte[] getFileContent(FileManagement file) throws IOException {
-        if (file.getContent() == null) {
-            throw new FileNotFoundException("File content not found for: " + file.getFilename());
+    /**
+     * Gives up a result of {@link #processWithoutSaving} or
+     * {@link #importWithoutSaving} that will not be saved, so its content can
+     * be deleted again.
+     */
+    public void abandon(FileManagement result) {
+        releaseClaim(result.getContentHash(), false);
+    }
+
+    // content of a row that was not saved is deleted as well, unless another upload or row references it
+    private void releaseClaim(String contentHash, boolean saved) {
+        if (saved) {
+            contentClaims.release(contentHash);
+            return;
+        }
+        try {
+            contentClaims.discard(contentHash);
+        } catch (IOException e) {
+            logger.warn("Could not delete content {} of an unsaved file", contentHash, e);
         }
-        return file.getContent();
     }
 
-    public ProcessingStat getProcessingStatistics() {
+    private List<FileManagement> saveAll(List<FileManagement> results) {
+        List<FileManagement> savedResults;
+        Timer.Sample sample = uploadMetrics.start();
         try {
-            long totalFiles = fileManageRepo.count();
-            long successfulFiles = fileManageRepo.countSuccessfulProcessing();
-            long failedFiles = fileManageRepo.countFailedProcessing();
-            long totalLines = fileManageRepo.getTotalLinesProcessed();
-            long totalWords = fileManageRepo.getTotalWordsProcessed();
+            savedResults = statisticsAggregate.change(() -> fileManageRepo.saveAll(results),
+                    saved -> saved.forEach(statisticsAggregate::recordSaved));
+            uploadMetrics.recordStage(UploadMetrics.STAGE_PERSISTENCE, sample);
+            fileMetadataCache.evictQueries();
+            logger.info("Saved {} processing results to database in one batch", savedResults.size());
+        } catch (DataIntegrityViolationException exception) {
+            logger.warn("Constraint violation in batch of {} results, saving one by one", results.size());
+            savedResults = new ArrayList<>(results.size());
+            for (FileManagement result : results) {
+                // ids handed out to the rolled back batch must not be reused
+                result.setId(null);
+                if (result.getCsvProfile() != null) {
+                    result.getCsvProfile().setId(null);
+                }
+                savedResults.add(saveOrMarkDuplicate(result));
+            }
+        }
+
+        savedResults.stream()
+                .filter(saved -> saved.getStatus() == ProcessingStatus.SUCCESS)
+                .forEach(saved -> duplicateIndex.register(saved.getContentHash()));
+        return savedResults;
+    }
+
+    // the ingested byte count is exact even when the declared size was unknown
+    private FileManagement successResult(String filename, IngestResult ingestResult) {
+        String fileType = FilenameUtils.getExtension(filename).toLowerCase();
+        FileManagement result = new FileManagement(filename, fileType, ingestResult.getByteCount(),
+                ingestResult.getLineCount(), ingestResult.getWordCount(), ingestResult.getContentHash());
+        ingestResult.applyTo(result);
+        return result;
+    }
+
+    private FileValidationException tooLarge(String filename, UploadTooLargeException exception) {
+        logger.warn("File {} exceeded the size limit while streaming", filename);
+        uploadMetrics.recordRejection(UploadMetrics.REJECTED_SIZE);
+        return new FileValidationException(exception.getMessage(), filename, "size");
+    }
 
-            ProcessingStat stats = new ProcessingStat(
-                    totalFiles, successfulFiles, failedFiles, totalLines, totalWords);
+    // the rejection is already counted by the prefix check
+    private FileValidationException rejected(String filename, ContentRejectedException exception) {
+        logger.warn("File {} was rejected after its first bytes", filename);
+        return new FileValidationException(exception.getMessage(), filename, "content");
+    }
+
+    private FileManagement saveOrMarkDuplicate(FileManagement result) {
+        try {
+            return saveToDatabase(result);
+        } catch (DataIntegrityViolationException exception) {
+            logger.warn("Duplicate content detected on save for file: {}", result.getFilename());
+            uploadMetrics.recordRejection(UploadMetrics.REJECTED_DUPLICATE);
+            result.setId(null);
+            clearCounts(result).setErrorMessage(FileValidationService.DUPLICATE_CONTENT_MESSAGE);
+            result.setStatus(ProcessingStatus.FAILED);
+            return saveToDatabase(result);
+        }
+    }
 
-            logger.info("Retrieved processing statistics: {}", stats);
-            return stats;
+    /**
+     * Single pass over the content: count, scan, hash and stream it to the
+     * blob store together. The blob is only committed if the content passes
+     * validation, and content whose first bytes fail it is not read further.
+     */
+    public IngestResult ingestAndStore(String filename, long expectedSize, InputStream input)
+            throws IOException, FileValidationException {
+        try (BlobWriter writer = blobStore.newWriter(expectedSize)) {
+            String fileType = FilenameUtils.getExtension(filename).toLowerCase();
+            IngestResult ingestResult;
+            try {
+                ingestResult = ingestPipeline.ingest(input, writer.getOutputStream(), expectedSize, fileType,
+                        fileValidationService.prefixCheck(filename));
+            } catch (ContentRejectedException exception) {
+                throw rejected(filename, exception);
+            }
 
+            ValidationResult contentValidation = fileValidationService.validateContent(filename, ingestResult);
+            if (!contentValidation.isValid()) {
+                throw new FileValidationException(contentValidation.getErrors(), filename, "content");
+            }
+
+            contentClaims.commit(writer, ingestResult.getContentHash());
+            return ingestResult;
+        }
+    }
+
+    public FileManagement createPendingFile(String filename, long fileSize) {
+        String fileType = FilenameUtils.getExtension(filename).toLowerCase();
+        return saveToDatabase(new FileManagement(filename, fileType, fileSize));
+    }
+
+    public FileManagement processPendingFile(Long id, InputStream input) {
+        FileManagement file = fileManageRepo.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Pending file not found for id: " + id));
+        String filename = file.getFilename();
+
+        updateStatus(file, ProcessingStatus.PROCESSING, null);
+        logger.info("Processing pending file: {} (id: {})", filename, id);
+
+        String claimedHash = null;
+        boolean saved = false;
+        try {
+            IngestResult ingestResult = ingestAndStore(filename, file.getFileSize(), input);
+            claimedHash = ingestResult.getContentHash();
+
+            file.setFileSize(ingestResult.getByteCount());
+            file.setLineCount(ingestResult.getLineCount());
+            file.setWordCount(ingestResult.getWordCount());
+            file.setContentHash(ingestResult.getContentHash());
+            ingestResult.applyTo(file);
+            file.setProcessedAt(LocalDateTime.now());
+            FileManagement savedResult = updateStatus(file, ProcessingStatus.SUCCESS, null);
+            saved = true;
+            duplicateIndex.register(savedResult.getContentHash());
+            logger.info("Pending file processed: {}. Lines: {}, Words: {}",
+                    filename, savedResult.getLineCount(), savedResult.getWordCount());
+            return savedResult;
+
+        } catch (FileValidationException exception) {
+            logger.warn("Pending file failed validation: {}", exception.getDetailedMessage());
+            return updateStatus(clearCounts(file), ProcessingStatus.FAILED, exception.getMessage());
+        } catch (DataIntegrityViolationException exception) {
+            logger.warn("Duplicate content detected on save for pending file: {}", filename);
+            uploadMetrics.recordRejection(UploadMetrics.REJECTED_DUPLICATE);
+            return updateStatus(clearCounts(file), ProcessingStatus.FAILED,
+                    FileValidationService.DUPLICATE_CONTENT_MESSAGE);
         } catch (Exception exception) {
-            logger.error("Error retrieving processing statistics", exception);
-            return new ProcessingStat(0, 0, 0, 0, 0);
+            logger.error("Error occurred while processing pending file: {}", filename, exception);
+            return updateStatus(clearCounts(file), ProcessingStatus.FAILED,
+                    "Processing error: " + exception.getMessage());
+        } finally {
+            releaseClaim(claimedHash, saved);
         }
     }
 
+    public FileManagement updateStatus(FileManagement file, ProcessingStatus status, String errorMessage) {
+        ProcessingStatus previousStatus = file.getStatus();
+        file.setStatus(status);
+        file.setErrorMessage(errorMessage);
+        Timer.Sample sample = uploadMetrics.start();
+        FileManagement savedResult = statisticsAggregate.change(() -> fileManageRepo.save(file),
+                saved -> statisticsAggregate.recordStatusChange(previousStatus, saved));
+        uploadMetrics.recordStage(UploadMetrics.STAGE_PERSISTENCE, sample);
+        fileMetadataCache.evict(savedResult.getId());
+        return savedResult;
+    }
+
+    private FileManagement clearCounts(FileManagement file) {
+        file.setLineCount(0L);
+        file.setWordCount(0L);
+        file.setContentHash(null);
+        file.setEncoding(null);
+        file.setCsvProfile(null);
+        file.setProcessedAt(LocalDateTime.now());
+        return file;
+    }
+
+    private FileManagement saveErrorResult(String filename, long fileSize, Exception exception) {
+        String fileType = FilenameUtils.getExtension(filename).toLowerCase();
+        FileManagement errorResult = new FileManagement(filename, fileType, fileSize,
+                "Processing error: " + exception.getMessage());
+
+        try {
+            return saveToDatabase(errorResult);
+        } catch (Exception saveException) {
+            logger.error("Failed to save error result to database for file: {}", filename, saveException);
+            throw new RuntimeException("Failed to process file and save result", saveException);
+        }
+    }
+
+    /**
+     * Metadata of one file, served from the metadata cache when possible.
+     * Content is read separately from the blob store.
+     */
+    public Optional<FileDetails> getFileDetails(Long id) {
+        return fileMetadataCache.getFile(id, key -> fileManageRepo.findById(key).map(FileDetails::from));
+    }
+
+    /**
+     * Column statistics of a CSV file, fully loaded so they can be rendered
+     * outside the transaction.
+     */
+    @Transactional(readOnly = true)
+    public Optional<CsvProfile> getCsvProfile(Long id) {
+        return fileManageRepo.findById(id)
+                .map(FileManagement::getCsvProfile)
+                .map(profile -> {
+                    Hibernate.initialize(profile.getColumns());
+                    return (CsvProfile) Hibernate.unproxy(profile);
+                });
+    }
+
+    public HistoryPage getHistoryPage(ProcessingStatus status, String fileType, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        String type = fileType == null || fileType.isBlank() ? null : fileType.trim().toLowerCase();
+        return fileMetadataCache.getHistoryPage(status, type, cursor, pageSize,
+                () -> loadHistoryPage(status, type, cursor, pageSize));
+    }
+
+    private HistoryPage loadHistoryPage(ProcessingStatus status, String type, String cursor, int pageSize) {
+        // fetch one extra row to know whether another page follows
+        Limit limit = Limit.of(pageSize + 1);
+        List<FileSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = fileManageRepo.findHistory(status, type, limit);
+        } else {
+            String[] position = decodeCursor(cursor);
+            LocalDateTime processedAt;
+            try {
+                processedAt = LocalDateTime.parse(position[0]);
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid history cursor: " + cursor, e);
+            }
+            rows = fileManageRepo.findHistoryAfter(status, type, processedAt, Long.valueOf(position[1]), limit);
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<FileSummary> items = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = hasNext ? encodeCursor(items.get(items.size() - 1)) : null;
+
+        logger.debug("Retrieved history page of {} rows (status: {}, type: {}, hasNext: {})",
+                items.size(), status, type, hasNext);
+        return new HistoryPage(items, hasNext, nextCursor);
+    }
+
+    private String encodeCursor(FileSummary last) {
+        String position = last.getProcessedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String[] decodeCursor(String cursor) {
+        try {
+            String position = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = position.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Invalid history cursor: " + cursor);
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid history cursor: " + cursor, e);
+        }
+    }
+
+    public ProcessingStat getProcessingStatistics() {
+        ProcessingStat stats = statisticsAggregate.snapshot();
+        logger.debug("Retrieved processing statistics: {}", stats);
+        return stats;
+    }
+
     public boolean deleteFileFromDatabase(Long id) {
         try {
-            if (!fileManageRepo.existsById(id)) {
+            Optional<FileManagement> file = fileManageRepo.findById(id);
+            if (file.isEmpty()) {
                 logger.warn("File with id {} not found in database", id);
                 return false;
             }
 
-            fileManageRepo.deleteById(id);
+            statisticsAggregate.change(() -> {
+                fileManageRepo.deleteById(id);
+                return file.get();
+            }, statisticsAggregate::recordDeleted);
+            fileMetadataCache.evict(id);
+            duplicateIndex.evict(file.get().getContentHash());
+            releaseContent(file.get().getContentHash());
             logger.info("Successfully deleted file with id {} from database", id);
             return true;
 
@@ -233,11 +625,69 @@ public class FileManageService {
 
     public void deleteAll() {
         try {
-            fileManageRepo.deleteAll();
-            logger.info("Successfully deleted all files from database");
+            long deleted = 0;
+            int batch;
+            while ((batch = purgeBatch(null, null, deleteBatchSize)) > 0) {
+                deleted += batch;
+            }
+            // start over from the table, in case of uploads saved while deleting
+            fileMetadataCache.evictAll();
+            duplicateIndex.clear();
+            statisticsAggregate.reconcile();
+            logger.info("Successfully deleted all {} files from database", deleted);
         } catch (Exception e) {
             logger.error("Error deleting all files from database", e);
             throw new RuntimeException("Failed to delete all files from database", e);
         }
     }
+
+    /**
+     * Deletes up to {@code batchSize} rows with the status that were processed
+     * before the given time, or any rows if the status is null, together with
+     * their CSV profiles. The rows are locked, deleted by id and never loaded
+     * as entities, all in one short transaction; their content is released
+     * after it commits. Returns the number of rows deleted.
+     */
+    public int purgeBatch(ProcessingStatus status, LocalDateTime before, int batchSize) {
+        List<PurgeCandidate> batch = statisticsAggregate.change(() -> transactionTemplate.execute(transaction -> {
+            Limit limit = Limit.of(batchSize);
+            List<PurgeCandidate> rows = status == null
+                    ? fileManageRepo.findPurgeBatch(limit)
+                    : fileManageRepo.findPurgeBatch(status, before, limit);
+            if (rows.isEmpty()) {
+                return rows;
+            }
+            fileManageRepo.deleteAllByIdInBatch(rows.stream().map(PurgeCandidate::getId).toList());
+            // profiles are referenced by the rows, so they go second; their column stats go with them
+            List<Long> profileIds = rows.stream()
+                    .map(PurgeCandidate::getCsvProfileId)
+                    .filter(Objects::nonNull)
+                    .toList();
+            if (!profileIds.isEmpty()) {
+                csvProfileRepo.deleteAllByIdInBatch(profileIds);
+            }
+            return rows;
+        }), rows -> rows.forEach(row ->
+                statisticsAggregate.recordDeleted(row.getStatus(), row.getLineCount(), row.getWordCount())));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        fileMetadataCache.evict(batch.stream().map(PurgeCandidate::getId).toList());
+        for (PurgeCandidate row : batch) {
+            duplicateIndex.evict(row.getContentHash());
+            try {
+                releaseContent(row.getContentHash());
+            } catch (IOException e) {
+                logger.warn("Could not delete the content of purged file {}", row.getId(), e);
+            }
+        }
+        logger.debug("Purged {} rows (status: {}, before: {})", batch.size(), status, before);
+        return batch.size();
+    }
+
+    // Deletes the stored blob once no remaining row or pending upload references it
+    private void releaseContent(String contentHash) throws IOException {
+        contentClaims.deleteIfUnreferenced(contentHash);
+    }
 }
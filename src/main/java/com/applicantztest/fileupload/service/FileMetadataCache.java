@@ -0,0 +1,107 @@
+package com.applicantztest.fileupload.service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import com.applicantztest.fileupload.config.DatabaseConfig;
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.dto.FileDetails;
+import com.applicantztest.fileupload.dto.HistoryPage;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Keeps file metadata by id and history pages in front of the database.
+ * Both caches are bounded by size with W-TinyLFU eviction, so a burst of
+ * one-off lookups does not push out the hot rows, and expire after a TTL.
+ * Only metadata is cached, never content. {@link FileManageService} evicts
+ * on every save and delete.
+ */
+@Component
+public class FileMetadataCache implements MeterBinder {
+
+    private final boolean enabled;
+    private final Cache<Long, FileDetails> files;
+    private final Cache<List<Object>, HistoryPage> historyPages;
+
+    // part of every history key; bumped on each write so a page loaded
+    // concurrently with the write is never served after it
+    private final AtomicLong generation = new AtomicLong();
+
+    public FileMetadataCache(FileUploadProperties fileUploadProperties) {
+        DatabaseConfig.MetadataCache config = fileUploadProperties.getMetadataCache();
+        this.enabled = config.isEnabled();
+        this.files = Caffeine.newBuilder()
+                .maximumSize(config.getMaxFiles())
+                .expireAfterWrite(config.getFileTtl())
+                .recordStats()
+                .build();
+        this.historyPages = Caffeine.newBuilder()
+                .maximumSize(config.getMaxQueries())
+                .expireAfterWrite(config.getQueryTtl())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * The cached metadata of the file, loaded on a miss. Missing files are
+     * not cached.
+     */
+    public Optional<FileDetails> getFile(Long id, Function<Long, Optional<FileDetails>> loader) {
+        if (!enabled) {
+            return loader.apply(id);
+        }
+        return Optional.ofNullable(files.get(id, key -> loader.apply(key).orElse(null)));
+    }
+
+    public HistoryPage getHistoryPage(ProcessingStatus status, String fileType, String cursor, int size,
+            Supplier<HistoryPage> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+        List<Object> key = Arrays.asList(generation.get(), status, fileType, cursor, size);
+        return historyPages.get(key, ignored -> loader.get());
+    }
+
+    // a row was saved or deleted, which can also move it in or out of any history page
+    public void evict(Long id) {
+        if (id != null) {
+            files.invalidate(id);
+        }
+        evictQueries();
+    }
+
+    public void evict(Collection<Long> ids) {
+        files.invalidateAll(ids);
+        evictQueries();
+    }
+
+    public void evictAll() {
+        files.invalidateAll();
+        evictQueries();
+    }
+
+    // new rows can only change query results
+    public void evictQueries() {
+        generation.incrementAndGet();
+        historyPages.invalidateAll();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, files, "file.metadata");
+        CaffeineCacheMetrics.monitor(registry, historyPages, "file.history");
+    }
+}
@@ -1,9 +1,12 @@
 package com.applicantztest.fileupload.service;
 
-import java.util.Arrays;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.io.input.BoundedInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -11,9 +14,18 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.applicantztest.fileupload.config.DatabaseConfig;
 import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.dto.IngestResult;
 import com.applicantztest.fileupload.dto.ValidationResult;
-import com.applicantztest.fileupload.repository.FileManageRepo;
-import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.exception.ContentRejectedException;
+import com.applicantztest.fileupload.exception.UploadTooLargeException;
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+import com.applicantztest.fileupload.model.TextEncoding;
+import com.applicantztest.fileupload.processing.ContentProcessorRegistry;
+import com.applicantztest.fileupload.processing.ContentScanner;
+import com.applicantztest.fileupload.processing.ContentSniffer;
+import com.applicantztest.fileupload.processing.PrefixCheck;
+
+import io.micrometer.core.instrument.Timer;
 
 
 @Service
@@ -21,18 +33,33 @@ public class FileValidationService {
 
     private static final Logger logger = LoggerFactory.getLogger(FileValidationService.class);
 
-    private final DatabaseConfig.FileUploadProperties fileUploadProperties;
-    private final FileManageRepo repository;
+    static final String DUPLICATE_CONTENT_MESSAGE =
+            "A file with the same content has already been successfully processed.";
 
-    // Allowed file types
-    private static final List<String> ALLOWED_TYPES = Arrays.asList("txt", "csv");
+    static final String INVALID_CONTENT_MESSAGE = "File content appears to be invalid or corrupted.";
 
-    // Maximum file size in bytes (10MB)
-    private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
+    // A sample can be skewed by a header or a preamble, so only a far higher ratio rejects it early
+    private static final double PREFIX_NON_PRINTABLE_LIMIT = 0.3;
 
-    public FileValidationService(FileUploadProperties fileUploadProperties, FileManageRepo repository) {
+    private final DatabaseConfig.FileUploadProperties fileUploadProperties;
+    private final DuplicateIndex duplicateIndex;
+    private final UploadMetrics uploadMetrics;
+    private final ContentProcessorRegistry processorRegistry;
+
+    public FileValidationService(FileUploadProperties fileUploadProperties, DuplicateIndex duplicateIndex,
+            UploadMetrics uploadMetrics, ContentProcessorRegistry processorRegistry) {
         this.fileUploadProperties = fileUploadProperties;
-        this.repository = repository;
+        this.duplicateIndex = duplicateIndex;
+        this.uploadMetrics = uploadMetrics;
+        this.processorRegistry = processorRegistry;
+
+        List<String> configured = fileUploadProperties.getAllowedFileTypes();
+        if (configured != null) {
+            configured.stream()
+                    .filter(type -> !processorRegistry.getFileTypes().contains(type.toLowerCase()))
+                    .forEach(type -> logger.warn("Ignoring allowed file type '{}': no content processor handles it",
+                            type));
+        }
     }
 
     public boolean isAllowedFile(MultipartFile file) {
@@ -41,7 +68,10 @@ public class FileValidationService {
             return false;
         }
 
-        String filename = file.getOriginalFilename();
+        return isAllowedFilename(file.getOriginalFilename());
+    }
+
+    public boolean isAllowedFilename(String filename) {
         if (filename == null || filename.trim().isEmpty()) {
             logger.warn("File validation failed: Filename is null or empty");
             return false;
@@ -55,13 +85,7 @@ public class FileValidationService {
             return false;
         }
 
-        // Get allowed file types from properties
-        List<String> allowedTypes = fileUploadProperties.getAllowedFileTypes();
-        if (allowedTypes == null || allowedTypes.isEmpty()) {
-            allowedTypes = ALLOWED_TYPES;
-            logger.info("Using allowed file types: {}", allowedTypes);
-        }
-
+        List<String> allowedTypes = getAllowedFileTypes();
         boolean isAllowed = allowedTypes.contains(fileExtension);
 
         if (isAllowed) {
@@ -74,6 +98,30 @@ public class FileValidationService {
         return isAllowed;
     }
 
+    /**
+     * Types some content processor handles, narrowed to
+     * {@code app.allowed-file-types} when that is set.
+     */
+    public List<String> getAllowedFileTypes() {
+        Set<String> supported = processorRegistry.getFileTypes();
+        List<String> configured = fileUploadProperties.getAllowedFileTypes();
+        if (configured == null || configured.isEmpty()) {
+            return List.copyOf(supported);
+        }
+        return configured.stream()
+                .map(String::toLowerCase)
+                .filter(supported::contains)
+                .toList();
+    }
+
+    private String typeNotAllowedMessage() {
+        List<String> types = getAllowedFileTypes().stream().map(type -> "." + type).toList();
+        String accepted = types.size() <= 1
+                ? String.join("", types)
+                : String.join(", ", types.subList(0, types.size() - 1)) + " and " + types.get(types.size() - 1);
+        return "File type not allowed. Only " + accepted + " files are accepted.";
+    }
+
     public boolean isValidFileSize(MultipartFile file) {
         if (file == null) {
             logger.warn("File size validation failed: File is null");
@@ -81,97 +129,239 @@ public class FileValidationService {
         }
 
         long fileSize = file.getSize();
-        boolean isValid = fileSize > 0 && fileSize <= MAX_FILE_SIZE;
+        long maxFileSize = getMaxFileSize();
+        boolean isValid = fileSize > 0 && fileSize <= maxFileSize;
 
         if (isValid) {
-            logger.info("File size validation successful: {} bytes (limit: {} bytes)", fileSize, MAX_FILE_SIZE);
+            logger.info("File size validation successful: {} bytes (limit: {} bytes)", fileSize, maxFileSize);
         } else {
-            logger.warn("File size validation failed: {} bytes exceeds limit of {} bytes", fileSize, MAX_FILE_SIZE);
+            logger.warn("File size validation failed: {} bytes exceeds limit of {} bytes", fileSize, maxFileSize);
         }
 
         return isValid;
     }
 
-    public boolean isValidFileContent(MultipartFile file) {
-        if (file == null || file.isEmpty()) {
-            logger.warn("File content validation failed: File is null or empty");
-            return false;
+    public boolean isValidFileContent(String filename, IngestResult ingestResult) {
+        return contentError(filename, ingestResult) == null;
+    }
+
+    public ValidationResult validateContent(String filename, IngestResult ingestResult) {
+        Timer.Sample sample = uploadMetrics.start();
+        ValidationResult result = new ValidationResult();
+
+        String contentError = contentError(filename, ingestResult);
+        if (contentError != null) {
+            result.setValid(false);
+            result.addError(contentError);
+            uploadMetrics.recordRejection(UploadMetrics.REJECTED_CONTENT);
+        } else if (duplicateIndex.isDuplicate(ingestResult.getContentHash())) {
+            logger.warn("File validation failed: content of {} has already been processed (hash: {})",
+                    filename, ingestResult.getContentHash());
+            result.setValid(false);
+            result.addError(DUPLICATE_CONTENT_MESSAGE);
+            uploadMetrics.recordRejection(UploadMetrics.REJECTED_DUPLICATE);
         }
 
-        try {
+        uploadMetrics.recordStage(UploadMetrics.STAGE_VALIDATION, sample);
+        return result;
+    }
 
-            byte[] content = file.getBytes();
+    /**
+     * Early check of the first kilobytes of a text upload, run by the ingest
+     * pipeline before the rest of the content is read: a known binary format,
+     * binary or UTF-16 content, or a prefix that is mostly control bytes is
+     * rejected with {@link ContentRejectedException}. The full content check
+     * still runs on the complete content. Null for types whose content is not
+     * checked.
+     */
+    public PrefixCheck prefixCheck(String filename) {
+        if (!isTextFile(filename)) {
+            return null;
+        }
+        int prefixSize = Math.toIntExact(fileUploadProperties.getValidation().getPrefixSize().toBytes());
+        return new PrefixCheck() {
 
-            if (content.length == 0) {
-                logger.warn("File content validation failed: File content is empty");
-                return false;
+            @Override
+            public int getPrefixSize() {
+                return prefixSize;
             }
 
-            // Check contains valid text characters
-            String filename = file.getOriginalFilename();
-            String fileExtension = FilenameUtils.getExtension(filename).toLowerCase();
+            @Override
+            public void check(byte[] prefix, int length) throws ContentRejectedException {
+                Timer.Sample sample = uploadMetrics.start();
+                String error = prefixError(filename, prefix, length);
+                uploadMetrics.recordStage(UploadMetrics.STAGE_VALIDATION, sample);
+                if (error != null) {
+                    uploadMetrics.recordRejection(UploadMetrics.REJECTED_CONTENT);
+                    throw new ContentRejectedException(error);
+                }
+            }
+        };
+    }
 
-            if ("txt".equals(fileExtension) || "csv".equals(fileExtension)) {
+    private String prefixError(String filename, byte[] prefix, int length) {
+        String format = ContentSniffer.detectBinaryFormat(prefix, length);
+        if (format != null) {
+            logger.warn("File content validation failed: {} content in text file: {}", format, filename);
+            return INVALID_CONTENT_MESSAGE;
+        }
 
-                String contentStr = new String(content);
-                long nonPrintableCount = contentStr.chars()
-                        .filter(c -> c < 32 && c != 9 && c != 10 && c != 13)
-                        .count();
+        ContentScanner scanner = new ContentScanner();
+        scanner.accept(prefix, 0, length);
+        String encodingError = encodingError(filename, scanner.getEncoding());
+        if (encodingError != null) {
+            return encodingError;
+        }
 
-                // If more than 10% of characters are non-printable, consider it suspicious
-                double nonPrintableRatio = (double) nonPrintableCount / contentStr.length();
-                if (nonPrintableRatio > 0.1) {
-                    logger.warn(
-                            "File content validation failed: High ratio of non-printable characters ({}%) in text file: {}",
-                            nonPrintableRatio * 100, filename);
-                    return false;
-                }
+        double nonPrintableRatio = scanner.getCharCount() == 0
+                ? 0.0
+                : (double) scanner.getControlCount() / scanner.getCharCount();
+        if (nonPrintableRatio > PREFIX_NON_PRINTABLE_LIMIT) {
+            logger.warn("File content validation failed: {}% non-printable characters in the first {} bytes of: {}",
+                    nonPrintableRatio * 100, length, filename);
+            return INVALID_CONTENT_MESSAGE;
+        }
+        return null;
+    }
+
+    // null if the content passes, otherwise the message for the client
+    private String contentError(String filename, IngestResult ingestResult) {
+        if (ingestResult == null || ingestResult.getByteCount() == 0) {
+            logger.warn("File content validation failed: File content is empty");
+            return INVALID_CONTENT_MESSAGE;
+        }
+
+        // Check contains valid text characters
+        if (isTextFile(filename)) {
+
+            String encodingError = encodingError(filename, ingestResult.getEncoding());
+            if (encodingError != null) {
+                return encodingError;
             }
 
-            logger.info("File content validation successful for file: {}", filename);
-            return true;
+            // If more than 10% of characters are non-printable, consider it suspicious
+            double nonPrintableRatio = ingestResult.getNonPrintableRatio();
+            if (nonPrintableRatio > 0.1) {
+                logger.warn(
+                        "File content validation failed: High ratio of non-printable characters ({}%) in text file: {}",
+                        nonPrintableRatio * 100, filename);
+                return INVALID_CONTENT_MESSAGE;
+            }
+        }
 
-        } catch (Exception e) {
-            logger.error("File content validation failed due to exception for file: {}",
-                    file.getOriginalFilename(), e);
-            return false;
+        logger.info("File content validation successful for file: {} ({})", filename, ingestResult.getEncoding());
+        return null;
+    }
+
+    private String encodingError(String filename, TextEncoding encoding) {
+        if (encoding == TextEncoding.BINARY) {
+            logger.warn("File content validation failed: Binary content in text file: {}", filename);
+            return INVALID_CONTENT_MESSAGE;
+        }
+        if (encoding == TextEncoding.UTF_16) {
+            logger.warn("File content validation failed: UTF-16 text file: {}", filename);
+            return "UTF-16 text is not supported, please upload the file as UTF-8.";
+        }
+        return null;
+    }
+
+    // the processors of the type say whether its content must be text
+    private boolean isTextFile(String filename) {
+        return processorRegistry.isTextType(FilenameUtils.getExtension(filename).toLowerCase());
+    }
+
+    /**
+     * Metadata checks for content that does not arrive as its own multipart
+     * file, such as an entry of an uploaded archive. A negative size means
+     * the size is not known up front; wrap the content with
+     * {@link #enforceMaxFileSize} instead.
+     */
+    public ValidationResult validateEntry(String filename, long size) {
+        return validateEntry(filename, size, getMaxFileSize());
+    }
+
+    public ValidationResult validateEntry(String filename, long size, long maxFileSize) {
+        Timer.Sample sample = uploadMetrics.start();
+        ValidationResult result = new ValidationResult();
+
+        if (!isAllowedFilename(filename)) {
+            result.setValid(false);
+            result.addError(typeNotAllowedMessage());
+            uploadMetrics.recordRejection(UploadMetrics.REJECTED_TYPE);
+        } else if (size == 0) {
+            result.setValid(false);
+            result.addError("File is empty.");
+            uploadMetrics.recordRejection(UploadMetrics.REJECTED_EMPTY);
+        } else if (size > maxFileSize) {
+            result.setValid(false);
+            result.addError("File size exceeds the maximum limit of " + describeSize(maxFileSize) + ".");
+            uploadMetrics.recordRejection(UploadMetrics.REJECTED_SIZE);
         }
+
+        uploadMetrics.recordStage(UploadMetrics.STAGE_VALIDATION, sample);
+        return result;
+    }
+
+    /**
+     * Fails the read with {@link UploadTooLargeException} once the content
+     * passes the upload size limit, for content whose size may be unknown or
+     * misreported.
+     */
+    public InputStream enforceMaxFileSize(InputStream input) throws IOException {
+        long maxFileSize = getMaxFileSize();
+        return BoundedInputStream.builder()
+                .setInputStream(input)
+                .setMaxCount(maxFileSize + 1)
+                .setOnMaxCount((max, count) -> {
+                    throw new UploadTooLargeException(maxFileSize);
+                })
+                .get();
+    }
+
+    public long getMaxFileSize() {
+        return fileUploadProperties.getMaxFileSize().toBytes();
+    }
+
+    private static String describeSize(long bytes) {
+        return bytes >= 1024L * 1024 * 1024 && bytes % (1024L * 1024 * 1024) == 0
+                ? bytes / (1024L * 1024 * 1024) + "GB"
+                : bytes / (1024 * 1024) + "MB";
     }
 
     public ValidationResult validateFile(MultipartFile file) {
         logger.info("Starting comprehensive file validation for file: {}",
                 file != null ? file.getOriginalFilename() : "null");
 
+        Timer.Sample sample = uploadMetrics.start();
         ValidationResult result = new ValidationResult();
 
         if (!isAllowedFile(file)) {
             result.setValid(false);
-            result.addError("File type not allowed. Only .txt and .csv files are accepted.");
+            result.addError(typeNotAllowedMessage());
+            uploadMetrics.recordRejection(file == null || file.isEmpty()
+                    ? UploadMetrics.REJECTED_EMPTY
+                    : UploadMetrics.REJECTED_TYPE);
+            uploadMetrics.recordStage(UploadMetrics.STAGE_VALIDATION, sample);
             return result;
         }
 
         if (!isValidFileSize(file)) {
             result.setValid(false);
-            result.addError("File size exceeds the maximum limit of " + (MAX_FILE_SIZE / (1024 * 1024)) + "MB.");
+            result.addError("File size exceeds the maximum limit of " + describeSize(getMaxFileSize()) + ".");
+            uploadMetrics.recordRejection(UploadMetrics.REJECTED_SIZE);
+            uploadMetrics.recordStage(UploadMetrics.STAGE_VALIDATION, sample);
             return result;
         }
 
-        if (!isValidFileContent(file)) {
-            result.setValid(false);
-            result.addError("File content appears to be invalid or corrupted.");
-            return result;
-        }
+        // The first kilobytes are checked by prefixCheck as they arrive, the
+        // whole content by validateContent during the single processing pass
 
-        if (file != null && repository.findByFilenameAndFileSizeAndStatus(file.getOriginalFilename(), file.getSize(),
-                ProcessingStatus.SUCCESS).isPresent()) {
-            result.setValid(false);
-            result.addError("A file with the same name and size has already been successfully processed.");
-            return result;
-        }
+        // Duplicates are detected by content hash in validateContent
 
         result.setValid(true);
         logger.info("File validation completed successfully for file: {}", 
                 file != null ? file.getOriginalFilename() : "null");
+        uploadMetrics.recordStage(UploadMetrics.STAGE_VALIDATION, sample);
         return result;
     }
 }
@@ -0,0 +1,89 @@
+package com.applicantztest.fileupload.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.applicantztest.fileupload.config.DatabaseConfig;
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+
+/**
+ * Purges files once they are older than the maximum age configured for
+ * their status, e.g. failed uploads after 30 days, along with their CSV
+ * profiles and stored content. Rows are deleted in batches, each in its own
+ * short transaction, so a large purge neither holds locks on the table for
+ * long nor loads the rows it deletes.
+ */
+@Service
+public class RetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionService.class);
+
+    private final FileManageService fileManageService;
+    private final UploadMetrics uploadMetrics;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Map<ProcessingStatus, Duration> maxAge;
+
+    public RetentionService(FileManageService fileManageService, UploadMetrics uploadMetrics,
+            FileUploadProperties fileUploadProperties) {
+        DatabaseConfig.Retention retention = fileUploadProperties.getRetention();
+        this.fileManageService = fileManageService;
+        this.uploadMetrics = uploadMetrics;
+        this.enabled = retention.isEnabled();
+        this.batchSize = retention.getBatchSize();
+        this.maxAge = retention.getMaxAge().isEmpty()
+                ? Map.of()
+                : new EnumMap<>(retention.getMaxAge());
+
+        if (enabled && maxAge.isEmpty()) {
+            logger.warn("Retention enabled without any app.retention.max-age, nothing will be purged");
+        } else if (enabled) {
+            logger.info("Retention enabled, purging files older than {}", maxAge);
+        }
+    }
+
+    // the initial delay lets the statistics load first, a purge before would be counted twice
+    @Scheduled(fixedDelayString = "${app.retention.purge-interval:1h}",
+            initialDelayString = "${app.retention.initial-delay:1m}")
+    public void purgeExpired() {
+        if (!enabled) {
+            return;
+        }
+        maxAge.forEach((status, age) -> {
+            try {
+                purge(status, age);
+            } catch (Exception e) {
+                logger.error("Retention purge of {} files failed", status, e);
+            }
+        });
+    }
+
+    /**
+     * Deletes every file with the status processed longer than the given age
+     * ago, batch by batch. Returns the number of files deleted.
+     */
+    public long purge(ProcessingStatus status, Duration age) {
+        LocalDateTime before = LocalDateTime.now().minus(age);
+        long purged = 0;
+        int deleted;
+        do {
+            deleted = fileManageService.purgeBatch(status, before, batchSize);
+            purged += deleted;
+        } while (deleted == batchSize);
+
+        if (purged > 0) {
+            uploadMetrics.recordPurged(status.name(), purged);
+            logger.info("Purged {} {} files processed before {}", purged, status, before);
+        }
+        return purged;
+    }
+}
@@ -0,0 +1,227 @@
+package com.applicantztest.fileupload.service;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.applicantztest.fileupload.dto.ProcessingStat;
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.ProcessingStatsSnapshot;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.repository.FileManageRepo;
+import com.applicantztest.fileupload.repository.ProcessingStatsRepo;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory processing statistics, updated as rows are saved and deleted so
+ * reads never scan {@code file_management}. The counters are flushed to a
+ * single {@code processing_stats} row periodically and on shutdown. On
+ * startup they are reloaded from it only if it was written by a clean
+ * shutdown and no newer rows exist; after a crash, changes since the last
+ * flush are lost, so the counters are recomputed from the table.
+ */
+@Component
+public class StatisticsAggregate {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatisticsAggregate.class);
+
+    private final FileManageRepo fileManageRepo;
+    private final ProcessingStatsRepo statsRepo;
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final Counters totals = new Counters();
+
+    // updates share the read lock, reads and a reconcile take the write lock to see all counters at once
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    // table changes and their recording share the read lock, a reconcile holds the write lock while it queries
+    private final ReadWriteLock changeLock = new ReentrantReadWriteLock();
+    private final AtomicBoolean dirty = new AtomicBoolean();
+
+    public StatisticsAggregate(FileManageRepo fileManageRepo, ProcessingStatsRepo statsRepo,
+            PlatformTransactionManager transactionManager) {
+        this.fileManageRepo = fileManageRepo;
+        this.statsRepo = statsRepo;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        Optional<ProcessingStatsSnapshot> snapshot = statsRepo.findById(ProcessingStatsSnapshot.SNAPSHOT_ID);
+        LocalDateTime latestRow = fileManageRepo.findLatestProcessedAt();
+
+        if (snapshot.isPresent() && snapshot.get().isCleanShutdown()
+                && (latestRow == null || !latestRow.isAfter(snapshot.get().getUpdatedAt()))) {
+            ProcessingStatsSnapshot stats = snapshot.get();
+            replace(stats.getTotalFiles(), stats.getSuccessfulFiles(), stats.getFailedFiles(),
+                    stats.getTotalLines(), stats.getTotalWords());
+            logger.info("Loaded processing statistics snapshot from {}", stats.getUpdatedAt());
+        } else {
+            reconcile();
+        }
+        // from now on the row lags behind the counters until the next clean shutdown
+        write(false);
+    }
+
+    /**
+     * Runs a change to {@code file_management} and records it as one step
+     * with respect to {@link #reconcile}: the change is either in the table
+     * before the reconcile query and recorded before it, or made after it.
+     * The change must commit before this returns.
+     */
+    public <T> T change(Supplier<T> write, Consumer<? super T> record) {
+        changeLock.readLock().lock();
+        try {
+            T result = write.get();
+            record.accept(result);
+            return result;
+        } finally {
+            changeLock.readLock().unlock();
+        }
+    }
+
+    public void recordSaved(FileManagement file) {
+        apply(file.getStatus(), file.getLineCount(), file.getWordCount(), 1);
+    }
+
+    public void recordDeleted(FileManagement file) {
+        recordDeleted(file.getStatus(), file.getLineCount(), file.getWordCount());
+    }
+
+    // for rows deleted in bulk, which are never loaded as entities
+    public void recordDeleted(ProcessingStatus status, Long lineCount, Long wordCount) {
+        apply(status, lineCount, wordCount, -1);
+    }
+
+    /**
+     * Moves a row from its previous status to its current one. Rows only
+     * change status while queued or processing, when they carry no counts.
+     */
+    public void recordStatusChange(ProcessingStatus previousStatus, FileManagement file) {
+        if (previousStatus == file.getStatus()) {
+            return;
+        }
+        apply(previousStatus, 0L, 0L, -1);
+        apply(file.getStatus(), file.getLineCount(), file.getWordCount(), 1);
+    }
+
+    /**
+     * Recomputes every counter from the table, e.g. after bulk deletes. The
+     * totals come from one aggregate query, run while no change is between
+     * its write and its recording, so every row is counted exactly once.
+     */
+    public void reconcile() {
+        // the connection is taken before the lock: changes waiting on it may already hold pooled connections
+        ProcessingStat stats = readOnlyTransaction.execute(transaction -> {
+            changeLock.writeLock().lock();
+            try {
+                ProcessingStat computed = fileManageRepo.computeStatistics();
+                lock.writeLock().lock();
+                try {
+                    replace(computed.getTotalFiles(), computed.getSuccessfulFiles(), computed.getFailedFiles(),
+                            computed.getTotalLines(), computed.getTotalWords());
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                return computed;
+            } finally {
+                changeLock.writeLock().unlock();
+            }
+        });
+        logger.info("Reconciled processing statistics from database: {}", stats);
+    }
+
+    public ProcessingStat snapshot() {
+        lock.writeLock().lock();
+        try {
+            return new ProcessingStat(totals.files.sum(), totals.successful.sum(), totals.failed.sum(),
+                    totals.lines.sum(), totals.words.sum());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.statistics.flush-interval:10s}")
+    public void flush() {
+        if (dirty.getAndSet(false)) {
+            write(false);
+        }
+    }
+
+    // the services recording changes are destroyed first, so nothing changes after this
+    @PreDestroy
+    public void flushOnShutdown() {
+        try {
+            write(true);
+        } catch (Exception e) {
+            logger.warn("Could not flush processing statistics on shutdown", e);
+        }
+    }
+
+    private void write(boolean cleanShutdown) {
+        ProcessingStat stats = snapshot();
+        statsRepo.save(new ProcessingStatsSnapshot(ProcessingStatsSnapshot.SNAPSHOT_ID,
+                stats.getTotalFiles(), stats.getSuccessfulFiles(), stats.getFailedFiles(),
+                stats.getTotalLines(), stats.getTotalWords(), LocalDateTime.now(), cleanShutdown));
+        logger.debug("Flushed processing statistics snapshot: {}", stats);
+    }
+
+    private void apply(ProcessingStatus status, Long lines, Long words, int sign) {
+        lock.readLock().lock();
+        try {
+            totals.add(status, lines, words, sign);
+        } finally {
+            lock.readLock().unlock();
+        }
+        dirty.set(true);
+    }
+
+    private void replace(long files, long successful, long failed, long lines, long words) {
+        totals.files.reset();
+        totals.files.add(files);
+        totals.successful.reset();
+        totals.successful.add(successful);
+        totals.failed.reset();
+        totals.failed.add(failed);
+        totals.lines.reset();
+        totals.lines.add(lines);
+        totals.words.reset();
+        totals.words.add(words);
+        dirty.set(true);
+    }
+
+    private static final class Counters {
+
+        private final LongAdder files = new LongAdder();
+        private final LongAdder successful = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final LongAdder lines = new LongAdder();
+        private final LongAdder words = new LongAdder();
+
+        private void add(ProcessingStatus status, Long lineCount, Long wordCount, int sign) {
+            files.add(sign);
+            if (status == ProcessingStatus.SUCCESS) {
+                successful.add(sign);
+                lines.add(sign * (lineCount != null ? lineCount : 0));
+                words.add(sign * (wordCount != null ? wordCount : 0));
+            } else if (status == ProcessingStatus.FAILED) {
+                failed.add(sign);
+            }
+        }
+    }
+}
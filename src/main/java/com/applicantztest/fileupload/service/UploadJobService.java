@@ -0,0 +1,185 @@
+package com.applicantztest.fileupload.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.dto.JobStatus;
+import com.applicantztest.fileupload.exception.FileManageException;
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.repository.FileManageRepo;
+
+/**
+ * Accepts uploads into a bounded job queue and processes them on the
+ * processing executor. The upload is staged to disk so the request thread
+ * returns as soon as the job is queued; the job id is the id of the
+ * {@code FileManagement} row, which moves PENDING, PROCESSING, then SUCCESS
+ * or FAILED.
+ */
+@Service
+public class UploadJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadJobService.class);
+
+    // Timeout for status subscriptions (10 minutes)
+    private static final long SUBSCRIPTION_TIMEOUT_MS = 10 * 60 * 1000L;
+
+    private final FileManageService fileManageService;
+    private final FileManageRepo repository;
+    private final AsyncTaskExecutor processingExecutor;
+    private final Path stagingDir;
+    private final UploadMetrics uploadMetrics;
+
+    private final Map<Long, List<SseEmitter>> subscribers = new ConcurrentHashMap<>();
+
+    public UploadJobService(FileManageService fileManageService, FileManageRepo repository,
+            @Qualifier("processingExecutor") AsyncTaskExecutor processingExecutor,
+            FileUploadProperties fileUploadProperties, UploadMetrics uploadMetrics) throws IOException {
+        this.fileManageService = fileManageService;
+        this.repository = repository;
+        this.processingExecutor = processingExecutor;
+        this.uploadMetrics = uploadMetrics;
+        this.stagingDir = Files.createDirectories(
+                Paths.get(fileUploadProperties.getUploadDir()).toAbsolutePath().normalize().resolve("staging"));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void failInterruptedJobs() throws IOException {
+        // staged uploads do not survive a restart, so unfinished jobs cannot resume
+        for (FileManagement file : repository.findByStatusIn(
+                EnumSet.of(ProcessingStatus.PENDING, ProcessingStatus.PROCESSING))) {
+            fileManageService.updateStatus(file, ProcessingStatus.FAILED, "Processing interrupted by restart");
+            logger.warn("Marked interrupted job {} for file {} as failed", file.getId(), file.getFilename());
+        }
+        try (DirectoryStream<Path> staged = Files.newDirectoryStream(stagingDir, "job-*")) {
+            for (Path path : staged) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    public JobStatus submit(MultipartFile file) throws IOException, FileManageException {
+        String filename = file.getOriginalFilename();
+        Path staged = Files.createTempFile(stagingDir, "job-", ".upload");
+        file.transferTo(staged);
+
+        FileManagement pending = fileManageService.createPendingFile(filename, file.getSize());
+        Long jobId = pending.getId();
+
+        try {
+            processingExecutor.execute(() -> runJob(jobId, staged));
+        } catch (TaskRejectedException e) {
+            Files.deleteIfExists(staged);
+            fileManageService.deleteFileFromDatabase(jobId);
+            logger.warn("Processing queue is full, rejected job for file: {}", filename);
+            uploadMetrics.recordRejection(UploadMetrics.REJECTED_QUEUE_FULL);
+            throw new FileManageException("Processing queue is full, please retry later", filename, "enqueue", e);
+        }
+
+        logger.info("Queued job {} for file: {}", jobId, filename);
+        return JobStatus.from(pending);
+    }
+
+    public Optional<JobStatus> getStatus(Long jobId) {
+        return fileManageService.getFileDetails(jobId).map(JobStatus::from);
+    }
+
+    /**
+     * Streams the job's status: the current one right away and the final one
+     * when the job finishes. Exactly one of this method and the finished job
+     * sends the final status, whichever removes the emitter from the
+     * subscriber list.
+     */
+    public SseEmitter subscribe(Long jobId) throws IOException {
+        SseEmitter emitter = new SseEmitter(SUBSCRIPTION_TIMEOUT_MS);
+        Optional<JobStatus> status = getStatus(jobId);
+        if (status.isEmpty()) {
+            emitter.completeWithError(new IllegalArgumentException("Job not found: " + jobId));
+            return emitter;
+        }
+        emitter.send(SseEmitter.event().name("status").data(status.get()));
+        if (status.get().isFinished()) {
+            emitter.complete();
+            return emitter;
+        }
+
+        List<SseEmitter> emitters = subscribers.computeIfAbsent(jobId, id -> new CopyOnWriteArrayList<>());
+        emitters.add(emitter);
+        emitter.onCompletion(() -> emitters.remove(emitter));
+        emitter.onTimeout(() -> emitters.remove(emitter));
+
+        // the job may have finished, and notified its subscribers, before the emitter was added
+        Optional<JobStatus> latest = getStatus(jobId);
+        if ((latest.isEmpty() || latest.get().isFinished()) && emitters.remove(emitter)) {
+            if (emitters.isEmpty()) {
+                subscribers.remove(jobId, emitters);
+            }
+            if (latest.isEmpty()) {
+                emitter.complete();
+            } else {
+                sendFinal(emitter, latest.get());
+            }
+        }
+        return emitter;
+    }
+
+    private void runJob(Long jobId, Path staged) {
+        try (InputStream input = Files.newInputStream(staged)) {
+            FileManagement result = fileManageService.processPendingFile(jobId, input);
+            notifySubscribers(JobStatus.from(result));
+        } catch (Exception e) {
+            logger.error("Job {} failed unexpectedly", jobId, e);
+        } finally {
+            try {
+                Files.deleteIfExists(staged);
+            } catch (IOException e) {
+                logger.warn("Could not delete staged upload {}", staged, e);
+            }
+        }
+    }
+
+    private void notifySubscribers(JobStatus status) {
+        List<SseEmitter> emitters = subscribers.remove(status.getJobId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            // a subscriber that saw the job finish may have taken its emitter back already
+            if (emitters.remove(emitter)) {
+                sendFinal(emitter, status);
+            }
+        }
+    }
+
+    private void sendFinal(SseEmitter emitter, JobStatus status) {
+        try {
+            emitter.send(SseEmitter.event().name("status").data(status));
+            emitter.complete();
+        } catch (Exception e) {
+            emitter.completeWithError(e);
+        }
+    }
+}
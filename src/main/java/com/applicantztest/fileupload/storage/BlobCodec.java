@@ -0,0 +1,44 @@
+package com.applicantztest.fileupload.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * How a blob's bytes are stored. The content encoding doubles as the HTTP
+ * {@code Content-Encoding} token, so compressed blobs can be sent as they are.
+ */
+public enum BlobCodec {
+
+    IDENTITY("identity", ""),
+    GZIP("gzip", ".gz");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final String contentEncoding;
+    private final String fileSuffix;
+
+    BlobCodec(String contentEncoding, String fileSuffix) {
+        this.contentEncoding = contentEncoding;
+        this.fileSuffix = fileSuffix;
+    }
+
+    public String getContentEncoding() {
+        return contentEncoding;
+    }
+
+    public String getFileSuffix() {
+        return fileSuffix;
+    }
+
+    public boolean isCompressed() {
+        return this != IDENTITY;
+    }
+
+    /**
+     * Wraps a stream of stored bytes so it yields the original content.
+     */
+    public InputStream decode(InputStream stored) throws IOException {
+        return this == GZIP ? new GZIPInputStream(stored, BUFFER_SIZE) : stored;
+    }
+}
@@ -0,0 +1,79 @@
+package com.applicantztest.fileupload.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+/**
+ * Content-addressed storage for file bodies. Blobs are written through a
+ * {@link BlobWriter} and published under the SHA-256 of their content, so
+ * identical uploads share one stored copy. A store may keep a blob
+ * compressed; {@link #open} always returns the original content, while the
+ * channel and local path give the stored bytes as described by
+ * {@link #codec}.
+ */
+public interface BlobStore {
+
+    BlobWriter newWriter() throws IOException;
+
+    /**
+     * A writer for content of about the given size, or -1 if unknown, so
+     * the store can pick a layout that suits it.
+     */
+    default BlobWriter newWriter(long expectedSize) throws IOException {
+        return newWriter();
+    }
+
+    boolean exists(String key);
+
+    /**
+     * Number of stored bytes, which is less than the content size for a
+     * compressed blob.
+     */
+    long size(String key) throws IOException;
+
+    default BlobCodec codec(String key) throws IOException {
+        return BlobCodec.IDENTITY;
+    }
+
+    InputStream open(String key) throws IOException;
+
+    /**
+     * Opens the stored bytes as a channel. Stores backed by local files
+     * return a {@link java.nio.channels.FileChannel} so callers can use
+     * zero-copy transfers.
+     */
+    default ReadableByteChannel openChannel(String key) throws IOException {
+        return Channels.newChannel(open(key));
+    }
+
+    /**
+     * The local file holding the stored bytes, if the store keeps blobs on
+     * this host.
+     */
+    default Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    /**
+     * Publishes an already written local file under the given key, consuming
+     * the file. Stores on the same file system can move it instead of
+     * copying.
+     */
+    default void importFile(Path source, String key) throws IOException {
+        try (BlobWriter writer = newWriter()) {
+            try (OutputStream output = writer.getOutputStream()) {
+                Files.copy(source, output);
+            }
+            writer.commit(key);
+        }
+        Files.deleteIfExists(source);
+    }
+
+    boolean delete(String key) throws IOException;
+}
@@ -0,0 +1,20 @@
+package com.applicantztest.fileupload.storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A pending blob. Bytes written to {@link #getOutputStream()} only become
+ * visible once {@link #commit(String)} publishes them under their key;
+ * closing an uncommitted writer discards what was written.
+ */
+public interface BlobWriter extends Closeable {
+
+    OutputStream getOutputStream();
+
+    void commit(String key) throws IOException;
+
+    @Override
+    void close() throws IOException;
+}
@@ -0,0 +1,234 @@
+package com.applicantztest.fileupload.storage;
+
+import java.io.BufferedOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.applicantztest.fileupload.config.DatabaseConfig.Compression;
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+
+/**
+ * Stores blobs as files under {@code app.upload-dir}. A blob with key
+ * {@code abcdef...} lives at {@code blobs/ab/cd/abcdef...}, or at
+ * {@code abcdef....gz} when its sample compressed well; writes go to
+ * {@code tmp/} first and are moved into place on commit. Imported files are
+ * moved in uncompressed.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.storage", name = "type", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemBlobStore implements BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSystemBlobStore.class);
+
+    private static final Pattern KEY_PATTERN = Pattern.compile("[0-9a-f]{64}");
+
+    // Compressed variants are looked up first
+    private static final BlobCodec[] CODECS = { BlobCodec.GZIP, BlobCodec.IDENTITY };
+
+    private final Path blobDir;
+    private final Path tmpDir;
+    private final Compression compression;
+
+    public FileSystemBlobStore(FileUploadProperties fileUploadProperties) throws IOException {
+        Path root = Paths.get(fileUploadProperties.getUploadDir()).toAbsolutePath().normalize();
+        this.blobDir = Files.createDirectories(root.resolve("blobs"));
+        this.tmpDir = Files.createDirectories(root.resolve("tmp"));
+        this.compression = fileUploadProperties.getStorage().getCompression();
+        logger.info("File system blob store rooted at {} (compression: {})", root,
+                compression.isEnabled()
+                        ? "gzip level " + compression.getLevel() + " up to " + compression.getMaxSize()
+                        : "off");
+    }
+
+    @Override
+    public BlobWriter newWriter() throws IOException {
+        return newWriter(-1);
+    }
+
+    // content of unknown size comes from endpoints bounded by app.max-file-size
+    @Override
+    public BlobWriter newWriter(long expectedSize) throws IOException {
+        boolean compress = compression.isEnabled() && expectedSize <= compression.getMaxSize().toBytes();
+        return new FileBlobWriter(Files.createTempFile(tmpDir, "blob-", ".part"), compress);
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return stored(key) != null;
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        return Files.size(existing(key));
+    }
+
+    @Override
+    public BlobCodec codec(String key) throws IOException {
+        return codecOf(existing(key));
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        Path path = existing(key);
+        return codecOf(path).decode(Files.newInputStream(path));
+    }
+
+    @Override
+    public ReadableByteChannel openChannel(String key) throws IOException {
+        return FileChannel.open(existing(key), StandardOpenOption.READ);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.ofNullable(stored(key));
+    }
+
+    @Override
+    public void importFile(Path source, String key) throws IOException {
+        if (exists(key)) {
+            Files.deleteIfExists(source);
+            logger.debug("Blob {} already stored, discarded imported file", key);
+            return;
+        }
+        // imports are moved as is, never compressed: rewriting a multi-GB file would make the
+        // import as slow as copying it, and ranges on a gzip blob cost a decode from the start
+        Path target = resolve(key, BlobCodec.IDENTITY);
+        Files.createDirectories(target.getParent());
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            // source is on another file system, copy it next to the blobs first
+            Path tempFile = Files.createTempFile(tmpDir, "blob-", ".part");
+            try {
+                Files.copy(source, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempFile);
+            }
+            Files.deleteIfExists(source);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(source);
+        }
+        logger.debug("Imported blob {}", key);
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        boolean deleted = false;
+        for (BlobCodec codec : CODECS) {
+            deleted |= Files.deleteIfExists(resolve(key, codec));
+        }
+        if (deleted) {
+            logger.debug("Deleted blob {}", key);
+        }
+        return deleted;
+    }
+
+    Path resolve(String key, BlobCodec codec) {
+        if (key == null || !KEY_PATTERN.matcher(key).matches()) {
+            throw new IllegalArgumentException("Invalid blob key: " + key);
+        }
+        return blobDir.resolve(key.substring(0, 2)).resolve(key.substring(2, 4))
+                .resolve(key + codec.getFileSuffix());
+    }
+
+    // The stored variant of the blob, or null
+    private Path stored(String key) {
+        for (BlobCodec codec : CODECS) {
+            Path path = resolve(key, codec);
+            if (Files.isRegularFile(path)) {
+                return path;
+            }
+        }
+        return null;
+    }
+
+    private Path existing(String key) throws FileNotFoundException {
+        Path path = stored(key);
+        if (path == null) {
+            throw new FileNotFoundException("Blob not found: " + key);
+        }
+        return path;
+    }
+
+    private BlobCodec codecOf(Path path) {
+        return path.getFileName().toString().endsWith(BlobCodec.GZIP.getFileSuffix())
+                ? BlobCodec.GZIP
+                : BlobCodec.IDENTITY;
+    }
+
+    private int sampleSize() {
+        return Math.toIntExact(compression.getSampleSize().toBytes());
+    }
+
+    private final class FileBlobWriter implements BlobWriter {
+
+        private final Path tempFile;
+        private final OutputStream output;
+        private final SampledCompressionOutputStream compressing;
+        private boolean committed;
+
+        FileBlobWriter(Path tempFile, boolean compress) throws IOException {
+            this.tempFile = tempFile;
+            OutputStream file = new BufferedOutputStream(Files.newOutputStream(tempFile));
+            this.compressing = compress
+                    ? new SampledCompressionOutputStream(file, sampleSize(), compression.getLevel(),
+                            compression.getMinSavings())
+                    : null;
+            this.output = compressing != null ? compressing : file;
+        }
+
+        @Override
+        public OutputStream getOutputStream() {
+            return output;
+        }
+
+        @Override
+        public void commit(String key) throws IOException {
+            output.close();
+            BlobCodec codec = compressing != null ? compressing.getCodec() : BlobCodec.IDENTITY;
+            Path target = resolve(key, codec);
+
+            if (exists(key)) {
+                // identical content is already stored
+                Files.deleteIfExists(tempFile);
+                logger.debug("Blob {} already stored, discarded duplicate write", key);
+            } else {
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    Files.deleteIfExists(tempFile);
+                }
+                logger.debug("Stored blob {} ({})", key, codec.getContentEncoding());
+            }
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (!committed) {
+                output.close();
+                Files.deleteIfExists(tempFile);
+            }
+        }
+    }
+}
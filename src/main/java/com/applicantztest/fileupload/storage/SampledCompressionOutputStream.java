@@ -0,0 +1,117 @@
+package com.applicantztest.fileupload.storage;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Holds back the first bytes written, deflates that sample once to estimate
+ * the ratio, and then writes the whole stream as GZIP only if the sample
+ * shrank enough. Content that does not compress is written as is and costs
+ * nothing to read back.
+ */
+class SampledCompressionOutputStream extends OutputStream {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final OutputStream target;
+    private final int level;
+    private final double minSavings;
+
+    private byte[] sample;
+    private int sampleLength;
+    private OutputStream output;
+    private BlobCodec codec;
+
+    SampledCompressionOutputStream(OutputStream target, int sampleSize, int level, double minSavings) {
+        this.target = target;
+        this.sample = new byte[sampleSize];
+        this.level = level;
+        this.minSavings = minSavings;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] buffer, int offset, int length) throws IOException {
+        if (output == null) {
+            int copied = Math.min(length, sample.length - sampleLength);
+            System.arraycopy(buffer, offset, sample, sampleLength, copied);
+            sampleLength += copied;
+            if (sampleLength < sample.length) {
+                return;
+            }
+            choose();
+            offset += copied;
+            length -= copied;
+        }
+        if (length > 0) {
+            output.write(buffer, offset, length);
+        }
+    }
+
+    // held back sample bytes are written once the codec is chosen
+    @Override
+    public void flush() throws IOException {
+        if (output != null) {
+            output.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (output == null) {
+            choose();
+        }
+        output.close();
+    }
+
+    /**
+     * The codec the content was written with, known once the sample is full
+     * or the stream is closed.
+     */
+    BlobCodec getCodec() {
+        return codec;
+    }
+
+    private void choose() throws IOException {
+        codec = estimateSavings(sample, sampleLength, level) >= minSavings ? BlobCodec.GZIP : BlobCodec.IDENTITY;
+        output = codec == BlobCodec.GZIP ? new LeveledGzipOutputStream(target, level) : target;
+        output.write(sample, 0, sampleLength);
+        sample = null;
+    }
+
+    /**
+     * Fraction of the sample that deflating at the given level saves.
+     */
+    static double estimateSavings(byte[] sample, int length, int level) {
+        if (length == 0) {
+            return 0;
+        }
+        Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(sample, 0, length);
+            deflater.finish();
+            byte[] scratch = new byte[8 * 1024];
+            long compressed = 0;
+            while (!deflater.finished()) {
+                compressed += deflater.deflate(scratch);
+            }
+            return 1 - (double) compressed / length;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static final class LeveledGzipOutputStream extends GZIPOutputStream {
+
+        LeveledGzipOutputStream(OutputStream target, int level) throws IOException {
+            super(target, BUFFER_SIZE);
+            def.setLevel(level);
+        }
+    }
+}
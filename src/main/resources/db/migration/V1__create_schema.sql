@@ -0,0 +1,61 @@
+-- Schema as mapped by the entities in com.applicantztest.fileupload.model
+
+CREATE SEQUENCE file_management_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE csv_profile_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE csv_profile (
+    id                BIGINT      NOT NULL,
+    record_count      BIGINT      NOT NULL,
+    delimiter         VARCHAR(1)  NOT NULL,
+    has_header        BOOLEAN     NOT NULL,
+    min_fields        INTEGER     NOT NULL,
+    max_fields        INTEGER     NOT NULL,
+    irregular_records BIGINT      NOT NULL,
+    truncated_columns BOOLEAN     NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE csv_column_stats (
+    profile_id        BIGINT       NOT NULL,
+    column_index      INTEGER      NOT NULL,
+    column_name       VARCHAR(255),
+    null_count        BIGINT       NOT NULL,
+    value_count       BIGINT       NOT NULL,
+    numeric_values    BOOLEAN      NOT NULL,
+    min_value         VARCHAR(255),
+    max_value         VARCHAR(255),
+    distinct_estimate BIGINT       NOT NULL,
+    PRIMARY KEY (profile_id, column_index),
+    CONSTRAINT fk_csv_column_stats_profile FOREIGN KEY (profile_id) REFERENCES csv_profile (id)
+);
+
+CREATE TABLE file_management (
+    id             BIGINT        NOT NULL,
+    filename       VARCHAR(255)  NOT NULL,
+    file_type      VARCHAR(255)  NOT NULL,
+    file_size      BIGINT        NOT NULL,
+    line_count     BIGINT        NOT NULL,
+    word_count     BIGINT        NOT NULL,
+    processed_at   TIMESTAMP(6)  NOT NULL,
+    status         ENUM ('FAILED', 'PENDING', 'PROCESSING', 'SUCCESS') NOT NULL,
+    error_message  VARCHAR(1000),
+    content_hash   VARCHAR(64),
+    encoding       ENUM ('ASCII', 'BINARY', 'LEGACY_8BIT', 'UTF_16', 'UTF_8'),
+    csv_profile_id BIGINT,
+    PRIMARY KEY (id),
+    CONSTRAINT ux_file_management_content_hash UNIQUE (content_hash),
+    CONSTRAINT ux_file_management_csv_profile UNIQUE (csv_profile_id),
+    CONSTRAINT fk_file_management_csv_profile FOREIGN KEY (csv_profile_id) REFERENCES csv_profile (id)
+);
+
+CREATE TABLE processing_stats (
+    id               BIGINT       NOT NULL,
+    total_files      BIGINT       NOT NULL,
+    successful_files BIGINT       NOT NULL,
+    failed_files     BIGINT       NOT NULL,
+    total_lines      BIGINT       NOT NULL,
+    total_words      BIGINT       NOT NULL,
+    updated_at       TIMESTAMP(6) NOT NULL,
+    clean_shutdown   BOOLEAN      NOT NULL,
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,14 @@
+-- Indexes for the FileManageRepo access patterns
+
+-- History pages: newest first with an (processed_at, id) keyset cursor; also
+-- MAX(processed_at) and retention by age
+CREATE INDEX ix_file_management_processed_at ON file_management (processed_at DESC, id DESC);
+
+-- History filtered by status, status counts and the job recovery scan
+CREATE INDEX ix_file_management_status ON file_management (status, processed_at DESC, id DESC);
+
+-- History filtered by file type
+CREATE INDEX ix_file_management_file_type ON file_management (file_type, processed_at DESC, id DESC);
+
+-- Lookups by filename, alone or with size and status
+CREATE INDEX ix_file_management_filename_size_status ON file_management (filename, file_size, status);
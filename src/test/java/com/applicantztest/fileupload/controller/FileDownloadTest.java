@@ -0,0 +1,181 @@
+package com.applicantztest.fileupload.controller;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.service.FileManageService;
+import com.applicantztest.fileupload.storage.BlobStore;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class FileDownloadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private FileManageService fileManageService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Test
+    void fullDownloadReturnsContentWithContentHashEtag() throws Exception {
+        for (Upload upload : uploads()) {
+            mockMvc.perform(get("/download/{id}", upload.id))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string(HttpHeaders.ETAG, "\"" + upload.hash + "\""))
+                    .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                    .andExpect(content().bytes(upload.content));
+        }
+    }
+
+    @Test
+    void rangeReturnsPartialContent() throws Exception {
+        for (Upload upload : uploads()) {
+            int length = upload.content.length;
+            mockMvc.perform(get("/download/{id}", upload.id).header(HttpHeaders.RANGE, "bytes=100-199"))
+                    .andExpect(status().isPartialContent())
+                    .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 100-199/" + length))
+                    .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 100))
+                    .andExpect(content().bytes(Arrays.copyOfRange(upload.content, 100, 200)));
+
+            mockMvc.perform(get("/download/{id}", upload.id).header(HttpHeaders.RANGE, "bytes=-50"))
+                    .andExpect(status().isPartialContent())
+                    .andExpect(header().string(HttpHeaders.CONTENT_RANGE,
+                            "bytes " + (length - 50) + "-" + (length - 1) + "/" + length))
+                    .andExpect(content().bytes(Arrays.copyOfRange(upload.content, length - 50, length)));
+        }
+    }
+
+    @Test
+    void rangePastTheEndIsNotSatisfiable() throws Exception {
+        for (Upload upload : uploads()) {
+            int length = upload.content.length;
+            mockMvc.perform(get("/download/{id}", upload.id).header(HttpHeaders.RANGE, "bytes=" + length + "-"))
+                    .andExpect(status().isRequestedRangeNotSatisfiable())
+                    .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */" + length));
+        }
+    }
+
+    @Test
+    void matchingIfNoneMatchIsNotModified() throws Exception {
+        Upload upload = upload(compressibleContent());
+
+        mockMvc.perform(get("/download/{id}", upload.id).header(HttpHeaders.IF_NONE_MATCH, "\"" + upload.hash + "\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+        mockMvc.perform(get("/download/{id}", upload.id).header(HttpHeaders.IF_NONE_MATCH, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(upload.content));
+    }
+
+    @Test
+    void staleIfRangeReturnsTheWholeFile() throws Exception {
+        Upload upload = upload(compressibleContent());
+
+        mockMvc.perform(get("/download/{id}", upload.id)
+                .header(HttpHeaders.RANGE, "bytes=0-9")
+                .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(content().bytes(upload.content));
+        mockMvc.perform(get("/download/{id}", upload.id)
+                .header(HttpHeaders.RANGE, "bytes=0-9")
+                .header(HttpHeaders.IF_RANGE, "\"" + upload.hash + "\""))
+                .andExpect(status().isPartialContent())
+                .andExpect(content().bytes(Arrays.copyOf(upload.content, 10)));
+    }
+
+    @Test
+    void encodedAndDecodedRepresentationsHaveTheirOwnEtags() throws Exception {
+        Upload upload = upload(compressibleContent());
+        assertEquals("gzip", blobStore.codec(upload.hash).getContentEncoding(), "stored codec");
+        String encodedEtag = "\"" + upload.hash + "-gzip\"";
+
+        MvcResult encoded = mockMvc.perform(get("/download/{id}", upload.id)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.ETAG, encodedEtag))
+                .andExpect(header().string(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING))
+                .andReturn();
+        try (GZIPInputStream decoded = new GZIPInputStream(
+                new ByteArrayInputStream(encoded.getResponse().getContentAsByteArray()))) {
+            assertArrayEquals(upload.content, decoded.readAllBytes(), "decoded body");
+        }
+
+        // a validator of one representation does not match the other
+        mockMvc.perform(get("/download/{id}", upload.id).header(HttpHeaders.IF_NONE_MATCH, encodedEtag))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(content().bytes(upload.content));
+        mockMvc.perform(get("/download/{id}", upload.id)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.IF_NONE_MATCH, encodedEtag))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/download/{id}", upload.id)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0")
+                .header(HttpHeaders.IF_NONE_MATCH, "\"" + upload.hash + "\""))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void unknownFileIsNotFound() throws Exception {
+        mockMvc.perform(get("/download/{id}", Long.MAX_VALUE))
+                .andExpect(status().isNotFound());
+    }
+
+    // a compressible file, which is stored gzipped, and one that may be stored as is
+    private Upload[] uploads() throws Exception {
+        return new Upload[] { upload(compressibleContent()), upload(randomContent()) };
+    }
+
+    private Upload upload(byte[] content) throws Exception {
+        FileManagement saved = fileManageService.processAndSave("download-test.txt", content.length,
+                new ByteArrayInputStream(content));
+        assertEquals(ProcessingStatus.SUCCESS, saved.getStatus(), saved.getErrorMessage());
+        return new Upload(saved.getId(), saved.getContentHash(), content);
+    }
+
+    private static byte[] compressibleContent() {
+        String id = UUID.randomUUID().toString();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            text.append("line ").append(i).append(" of download test ").append(id).append('\n');
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] randomContent() {
+        Random random = new Random();
+        byte[] content = new byte[64 * 1024];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) (i % 80 == 79 ? '\n' : ' ' + random.nextInt(95));
+        }
+        return content;
+    }
+
+    private record Upload(Long id, String hash, byte[] content) {
+    }
+}
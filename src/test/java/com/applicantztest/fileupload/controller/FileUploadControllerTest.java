@@ -0,0 +1,42 @@
+package com.applicantztest.fileupload.controller;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class FileUploadControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void uploadFormAcceptsTheAllowedTypes() throws Exception {
+        mockMvc.perform(get("/"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("acceptedExtensions", List.of(".txt", ".csv")))
+                .andExpect(content().string(containsString("accept=\".txt,.csv\"")))
+                .andExpect(content().string(containsString("const allowedTypes = [\".txt\",\".csv\"];")));
+    }
+
+    @Test
+    void historyFiltersByTheAllowedTypes() throws Exception {
+        mockMvc.perform(get("/history").param("type", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("fileTypes", List.of("txt", "csv")))
+                .andExpect(content().string(containsString("<option value=\"txt\">txt</option>")))
+                .andExpect(content().string(
+                        containsString("<option value=\"csv\" selected=\"selected\">csv</option>")));
+    }
+}
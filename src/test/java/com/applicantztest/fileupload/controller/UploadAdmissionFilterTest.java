@@ -0,0 +1,101 @@
+package com.applicantztest.fileupload.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import com.applicantztest.fileupload.config.DatabaseConfig;
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+import com.applicantztest.fileupload.service.AdmissionService;
+import com.applicantztest.fileupload.service.AdmissionService.Admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UploadAdmissionFilterTest {
+
+    private final AdmissionService admissionService;
+    private final UploadAdmissionFilter filter;
+
+    UploadAdmissionFilterTest() {
+        FileUploadProperties properties = new FileUploadProperties();
+        DatabaseConfig.Admission admission = properties.getAdmission();
+        admission.setMemoryBudget(DataSize.ofMegabytes(1));
+        admission.setMaxRequestCost(DataSize.ofMegabytes(1));
+        admission.setMaxConcurrent(Map.of("bulk", 1));
+        admission.setMaxWait(Duration.ofMillis(10));
+        admission.setRetryAfter(Duration.ofSeconds(7));
+        admissionService = new AdmissionService(new UploadMetrics(new SimpleMeterRegistry()), properties);
+        filter = new UploadAdmissionFilter(admissionService);
+    }
+
+    @Test
+    void fullEndpointAnswers429WithRetryAfter() throws Exception {
+        Admission held = admissionService.admit("bulk", 1024);
+
+        MockHttpServletResponse response = upload("/api/files/bulk", 1024);
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+        assertEquals("7", response.getHeader(HttpHeaders.RETRY_AFTER));
+
+        held.release();
+        assertEquals(HttpStatus.OK.value(), upload("/api/files/bulk", 1024).getStatus());
+    }
+
+    @Test
+    void exhaustedBudgetAnswers503WithRetryAfter() throws Exception {
+        Admission held = admissionService.admit("stream", 1024 * 1024);
+
+        MockHttpServletResponse response = upload("/api/files/bulk", 1024);
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), response.getStatus());
+        assertEquals("7", response.getHeader(HttpHeaders.RETRY_AFTER));
+
+        held.release();
+        assertEquals(HttpStatus.OK.value(), upload("/api/files/bulk", 1024).getStatus());
+    }
+
+    @Test
+    void admittedRequestReleasesItsShareWhenDone() throws Exception {
+        MockFilterChain chain = new MockFilterChain();
+        filter.doFilter(request("/api/files/bulk", 1024), new MockHttpServletResponse(), chain);
+        assertNotNull(chain.getRequest(), "passed on");
+
+        // the only permit of the endpoint is free again
+        assertEquals(HttpStatus.OK.value(), upload("/api/files/bulk", 1024).getStatus());
+    }
+
+    @Test
+    void otherRequestsAreNotAdmitted() throws Exception {
+        Admission held = admissionService.admit("bulk", 1024);
+        MockHttpServletRequest request = request("/api/files/bulk", 1024);
+        request.setMethod("GET");
+
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        assertEquals(HttpStatus.OK.value(), response.getStatus());
+        assertNull(response.getHeader(HttpHeaders.RETRY_AFTER));
+        held.release();
+    }
+
+    private MockHttpServletResponse upload(String path, int contentLength) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request(path, contentLength), response, new MockFilterChain());
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path, int contentLength) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setContent(new byte[contentLength]);
+        return request;
+    }
+}
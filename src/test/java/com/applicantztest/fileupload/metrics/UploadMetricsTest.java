@@ -0,0 +1,46 @@
+package com.applicantztest.fileupload.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UploadMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final UploadMetrics uploadMetrics = new UploadMetrics(registry);
+
+    @Test
+    void fixedTagsAreReportedBeforeTheFirstEvent() {
+        assertEquals(6, registry.find("upload.rejections").counters().size(), "rejection reasons");
+        assertEquals(6, registry.find("upload.stage.duration").timers().size(), "pipeline stages");
+
+        uploadMetrics.registerStages(List.of("csv"));
+        assertNotNull(registry.find("upload.stage.duration").tag("stage", "csv").timer(), "processor stage");
+    }
+
+    @Test
+    void eventsOfOneTagAddUpOnOneMeter() {
+        uploadMetrics.recordRejection(UploadMetrics.REJECTED_DUPLICATE);
+        uploadMetrics.recordRejection(UploadMetrics.REJECTED_DUPLICATE);
+        uploadMetrics.recordPurged("SUCCESS", 3);
+        uploadMetrics.recordPurged("SUCCESS", 2);
+        uploadMetrics.recordAdmission("bulk", UploadMetrics.ADMITTED);
+        uploadMetrics.recordAdmission("bulk", UploadMetrics.ADMISSION_MEMORY);
+        uploadMetrics.recordAdmission("bulk", UploadMetrics.ADMITTED);
+        uploadMetrics.recordStage("csv", 1_000_000);
+        uploadMetrics.recordStage("csv", 1_000_000);
+
+        assertEquals(2, registry.get("upload.rejections").tag("reason", "duplicate").counter().count());
+        assertEquals(5, registry.get("file.retention.purged").tag("status", "SUCCESS").counter().count());
+        assertEquals(2, registry.get("upload.admission.requests").tag("endpoint", "bulk")
+                .tag("outcome", UploadMetrics.ADMITTED).counter().count());
+        assertEquals(1, registry.get("upload.admission.requests").tag("endpoint", "bulk")
+                .tag("outcome", UploadMetrics.ADMISSION_MEMORY).counter().count());
+        assertEquals(2, registry.get("upload.stage.duration").tag("stage", "csv").timer().count());
+    }
+}
@@ -0,0 +1,122 @@
+package com.applicantztest.fileupload.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.applicantztest.fileupload.model.TextEncoding;
+
+class ContentScannerTest {
+
+    @Test
+    void detectsEncodings() {
+        assertEquals(TextEncoding.ASCII, scan(utf8("plain text, long enough for whole words\n"), 64).getEncoding());
+        assertEquals(TextEncoding.UTF_8, scan(utf8("café 日本語 😀"), 64).getEncoding());
+        assertEquals(TextEncoding.UTF_8, scan(utf8("\uFEFFwith a UTF-8 byte order mark"), 64).getEncoding());
+        assertEquals(TextEncoding.UTF_16, scan("\uFEFFtext".getBytes(StandardCharsets.UTF_16BE), 64).getEncoding());
+        assertEquals(TextEncoding.UTF_16, scan("\uFEFFtext".getBytes(StandardCharsets.UTF_16LE), 64).getEncoding());
+        assertEquals(TextEncoding.LEGACY_8BIT, scan("café crème".getBytes(StandardCharsets.ISO_8859_1), 64)
+                .getEncoding());
+        assertEquals(TextEncoding.BINARY, scan(new byte[] { 'a', 0, 'b' }, 64).getEncoding());
+        assertEquals(TextEncoding.BINARY, scan(utf8("eight by\u0000tes at a time"), 64).getEncoding());
+    }
+
+    @Test
+    void rejectsOverlongSurrogateAndTruncatedSequences() {
+        byte[][] malformed = {
+                { (byte) 0xC0, (byte) 0xAF },
+                { (byte) 0xE0, (byte) 0x80, (byte) 0xAF },
+                { (byte) 0xED, (byte) 0xA0, (byte) 0x80 },
+                { (byte) 0xF4, (byte) 0x90, (byte) 0x80, (byte) 0x80 },
+                { 'a', (byte) 0xE2, (byte) 0x82 },
+                { (byte) 0x80, 'a' },
+        };
+        for (byte[] content : malformed) {
+            ContentScanner scanner = scan(content, 64);
+            assertTrue(scanner.getMalformedCount() > 0);
+            assertEquals(TextEncoding.LEGACY_8BIT, scanner.getEncoding());
+        }
+    }
+
+    @Test
+    void laneChecksMatchByteChecks() {
+        Random random = new Random(11);
+        for (int i = 0; i < 100_000; i++) {
+            // ASCII words, with small values common enough to hit every case
+            long word = random.nextLong() & 0x7F7F7F7F7F7F7F7FL;
+            if (random.nextBoolean()) {
+                long small = random.nextLong() & random.nextLong() & 0x1F1F1F1F1F1F1F1FL;
+                word &= small | 0x6060606060606060L & random.nextLong();
+            }
+            long controls = 0;
+            long zeros = 0;
+            for (int lane = 0; lane < 8; lane++) {
+                int b = (int) (word >>> (lane * 8)) & 0xFF;
+                long highBit = 0x80L << (lane * 8);
+                controls |= b < 0x20 ? highBit : 0;
+                zeros |= b == 0 ? highBit : 0;
+            }
+            assertEquals(controls, ContentScanner.controlLanes(word), Long.toHexString(word));
+            assertEquals(zeros, ContentScanner.zeroLanes(word), Long.toHexString(word));
+        }
+    }
+
+    @Test
+    void matchesStringDecodeForRandomContent() {
+        Random random = new Random(5);
+        String[] alphabet = { "plain ascii words ", "\n", "\r\n", "\t", "\u0001", "\u001F", "é", "中", "😀", "~" };
+
+        for (int sample = 0; sample < 200; sample++) {
+            StringBuilder text = new StringBuilder();
+            int tokens = random.nextInt(300);
+            for (int i = 0; i < tokens; i++) {
+                text.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            String expected = text.toString();
+            byte[] bytes = utf8(expected);
+            long controls = expected.chars().filter(c -> c < 32 && c != 9 && c != 10 && c != 13).count();
+
+            for (int chunkSize : new int[] { 1, 7, 64, Integer.MAX_VALUE }) {
+                ContentScanner scanner = scan(bytes, chunkSize);
+                assertEquals(expected.length(), scanner.getCharCount(), "chars in chunks of " + chunkSize);
+                assertEquals(controls, scanner.getControlCount(), "controls in chunks of " + chunkSize);
+                assertEquals(0, scanner.getMalformedCount());
+            }
+
+            ContentScanner direct = new ContentScanner();
+            direct.accept(ByteBuffer.allocateDirect(bytes.length).put(bytes).flip());
+            direct.complete();
+            assertEquals(expected.length(), direct.getCharCount(), "chars from a direct buffer");
+            assertEquals(controls, direct.getControlCount(), "controls from a direct buffer");
+        }
+    }
+
+    @Test
+    void multiByteCharacterMayStraddleChunks() {
+        byte[] content = utf8("abcdefg😀hijklmnop");
+        for (int chunkSize = 1; chunkSize <= content.length; chunkSize++) {
+            ContentScanner scanner = scan(content, chunkSize);
+            assertEquals(TextEncoding.UTF_8, scanner.getEncoding());
+            assertFalse(scanner.getMalformedCount() > 0);
+        }
+    }
+
+    private static byte[] utf8(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static ContentScanner scan(byte[] content, int chunkSize) {
+        ContentScanner scanner = new ContentScanner();
+        for (int offset = 0; offset < content.length; offset += chunkSize) {
+            scanner.accept(content, offset, Math.min(chunkSize, content.length - offset));
+        }
+        scanner.complete();
+        return scanner;
+    }
+}
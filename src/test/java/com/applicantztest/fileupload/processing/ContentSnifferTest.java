@@ -0,0 +1,38 @@
+package com.applicantztest.fileupload.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+class ContentSnifferTest {
+
+    @Test
+    void recognisesBinaryFormatsThatStartLikeText() {
+        assertEquals("PDF", sniff("%PDF-1.7\n%âãÏÓ\n".getBytes(StandardCharsets.ISO_8859_1)));
+        assertEquals("ZIP", sniff(new byte[] { 'P', 'K', 3, 4, 20, 0, 6, 0 }));
+        assertEquals("GZIP", sniff(new byte[] { 0x1F, (byte) 0x8B, 8, 0 }));
+        assertEquals("JPEG", sniff(new byte[] { (byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0 }));
+        assertEquals("SQLite", sniff("SQLite format 3\0".getBytes(StandardCharsets.ISO_8859_1)));
+    }
+
+    @Test
+    void leavesTextAndShortPrefixesAlone() {
+        assertNull(sniff("id,name\n1,PK\n".getBytes(StandardCharsets.UTF_8)));
+        assertNull(sniff("%PDF".getBytes(StandardCharsets.UTF_8)));
+        assertNull(sniff(new byte[0]));
+    }
+
+    @Test
+    void onlyLooksAtTheGivenLength() {
+        byte[] buffer = "%PDF-1.4".getBytes(StandardCharsets.US_ASCII);
+        assertNull(ContentSniffer.detectBinaryFormat(buffer, 3));
+        assertEquals("PDF", ContentSniffer.detectBinaryFormat(buffer, 5));
+    }
+
+    private static String sniff(byte[] prefix) {
+        return ContentSniffer.detectBinaryFormat(prefix, prefix.length);
+    }
+}
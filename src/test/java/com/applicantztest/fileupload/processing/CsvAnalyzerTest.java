@@ -0,0 +1,113 @@
+package com.applicantztest.fileupload.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.applicantztest.fileupload.model.CsvColumnStats;
+import com.applicantztest.fileupload.model.CsvProfile;
+
+class CsvAnalyzerTest {
+
+    private static final String QUOTED_CSV = "id,name,note\r\n"
+            + "1,\"Smith, John\",\"first line\r\nsecond line\"\r\n"
+            + "2,\"Jane \"\"JJ\"\" Doe\",\r\n"
+            + "\r\n"
+            + "10,Bob,plain\r\n";
+
+    @Test
+    void quotedFieldsMayContainDelimitersQuotesAndLineBreaks() {
+        CsvAnalyzer analyzer = analyze(QUOTED_CSV, Integer.MAX_VALUE);
+        CsvProfile profile = analyzer.getProfile();
+
+        assertEquals(4, analyzer.getRecordCount());
+        assertEquals(3, profile.getRecordCount());
+        assertEquals(",", profile.getDelimiter());
+        assertTrue(profile.isHeaderPresent());
+        assertEquals(3, profile.getMinFieldsPerRecord());
+        assertEquals(3, profile.getMaxFieldsPerRecord());
+        assertEquals(0, profile.getIrregularRecords());
+
+        List<CsvColumnStats> columns = profile.getColumns();
+        assertEquals(3, columns.size());
+
+        CsvColumnStats id = columns.get(0);
+        assertEquals("id", id.getName());
+        assertTrue(id.isNumeric());
+        assertEquals("1", id.getMinValue());
+        assertEquals("10", id.getMaxValue());
+        assertEquals(3, id.getDistinctEstimate());
+
+        CsvColumnStats name = columns.get(1);
+        assertFalse(name.isNumeric());
+        assertEquals("Bob", name.getMinValue());
+        assertEquals("Smith, John", name.getMaxValue());
+
+        CsvColumnStats note = columns.get(2);
+        assertEquals(1, note.getNullCount());
+        assertEquals(2, note.getValueCount());
+        assertEquals("first line\r\nsecond line", note.getMinValue());
+        assertEquals(1.0 / 3, note.getNullRate(), 1e-9);
+    }
+
+    @Test
+    void resultDoesNotDependOnChunkBoundaries() {
+        CsvProfile whole = analyze(QUOTED_CSV, Integer.MAX_VALUE).getProfile();
+        for (int chunkSize = 1; chunkSize <= 7; chunkSize++) {
+            assertEquals(whole, analyze(QUOTED_CSV, chunkSize).getProfile(), "chunk size " + chunkSize);
+        }
+    }
+
+    @Test
+    void detectsSemicolonDelimiterAndMissingHeader() {
+        String csv = "1;2,5;a\n2;3,5;b\n3;4,5;c\n";
+        CsvProfile profile = analyze(csv, Integer.MAX_VALUE).getProfile();
+
+        assertEquals(";", profile.getDelimiter());
+        assertFalse(profile.isHeaderPresent());
+        assertEquals(3, profile.getRecordCount());
+        assertNull(profile.getColumns().get(0).getName());
+        assertEquals("1", profile.getColumns().get(0).getMinValue());
+        // a comma inside the field is not a delimiter here
+        assertFalse(profile.getColumns().get(1).isNumeric());
+    }
+
+    @Test
+    void countsRecordsWithDifferentFieldCounts() {
+        CsvProfile profile = analyze("a,b,c\n1,2,3\n4,5\n6,7,8,9\n", Integer.MAX_VALUE).getProfile();
+
+        assertEquals(2, profile.getMinFieldsPerRecord());
+        assertEquals(4, profile.getMaxFieldsPerRecord());
+        assertEquals(2, profile.getIrregularRecords());
+        assertEquals(4, profile.getColumns().size());
+        assertNull(profile.getColumns().get(3).getName());
+    }
+
+    @Test
+    void distinctEstimateStaysCloseForManyValues() {
+        StringBuilder csv = new StringBuilder("value\n");
+        int distinct = 100_000;
+        for (int i = 0; i < distinct * 2; i++) {
+            csv.append("v").append(i % distinct).append('\n');
+        }
+
+        long estimate = analyze(csv.toString(), 64 * 1024).getProfile().getColumns().get(0).getDistinctEstimate();
+        assertEquals(distinct, estimate, distinct * 0.05);
+    }
+
+    private CsvAnalyzer analyze(String csv, int chunkSize) {
+        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+        CsvAnalyzer analyzer = new CsvAnalyzer();
+        for (int offset = 0; offset < bytes.length; offset += chunkSize) {
+            analyzer.accept(bytes, offset, Math.min(chunkSize, bytes.length - offset));
+        }
+        analyzer.complete();
+        return analyzer;
+    }
+}
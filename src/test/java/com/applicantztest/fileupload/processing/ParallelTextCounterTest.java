@@ -0,0 +1,107 @@
+package com.applicantztest.fileupload.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ParallelTextCounterTest {
+
+    private final ParallelTextCounter parallelTextCounter = new ParallelTextCounter(4, 1024, 16, 8);
+
+    @AfterEach
+    void shutdown() {
+        parallelTextCounter.shutdown();
+    }
+
+    @Test
+    void usesThresholdToSelectParallelPath() {
+        assertFalse(parallelTextCounter.shouldParallelize(1023));
+        assertTrue(parallelTextCounter.shouldParallelize(1024));
+    }
+
+    @Test
+    void stitchesWordsAndCrlfAcrossSplits() throws IOException {
+        String[] samples = {
+                "abcdefghijklmnopqrstuvwxyz0123456789 words straddle every split",
+                "a\r\nb\r\nc\r\nd\r\ne\r\nf\r\ng\r\nh\r\ni\r\nj\r\nk\r\nl\r\n",
+                "\r\n\r\n\r\n\r\n\r\n\r\n\r\n\r\n\r\n\r\n\r\n",
+                "-------- ------- symbols --------x------ only",
+                "ééééééééééééééé 中中中中中中中 😀😀😀😀😀 ١١١١١١١١",
+        };
+        for (String sample : samples) {
+            assertMatchesSequential(sample.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void randomContentMatchesSequentialCounting() throws IOException {
+        Random random = new Random(7);
+        String[] alphabet = { "ab", "9", " ", "\t", "\n", "\r", "\r\n", ",", "-", "é", "中", "😀", "\u0001" };
+
+        for (int sample = 0; sample < 300; sample++) {
+            StringBuilder text = new StringBuilder();
+            int tokens = random.nextInt(400);
+            for (int i = 0; i < tokens; i++) {
+                text.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            if (random.nextInt(4) == 0 && bytes.length > 0) {
+                bytes[random.nextInt(bytes.length)] = (byte) (0x80 + random.nextInt(0x80));
+            }
+            assertMatchesSequential(bytes);
+        }
+    }
+
+    private void assertMatchesSequential(byte[] content) throws IOException {
+        TextCounter sequential = new TextCounter();
+        sequential.accept(content, 0, content.length);
+        sequential.complete();
+
+        TextCounts forked = parallelTextCounter.count(ByteBuffer.wrap(content));
+        assertEquals(sequential.getLineCount(), forked.getLineCount(), "fork/join lines");
+        assertEquals(sequential.getWordCount(), forked.getWordCount(), "fork/join words");
+
+        for (int chunkSize : new int[] { 1, 5, 16, 33 }) {
+            TextCountingConsumer streaming = parallelTextCounter.newStreamingCounter();
+            for (int offset = 0; offset < content.length; offset += chunkSize) {
+                streaming.accept(content, offset, Math.min(chunkSize, content.length - offset));
+            }
+            streaming.complete();
+
+            assertEquals(sequential.getLineCount(), streaming.getCounts().getLineCount(),
+                    "streaming lines in chunks of " + chunkSize);
+            assertEquals(sequential.getWordCount(), streaming.getCounts().getWordCount(),
+                    "streaming words in chunks of " + chunkSize);
+
+            // off-heap buffers, like mapped file regions, in windows that end between characters
+            ByteBuffer direct = ByteBuffer.allocateDirect(content.length).put(content).flip();
+            TextCountingConsumer mapped = parallelTextCounter.newMappedCounter();
+            for (int offset = 0; offset < content.length;) {
+                int end = Math.min(offset + chunkSize, content.length);
+                if (end < content.length) {
+                    end = ParallelTextCounter.alignToCharBoundary(direct, end, offset);
+                    while (end == offset || end < content.length && (content[end] & 0xC0) == 0x80) {
+                        // a window smaller than the character, take the whole character
+                        end++;
+                    }
+                }
+                mapped.accept(direct.duplicate().limit(end).position(offset));
+                offset = end;
+            }
+            mapped.complete();
+
+            assertEquals(sequential.getLineCount(), mapped.getCounts().getLineCount(),
+                    "mapped lines in windows of " + chunkSize);
+            assertEquals(sequential.getWordCount(), mapped.getCounts().getWordCount(),
+                    "mapped words in windows of " + chunkSize);
+        }
+    }
+}
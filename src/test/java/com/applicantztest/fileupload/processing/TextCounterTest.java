@@ -0,0 +1,153 @@
+package com.applicantztest.fileupload.processing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+class TextCounterTest {
+
+    private static final Pattern WORD_PATTERN = Pattern.compile("\\s+");
+
+    private static final String[] GOLDEN_CORPUS = {
+            "",
+            "hello",
+            "hello world",
+            "hello world\n",
+            "hello\r\nworld\r\n",
+            "a\rb\rc",
+            "\n\n\n",
+            "\r\n\r\n",
+            "\r\r\n\n",
+            "   leading and trailing   \n",
+            "symbols - only , are ; not words !\n",
+            "--- ... ### @@@\n",
+            "id,name,email\n1,John,john@example.com\n2,Jane,jane@example.com\n",
+            "tabs\tand\u000Bvertical\fform feeds",
+            "control\u0001bytes \u0001 inside\u0002tokens",
+            "café naïve résumé",
+            "日本語 の テキスト",
+            "مرحبا بالعالم",
+            "emoji 😀 😀x only",
+            "nbsp\u00A0is\u00A0not\u00A0whitespace",
+            "\uFEFFbom first",
+            "line\u2028separator\u0085is not a terminator",
+            "½ ⅓ ² numbers",
+            "mixed\r\n\nline\rendings\n\r",
+    };
+
+    @Test
+    void goldenCorpusMatchesLineBasedCounting() throws IOException {
+        for (String text : GOLDEN_CORPUS) {
+            assertMatchesReference(text.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void malformedUtf8MatchesLineBasedCounting() throws IOException {
+        byte[][] samples = {
+                { (byte) 0xC3 },
+                { 'a', (byte) 0xC3, ' ', 'b' },
+                { (byte) 0xE0, (byte) 0x80, ' ', (byte) 0xC3, (byte) 0xA9 },
+                { (byte) 0xED, (byte) 0xA0, (byte) 0x80, ' ', 'x' },
+                { (byte) 0xF0, (byte) 0x9F, ' ', (byte) 0x80, (byte) 0x80, '\n' },
+                { (byte) 0xC0, (byte) 0xAF, ' ', (byte) 0xFF, ' ', (byte) 0xE4, (byte) 0xB8 },
+                { (byte) 0x80, (byte) 0x80, (byte) 0x80, (byte) 0x80, 'z' },
+        };
+        for (byte[] sample : samples) {
+            assertMatchesReference(sample);
+        }
+    }
+
+    @Test
+    void randomContentMatchesLineBasedCounting() throws IOException {
+        Random random = new Random(42);
+        String[] alphabet = { "a", "Z", "7", " ", "  ", "\t", "\n", "\r", "\r\n", ",", "-", ";", "\"",
+                "é", "中", "١", "\u00A0", "😀", "\u0001", "\u000B" };
+
+        for (int sample = 0; sample < 500; sample++) {
+            StringBuilder text = new StringBuilder();
+            int tokens = random.nextInt(200);
+            for (int i = 0; i < tokens; i++) {
+                text.append(alphabet[random.nextInt(alphabet.length)]);
+            }
+            byte[] bytes = text.toString().getBytes(StandardCharsets.UTF_8);
+            if (random.nextInt(4) == 0 && bytes.length > 0) {
+                bytes[random.nextInt(bytes.length)] = (byte) (0x80 + random.nextInt(0x80));
+            }
+            assertMatchesReference(bytes);
+        }
+    }
+
+    private void assertMatchesReference(byte[] content) throws IOException {
+        int[] expected = countLineBased(content);
+
+        for (int chunkSize : new int[] { 1, 2, 3, 7, 64, Math.max(1, content.length) }) {
+            TextCounter counter = new TextCounter();
+            for (int offset = 0; offset < content.length; offset += chunkSize) {
+                counter.accept(content, offset, Math.min(chunkSize, content.length - offset));
+            }
+            counter.complete();
+
+            String description = describe(content) + " in chunks of " + chunkSize;
+            assertEquals(expected[0], counter.getLineCount(), "lines for " + description);
+            assertEquals(expected[1], counter.getWordCount(), "words for " + description);
+        }
+    }
+
+    // The original readLine based counting, kept as the reference implementation
+    private int[] countLineBased(byte[] content) throws IOException {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new ByteArrayInputStream(content), StandardCharsets.UTF_8))) {
+            int lineCount = 0;
+            int wordCount = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineCount++;
+                wordCount += countWordsInLine(line);
+            }
+            return new int[] { lineCount, wordCount };
+        }
+    }
+
+    private int countWordsInLine(String line) {
+        String trimmedLine = line.trim();
+        if (trimmedLine.isEmpty()) {
+            return 0;
+        }
+        int wordCount = 0;
+        for (String word : WORD_PATTERN.split(trimmedLine)) {
+            String trimmedWord = word.trim();
+            if (!trimmedWord.isEmpty() && !isSingleSymbol(trimmedWord)) {
+                wordCount++;
+            }
+        }
+        return wordCount;
+    }
+
+    private boolean isSingleSymbol(String word) {
+        for (char c : word.toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String describe(byte[] content) {
+        List<String> hex = new ArrayList<>();
+        for (int i = 0; i < Math.min(content.length, 32); i++) {
+            hex.add(String.format("%02x", content[i]));
+        }
+        return "[" + String.join(" ", hex) + (content.length > 32 ? " ..." : "") + "]";
+    }
+}
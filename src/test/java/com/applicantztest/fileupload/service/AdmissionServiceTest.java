@@ -0,0 +1,122 @@
+package com.applicantztest.fileupload.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import com.applicantztest.fileupload.config.DatabaseConfig;
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+import com.applicantztest.fileupload.service.AdmissionService.Admission;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class AdmissionServiceTest {
+
+    private static final long KB = 1024;
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final FileUploadProperties properties = new FileUploadProperties();
+
+    @BeforeEach
+    void configure() {
+        DatabaseConfig.Admission admission = properties.getAdmission();
+        admission.setMemoryBudget(DataSize.ofMegabytes(1));
+        admission.setMaxRequestCost(DataSize.ofKilobytes(512));
+        admission.setDefaultMaxConcurrent(4);
+        admission.setMaxConcurrent(Map.of("single", 1));
+        admission.setMaxWait(Duration.ofMillis(10));
+        admission.setRetryAfter(Duration.ofSeconds(7));
+    }
+
+    @Test
+    void fullEndpointTurnsRequestsAwayUntilAPermitIsReleased() throws Exception {
+        AdmissionService admissionService = newService();
+        Admission first = admissionService.admit("single", 100 * KB);
+        assertTrue(first.isAdmitted(), "first request");
+
+        Admission second = admissionService.admit("single", 100 * KB);
+        assertFalse(second.isAdmitted(), "second request");
+        assertEquals(UploadMetrics.ADMISSION_CONCURRENCY, second.getRejection());
+        second.release();
+        assertTrue(admissionService.admit("other", 100 * KB).isAdmitted(), "other endpoints have their own pool");
+
+        first.release();
+        assertTrue(admissionService.admit("single", 100 * KB).isAdmitted(), "admitted once released");
+        assertEquals(1, admissionCount("single", UploadMetrics.ADMISSION_CONCURRENCY));
+        assertEquals(2, admissionCount("single", UploadMetrics.ADMITTED));
+    }
+
+    @Test
+    void exhaustedBudgetTurnsRequestsAwayAndReturnsTheirPermit() throws Exception {
+        AdmissionService admissionService = newService();
+        Admission first = admissionService.admit("bulk", 512 * KB);
+        Admission second = admissionService.admit("bulk", 512 * KB);
+        assertTrue(first.isAdmitted() && second.isAdmitted(), "within the budget");
+
+        Admission third = admissionService.admit("bulk", 64 * KB);
+        assertEquals(UploadMetrics.ADMISSION_MEMORY, third.getRejection());
+        assertEquals(2, gauge("upload.admission.active"), "the rejected request holds no permit");
+
+        first.release();
+        second.release();
+        assertEquals(0, gauge("upload.admission.active"), "permits released");
+        assertEquals(0, gauge("upload.admission.memory.reserved"), "budget released");
+        assertTrue(admissionService.admit("bulk", 512 * KB).isAdmitted(), "admitted once released");
+    }
+
+    @Test
+    void requestsAreChargedTheirLengthWithinTheMinimumAndMaximumCost() throws Exception {
+        AdmissionService admissionService = newService();
+
+        assertReserved(admissionService, 10, AdmissionService.MIN_REQUEST_COST);
+        assertReserved(admissionService, 100 * KB, 100 * KB);
+        assertReserved(admissionService, 100 * KB + 1, 101 * KB);
+        assertReserved(admissionService, 10 * 1024 * KB, 512 * KB);
+        assertReserved(admissionService, -1, 512 * KB);
+    }
+
+    @Test
+    void retryAfterIsAtLeastOneSecond() {
+        assertEquals(7, newService().getRetryAfterSeconds());
+
+        properties.getAdmission().setRetryAfter(Duration.ofMillis(100));
+        assertEquals(1, newService().getRetryAfterSeconds());
+    }
+
+    @Test
+    void admittedRequestHasNoRejection() throws Exception {
+        Admission admission = newService().admit("stream", 0);
+        assertTrue(admission.isAdmitted());
+        assertNull(admission.getRejection());
+        admission.release();
+    }
+
+    private void assertReserved(AdmissionService admissionService, long contentLength, long expected)
+            throws Exception {
+        Admission admission = admissionService.admit("stream", contentLength);
+        assertEquals(expected, gauge("upload.admission.memory.reserved"), "charge for " + contentLength);
+        admission.release();
+    }
+
+    private AdmissionService newService() {
+        return new AdmissionService(new UploadMetrics(registry), properties);
+    }
+
+    private long gauge(String name) {
+        return (long) registry.get(name).gauge().value();
+    }
+
+    private long admissionCount(String endpoint, String outcome) {
+        return (long) registry.get("upload.admission.requests").tag("endpoint", endpoint).tag("outcome", outcome)
+                .counter().count();
+    }
+}
@@ -0,0 +1,199 @@
+package com.applicantztest.fileupload.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.dto.BulkUploadResult;
+import com.applicantztest.fileupload.dto.FileResult;
+import com.applicantztest.fileupload.metrics.UploadMetrics;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+
+@SpringBootTest
+class BulkUploadServiceTest {
+
+    @Autowired
+    private BulkUploadService bulkUploadService;
+
+    @Autowired
+    private FileManageService fileManageService;
+
+    @Autowired
+    private FileValidationService fileValidationService;
+
+    @Autowired
+    private UploadMetrics uploadMetrics;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void summaryKeepsRequestOrderAndListsRejectedEntries() throws Exception {
+        BulkUploadResult result = bulkUploadService.upload(List.of(
+                part("first.txt", uniqueContent()),
+                part("program.exe", uniqueContent()),
+                part("empty.txt", new byte[0]),
+                part("last.csv", ("name,count\nbulk," + UUID.randomUUID() + "\n").getBytes(StandardCharsets.UTF_8))));
+
+        List<FileResult> files = result.getFiles();
+        assertEquals(List.of("first.txt", "program.exe", "empty.txt", "last.csv"),
+                files.stream().map(FileResult::getFilename).toList());
+        assertSaved(files.get(0));
+        assertRejected(files.get(1));
+        assertRejected(files.get(2));
+        assertSaved(files.get(3));
+        assertEquals(4, result.getTotalFiles());
+        assertEquals(2, result.getSuccessCount());
+        assertEquals(2, result.getFailedCount());
+    }
+
+    @Test
+    void secondCopyWithinOneRequestIsADuplicate() throws Exception {
+        byte[] content = uniqueContent();
+
+        List<FileResult> files = bulkUploadService.upload(List.of(
+                part("original.txt", content),
+                part("copy.txt", content))).getFiles();
+
+        assertSaved(files.get(0));
+        assertRejected(files.get(1));
+        assertEquals(FileValidationService.DUPLICATE_CONTENT_MESSAGE, files.get(1).getErrorMessage());
+    }
+
+    @Test
+    void requestWithMoreEntriesThanTheLimitIsRefused() throws Exception {
+        FileUploadProperties properties = new FileUploadProperties();
+        properties.getBulk().setMaxEntries(2);
+        properties.getBulk().setParallelism(1);
+        BulkUploadService limited = new BulkUploadService(fileManageService, fileValidationService, uploadMetrics,
+                properties);
+        try {
+            List<MultipartFile> parts = List.of(part("a.txt", uniqueContent()), part("b.txt", uniqueContent()));
+            assertEquals(2, limited.upload(parts).getSuccessCount(), "at the limit");
+
+            MultipartFile archive = part("three.zip", zip(entry("c.txt", uniqueContent()),
+                    entry("d.txt", uniqueContent()), entry("e.txt", uniqueContent())));
+            assertThrows(IllegalArgumentException.class, () -> limited.upload(List.of(archive)));
+        } finally {
+            limited.shutdown();
+        }
+    }
+
+    @Test
+    void entryInflatingPastTheSizeLimitIsRejected() throws Exception {
+        long maxFileSize = fileValidationService.getMaxFileSize();
+        byte[] large = "a\n".repeat((int) (maxFileSize / 2) + 1).getBytes(StandardCharsets.US_ASCII);
+        byte[] archive = zip(entry("small.txt", uniqueContent()), entry("large.txt", large));
+        // the central directory claims a few bytes, so the limit is only hit while inflating
+        declareSize(archive, "large.txt", 100);
+
+        List<FileResult> files = bulkUploadService.upload(List.of(part("archive.zip", archive))).getFiles();
+
+        assertSaved(files.get(0));
+        assertRejected(files.get(1));
+        assertEquals("large.txt", files.get(1).getFilename());
+    }
+
+    @Test
+    void rowsAreSavedOneByOneWhenTheBatchInsertFails() throws Exception {
+        byte[] conflicting = uniqueContent();
+        // a row the duplicate check does not know about, so only the insert runs into it
+        long id = -ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        jdbcTemplate.update("INSERT INTO file_management (id, filename, file_type, file_size, line_count, word_count,"
+                + " processed_at, status, content_hash) VALUES (?, 'other.txt', 'txt', 0, 0, 0, CURRENT_TIMESTAMP,"
+                + " 'FAILED', ?)", id, sha256(conflicting));
+        try {
+            List<FileResult> files = bulkUploadService.upload(List.of(
+                    part("before.txt", uniqueContent()),
+                    part("conflicting.txt", conflicting),
+                    part("after.txt", uniqueContent()))).getFiles();
+
+            assertSaved(files.get(0));
+            assertEquals(ProcessingStatus.FAILED, files.get(1).getStatus());
+            assertNotNull(files.get(1).getId(), "saved as a failed row");
+            assertEquals(FileValidationService.DUPLICATE_CONTENT_MESSAGE, files.get(1).getErrorMessage());
+            assertSaved(files.get(2));
+        } finally {
+            jdbcTemplate.update("DELETE FROM file_management WHERE id = ?", id);
+        }
+    }
+
+    private static void assertSaved(FileResult file) {
+        assertEquals(ProcessingStatus.SUCCESS, file.getStatus(), file.getFilename());
+        assertNotNull(file.getId(), file.getFilename());
+        assertTrue(file.getLineCount() > 0, file.getFilename());
+    }
+
+    private static void assertRejected(FileResult file) {
+        assertEquals(ProcessingStatus.FAILED, file.getStatus(), file.getFilename());
+        assertNull(file.getId(), file.getFilename());
+        assertNotNull(file.getErrorMessage(), file.getFilename());
+    }
+
+    private static MockMultipartFile part(String filename, byte[] content) {
+        return new MockMultipartFile("files", filename, "application/octet-stream", content);
+    }
+
+    private static ZipContent entry(String name, byte[] content) {
+        return new ZipContent(name, content);
+    }
+
+    private static byte[] zip(ZipContent... entries) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (ZipContent entry : entries) {
+                zip.putNextEntry(new ZipEntry(entry.name()));
+                zip.write(entry.content());
+                zip.closeEntry();
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    // rewrites the uncompressed size of an entry in the central directory
+    private static void declareSize(byte[] archive, String name, int size) {
+        ByteBuffer buffer = ByteBuffer.wrap(archive).order(ByteOrder.LITTLE_ENDIAN);
+        byte[] nameBytes = name.getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i + 46 + nameBytes.length <= archive.length; i++) {
+            if (buffer.getInt(i) == 0x02014b50 && buffer.getShort(i + 28) == nameBytes.length
+                    && ByteBuffer.wrap(archive, i + 46, nameBytes.length).equals(ByteBuffer.wrap(nameBytes))) {
+                buffer.putInt(i + 24, size);
+                return;
+            }
+        }
+        throw new IllegalArgumentException("No central directory entry for " + name);
+    }
+
+    private static byte[] uniqueContent() {
+        return ("bulk upload " + UUID.randomUUID() + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+
+    private record ZipContent(String name, byte[] content) {
+    }
+}
@@ -0,0 +1,198 @@
+package com.applicantztest.fileupload.service;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.dto.ChunkedUploadStatus;
+import com.applicantztest.fileupload.exception.FileManageException;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.storage.BlobStore;
+
+@SpringBootTest
+class ChunkedUploadServiceTest {
+
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private ChunkedUploadService chunkedUploadService;
+
+    @Autowired
+    private FileManageService fileManageService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private FileUploadProperties fileUploadProperties;
+
+    @Test
+    void chunksAtIncreasingOffsetsCompleteIntoOneFile() throws Exception {
+        byte[] content = content(100);
+        String uploadId = chunkedUploadService.initiate("chunked.txt", content.length).getUploadId();
+
+        for (int offset = 0; offset < content.length; offset += CHUNK_SIZE) {
+            ChunkedUploadStatus status = writeChunk(uploadId, content, offset);
+            assertEquals(Math.min(offset + CHUNK_SIZE, content.length), status.getReceivedBytes(), "received");
+        }
+        ChunkedUploadStatus completed = chunkedUploadService.complete(uploadId);
+
+        assertEquals(ProcessingStatus.SUCCESS, completed.getStatus());
+        assertEquals(100L, completed.getLineCount(), "lines");
+        assertEquals(500L, completed.getWordCount(), "words");
+        String contentHash = fileManageService.getFileDetails(completed.getFileId()).orElseThrow().getContentHash();
+        try (InputStream stored = blobStore.open(contentHash)) {
+            assertArrayEquals(content, stored.readAllBytes(), "stored content");
+        }
+        assertThrows(NoSuchElementException.class, () -> chunkedUploadService.getStatus(uploadId));
+    }
+
+    @Test
+    void resentChunkIsAcknowledgedAndConflictingOneRejected() throws Exception {
+        byte[] content = content(50);
+        String uploadId = chunkedUploadService.initiate("resent.txt", content.length).getUploadId();
+        writeChunk(uploadId, content, 0);
+        writeChunk(uploadId, content, CHUNK_SIZE);
+
+        ChunkedUploadStatus retried = writeChunk(uploadId, content, 0);
+        assertEquals(2 * CHUNK_SIZE, retried.getReceivedBytes(), "a retry does not move the offset");
+
+        byte[] other = Arrays.copyOf(content, CHUNK_SIZE);
+        other[0] = 'X';
+        assertThrows(IllegalStateException.class, () -> chunkedUploadService.writeChunk(uploadId, 0,
+                sha256(other), new ByteArrayInputStream(other)));
+        chunkedUploadService.abort(uploadId);
+    }
+
+    @Test
+    void chunkLeavingAGapIsRejected() throws Exception {
+        byte[] content = content(50);
+        String uploadId = chunkedUploadService.initiate("gap.txt", content.length).getUploadId();
+        writeChunk(uploadId, content, 0);
+
+        assertThrows(IllegalStateException.class, () -> writeChunk(uploadId, content, 2 * CHUNK_SIZE));
+        assertEquals(CHUNK_SIZE, chunkedUploadService.getStatus(uploadId).getReceivedBytes());
+        chunkedUploadService.abort(uploadId);
+    }
+
+    @Test
+    void uploadResumesAfterAChecksumMismatch() throws Exception {
+        byte[] content = content(30);
+        String uploadId = chunkedUploadService.initiate("mismatch.txt", content.length).getUploadId();
+        writeChunk(uploadId, content, 0);
+
+        byte[] chunk = Arrays.copyOfRange(content, CHUNK_SIZE, content.length);
+        byte[] corrupted = chunk.clone();
+        corrupted[10] ^= 1;
+        assertThrows(IllegalArgumentException.class, () -> chunkedUploadService.writeChunk(uploadId, CHUNK_SIZE,
+                sha256(chunk), new ByteArrayInputStream(corrupted)));
+        assertEquals(CHUNK_SIZE, chunkedUploadService.getStatus(uploadId).getReceivedBytes(), "resume offset");
+
+        writeChunk(uploadId, content, CHUNK_SIZE);
+        ChunkedUploadStatus completed = chunkedUploadService.complete(uploadId);
+        assertEquals(30L, completed.getLineCount(), "lines");
+        assertEquals(150L, completed.getWordCount(), "words");
+    }
+
+    @Test
+    void chunkCutOffMidwayCanBeResent() throws Exception {
+        byte[] content = content(40);
+        String uploadId = chunkedUploadService.initiate("broken.txt", content.length).getUploadId();
+        byte[] chunk = Arrays.copyOf(content, CHUNK_SIZE);
+
+        InputStream broken = new FilterInputStream(new ByteArrayInputStream(chunk, 0, CHUNK_SIZE / 2)) {
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read == -1) {
+                    throw new IOException("Connection reset");
+                }
+                return read;
+            }
+        };
+        assertThrows(IOException.class,
+                () -> chunkedUploadService.writeChunk(uploadId, 0, sha256(chunk), broken));
+        assertEquals(0, chunkedUploadService.getStatus(uploadId).getReceivedBytes(), "nothing received");
+
+        for (int offset = 0; offset < content.length; offset += CHUNK_SIZE) {
+            writeChunk(uploadId, content, offset);
+        }
+        ChunkedUploadStatus completed = chunkedUploadService.complete(uploadId);
+        assertEquals(40L, completed.getLineCount(), "lines");
+        assertEquals(200L, completed.getWordCount(), "words");
+    }
+
+    @Test
+    void incompleteUploadCannotBeCompleted() throws Exception {
+        byte[] content = content(50);
+        String uploadId = chunkedUploadService.initiate("incomplete.txt", content.length).getUploadId();
+        writeChunk(uploadId, content, 0);
+
+        assertThrows(IllegalStateException.class, () -> chunkedUploadService.complete(uploadId));
+        assertEquals(CHUNK_SIZE, chunkedUploadService.getStatus(uploadId).getReceivedBytes());
+        chunkedUploadService.abort(uploadId);
+    }
+
+    @Test
+    void uploadsBeyondTheOpenLimitAreRefusedUntilOneCloses() throws Exception {
+        int limit = fileUploadProperties.getChunked().getMaxOpenUploads();
+        List<String> open = new ArrayList<>();
+        try {
+            FileManageException refused = null;
+            while (refused == null && open.size() <= limit) {
+                try {
+                    open.add(chunkedUploadService.initiate("open-" + open.size() + ".txt", 100).getUploadId());
+                } catch (FileManageException e) {
+                    refused = e;
+                }
+            }
+            assertNotNull(refused, "refused once the limit is reached");
+            assertEquals(limit, open.size(), "open uploads");
+
+            chunkedUploadService.abort(open.remove(0));
+            open.add(chunkedUploadService.initiate("reopened.txt", 100).getUploadId());
+        } finally {
+            for (String uploadId : open) {
+                chunkedUploadService.abort(uploadId);
+            }
+        }
+    }
+
+    private ChunkedUploadStatus writeChunk(String uploadId, byte[] content, int offset) throws Exception {
+        byte[] chunk = Arrays.copyOfRange(content, offset, Math.min(offset + CHUNK_SIZE, content.length));
+        return chunkedUploadService.writeChunk(uploadId, offset, sha256(chunk), new ByteArrayInputStream(chunk));
+    }
+
+    // lines of five words, unique per call
+    private static byte[] content(int lines) {
+        String id = UUID.randomUUID().toString();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < lines; i++) {
+            text.append(String.format("line %04d of upload %s\n", i, id));
+        }
+        return text.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
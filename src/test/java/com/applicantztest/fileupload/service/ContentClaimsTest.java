@@ -0,0 +1,91 @@
+package com.applicantztest.fileupload.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.storage.BlobStore;
+import com.applicantztest.fileupload.storage.BlobWriter;
+
+@SpringBootTest
+class ContentClaimsTest {
+
+    @Autowired
+    private FileManageService fileManageService;
+
+    @Autowired
+    private ContentClaims contentClaims;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void contentOfARowThatFailedToSaveIsDeleted() throws Exception {
+        byte[] content = uniqueContent();
+        FileManagement pending = fileManageService.createPendingFile("vanishing.txt", content.length);
+
+        // the row disappears while its content is read, so marking it processed fails
+        InputStream input = new FilterInputStream(new ByteArrayInputStream(content)) {
+            @Override
+            public int read(byte[] buffer, int offset, int length) throws IOException {
+                int read = super.read(buffer, offset, length);
+                if (read == -1) {
+                    jdbcTemplate.update("DELETE FROM file_management WHERE id = ?", pending.getId());
+                }
+                return read;
+            }
+        };
+        assertThrows(RuntimeException.class, () -> fileManageService.processPendingFile(pending.getId(), input));
+
+        assertFalse(blobStore.exists(sha256(content)), "orphaned content");
+    }
+
+    @Test
+    void discardKeepsContentAnotherUploadClaimed() throws Exception {
+        byte[] content = uniqueContent();
+        String contentHash = sha256(content);
+        store(content, contentHash);
+        store(content, contentHash);
+
+        assertFalse(contentClaims.discard(contentHash), "kept for the other upload");
+        assertTrue(blobStore.exists(contentHash), "claimed content");
+        assertTrue(contentClaims.discard(contentHash), "deleted with the last claim");
+        assertFalse(blobStore.exists(contentHash), "discarded content");
+    }
+
+    private void store(byte[] content, String contentHash) throws IOException {
+        try (BlobWriter writer = blobStore.newWriter()) {
+            try (OutputStream output = writer.getOutputStream()) {
+                output.write(content);
+            }
+            contentClaims.commit(writer, contentHash);
+        }
+    }
+
+    private static byte[] uniqueContent() {
+        return ("content claims " + UUID.randomUUID() + "\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
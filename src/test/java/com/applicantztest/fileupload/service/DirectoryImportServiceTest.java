@@ -0,0 +1,52 @@
+package com.applicantztest.fileupload.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.applicantztest.fileupload.config.DatabaseConfig.FileUploadProperties;
+import com.applicantztest.fileupload.dto.FileResult;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+
+@SpringBootTest
+class DirectoryImportServiceTest {
+
+    @Autowired
+    private DirectoryImportService directoryImportService;
+
+    @Autowired
+    private FileUploadProperties fileUploadProperties;
+
+    @Test
+    void duplicateWithinOneDropIsRejectedAndLeftInTheFolder() throws Exception {
+        String folder = "drop-" + UUID.randomUUID();
+        Path dir = Files.createDirectories(Paths.get(fileUploadProperties.getUploadDir()).toAbsolutePath()
+                .normalize().resolve("import").resolve(folder));
+        String content = "imported once " + UUID.randomUUID() + "\n";
+        Path first = Files.writeString(dir.resolve("a.txt"), content, StandardCharsets.UTF_8);
+        Path copy = Files.writeString(dir.resolve("b.txt"), content, StandardCharsets.UTF_8);
+        Path other = Files.writeString(dir.resolve("c.txt"), "other " + UUID.randomUUID() + "\n",
+                StandardCharsets.UTF_8);
+
+        List<FileResult> results = directoryImportService.importDirectory(folder).getFiles();
+
+        assertEquals(ProcessingStatus.SUCCESS, results.get(0).getStatus(), "a.txt");
+        assertEquals(ProcessingStatus.FAILED, results.get(1).getStatus(), "b.txt");
+        assertEquals(FileValidationService.DUPLICATE_CONTENT_MESSAGE, results.get(1).getErrorMessage());
+        assertEquals(ProcessingStatus.SUCCESS, results.get(2).getStatus(), "c.txt");
+        assertFalse(Files.exists(first), "imported file moved into the store");
+        assertFalse(Files.exists(other), "other imported file moved into the store");
+        assertTrue(Files.exists(copy), "rejected duplicate stays in the folder");
+    }
+}
@@ -0,0 +1,92 @@
+package com.applicantztest.fileupload.service;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class DuplicateUploadTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private DuplicateIndex duplicateIndex;
+
+    @Autowired
+    private FileManageService fileManageService;
+
+    @Test
+    void sameContentUnderAnotherNameIsRejected() throws Exception {
+        byte[] content = uniqueContent();
+        String hash = sha256(content);
+        assertFalse(duplicateIndex.isDuplicate(hash), "new content");
+
+        upload("first.txt", content).andExpect(status().isCreated());
+        assertTrue(duplicateIndex.isDuplicate(hash), "registered after saving");
+
+        upload("second.txt", content)
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(content().string(FileValidationService.DUPLICATE_CONTENT_MESSAGE));
+    }
+
+    @Test
+    void duplicateMissingFromTheCacheIsFoundInTheDatabase() throws Exception {
+        byte[] content = uniqueContent();
+        upload("cached.txt", content).andExpect(status().isCreated());
+
+        duplicateIndex.evict(sha256(content));
+        upload("uncached.txt", content).andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void contentCanBeUploadedAgainOnceItsFileIsDeleted() throws Exception {
+        byte[] content = uniqueContent();
+        String response = upload("deleted.txt", content)
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        Long id = objectMapper.readTree(response).get("id").asLong();
+
+        assertTrue(fileManageService.deleteFileFromDatabase(id), "deleted");
+        assertFalse(duplicateIndex.isDuplicate(sha256(content)), "forgotten after deleting");
+        upload("again.txt", content)
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.status").value("SUCCESS"));
+    }
+
+    private ResultActions upload(String filename, byte[] content) throws Exception {
+        return mockMvc.perform(put("/api/files/{name}", filename)
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .content(content));
+    }
+
+    private static byte[] uniqueContent() {
+        return ("duplicate test " + UUID.randomUUID() + "\nsecond line\n").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String sha256(byte[] content) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+    }
+}
@@ -0,0 +1,102 @@
+package com.applicantztest.fileupload.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.applicantztest.fileupload.dto.FileDetails;
+import com.applicantztest.fileupload.dto.FileSummary;
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+
+@SpringBootTest
+class FileMetadataCacheTest {
+
+    @Autowired
+    private FileManageService fileManageService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // each test filters the history by its own file type, so other rows never show up
+    private final String fileType = "t" + UUID.randomUUID().toString().substring(0, 8);
+
+    @Test
+    void saveEvictsHistoryPages() {
+        FileManagement first = save("first");
+        assertEquals(List.of(first.getId()), history(null));
+        assertSame(fileManageService.getHistoryPage(null, fileType, null, 20),
+                fileManageService.getHistoryPage(null, fileType, null, 20), "page served from the cache");
+
+        FileManagement second = save("second");
+
+        assertEquals(List.of(second.getId(), first.getId()), history(null));
+    }
+
+    @Test
+    void statusUpdateEvictsTheFileAndHistoryPages() {
+        FileManagement pending = fileManageService.saveToDatabase(
+                new FileManagement("pending." + fileType, fileType, 10L));
+        assertEquals(ProcessingStatus.PENDING, details(pending).getStatus());
+        assertEquals(List.of(pending.getId()), history(ProcessingStatus.PENDING));
+
+        fileManageService.updateStatus(pending, ProcessingStatus.FAILED, "Processing error: test");
+
+        assertEquals(ProcessingStatus.FAILED, details(pending).getStatus());
+        assertEquals("Processing error: test", details(pending).getErrorMessage());
+        assertTrue(history(ProcessingStatus.PENDING).isEmpty(), "no longer pending");
+        assertEquals(List.of(pending.getId()), history(ProcessingStatus.FAILED));
+    }
+
+    @Test
+    void deleteEvictsTheFileAndHistoryPages() {
+        FileManagement file = save("deleted");
+        details(file);
+        assertEquals(List.of(file.getId()), history(null));
+
+        assertTrue(fileManageService.deleteFileFromDatabase(file.getId()));
+
+        assertTrue(fileManageService.getFileDetails(file.getId()).isEmpty(), "deleted file");
+        assertTrue(history(null).isEmpty(), "deleted from the history");
+    }
+
+    @Test
+    void purgeEvictsTheFilesAndHistoryPages() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(1);
+        FileManagement file = save("purged");
+        jdbcTemplate.update("UPDATE file_management SET processed_at = ? WHERE id = ?",
+                Timestamp.valueOf(cutoff.minusDays(1)), file.getId());
+        details(file);
+        assertEquals(List.of(file.getId()), history(null));
+
+        assertTrue(fileManageService.purgeBatch(ProcessingStatus.FAILED, cutoff, 100) >= 1);
+
+        assertTrue(fileManageService.getFileDetails(file.getId()).isEmpty(), "purged file");
+        assertTrue(history(null).isEmpty(), "purged from the history");
+    }
+
+    private FileManagement save(String name) {
+        return fileManageService.saveToDatabase(
+                new FileManagement(name + "." + fileType, fileType, 10L, "Processing error: test"));
+    }
+
+    private FileDetails details(FileManagement file) {
+        return fileManageService.getFileDetails(file.getId()).orElseThrow();
+    }
+
+    private List<Long> history(ProcessingStatus status) {
+        return fileManageService.getHistoryPage(status, fileType, null, 20).getItems().stream()
+                .map(FileSummary::getId)
+                .toList();
+    }
+}
@@ -0,0 +1,128 @@
+package com.applicantztest.fileupload.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.applicantztest.fileupload.dto.ProcessingStat;
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.repository.CsvProfileRepo;
+import com.applicantztest.fileupload.repository.FileManageRepo;
+import com.applicantztest.fileupload.storage.BlobStore;
+import com.applicantztest.fileupload.storage.BlobWriter;
+
+@SpringBootTest
+class RetentionPurgeTest {
+
+    @Autowired
+    private FileManageService fileManageService;
+
+    @Autowired
+    private FileManageRepo fileManageRepo;
+
+    @Autowired
+    private CsvProfileRepo csvProfileRepo;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ContentClaims contentClaims;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDateTime cutoff = LocalDateTime.now().minusDays(1);
+
+    @Test
+    void purgeRemovesOldRowsOfTheStatusWithTheirProfilesAndContent() throws Exception {
+        FileManagement oldCsv = age(upload("old.csv", "id,name\n1,a\n2," + UUID.randomUUID() + "\n"));
+        FileManagement recent = upload("recent.txt", "recent " + UUID.randomUUID() + "\n");
+        FileManagement oldFailed = age(fileManageService.saveToDatabase(
+                new FileManagement("failed.txt", "txt", 10L, "Processing error: test")));
+        Long profileId = oldCsv.getCsvProfile().getId();
+        assertNotNull(profileId, "csv profile");
+        ProcessingStat before = fileManageService.getProcessingStatistics();
+
+        assertEquals(1, fileManageService.purgeBatch(ProcessingStatus.SUCCESS, cutoff, 100));
+
+        assertFalse(fileManageRepo.existsById(oldCsv.getId()), "old row");
+        assertFalse(csvProfileRepo.existsById(profileId), "its csv profile");
+        assertFalse(blobStore.exists(oldCsv.getContentHash()), "its content");
+        assertTrue(fileManageRepo.existsById(recent.getId()), "recent row");
+        assertTrue(blobStore.exists(recent.getContentHash()), "recent content");
+        assertTrue(fileManageRepo.existsById(oldFailed.getId()), "row of another status");
+
+        ProcessingStat after = fileManageService.getProcessingStatistics();
+        assertEquals(before.getTotalFiles() - 1, after.getTotalFiles(), "total files");
+        assertEquals(before.getSuccessfulFiles() - 1, after.getSuccessfulFiles(), "successful files");
+        assertEquals(before.getTotalLines() - oldCsv.getLineCount(), after.getTotalLines(), "total lines");
+
+        assertEquals(1, fileManageService.purgeBatch(ProcessingStatus.FAILED, cutoff, 100));
+        assertFalse(fileManageRepo.existsById(oldFailed.getId()), "old failed row");
+    }
+
+    @Test
+    void purgeDeletesAtMostOneBatch() {
+        for (int i = 0; i < 3; i++) {
+            age(fileManageService.saveToDatabase(
+                    new FileManagement("failed-" + i + ".txt", "txt", 10L, "Processing error: test")));
+        }
+
+        assertEquals(2, fileManageService.purgeBatch(ProcessingStatus.FAILED, cutoff, 2));
+        assertEquals(1, fileManageService.purgeBatch(ProcessingStatus.FAILED, cutoff, 2));
+        assertEquals(0, fileManageService.purgeBatch(ProcessingStatus.FAILED, cutoff, 2));
+    }
+
+    @Test
+    void contentClaimedByAnUploadInFlightIsKept() throws Exception {
+        byte[] content = ("claimed " + UUID.randomUUID() + "\n").getBytes(StandardCharsets.UTF_8);
+        FileManagement old = age(upload("claimed.txt", new String(content, StandardCharsets.UTF_8)));
+        String contentHash = old.getContentHash();
+
+        // an identical upload stored its copy, finding the blob there, but has not saved its row yet
+        try (BlobWriter writer = blobStore.newWriter()) {
+            try (OutputStream output = writer.getOutputStream()) {
+                output.write(content);
+            }
+            contentClaims.commit(writer, contentHash);
+        }
+
+        assertEquals(1, fileManageService.purgeBatch(ProcessingStatus.SUCCESS, cutoff, 100));
+        assertFalse(fileManageRepo.existsById(old.getId()), "purged row");
+        assertTrue(blobStore.exists(contentHash), "claimed content");
+
+        contentClaims.release(contentHash);
+        assertTrue(contentClaims.deleteIfUnreferenced(contentHash), "deleted once released");
+        assertFalse(blobStore.exists(contentHash), "released content");
+    }
+
+    private FileManagement upload(String filename, String text) throws Exception {
+        byte[] content = text.getBytes(StandardCharsets.UTF_8);
+        FileManagement saved = fileManageService.processAndSave(filename, content.length,
+                new ByteArrayInputStream(content));
+        assertEquals(ProcessingStatus.SUCCESS, saved.getStatus(), saved.getErrorMessage());
+        return saved;
+    }
+
+    // processed two days ago, well before the cutoff
+    private FileManagement age(FileManagement file) {
+        jdbcTemplate.update("UPDATE file_management SET processed_at = ? WHERE id = ?",
+                Timestamp.valueOf(cutoff.minusDays(1)), file.getId());
+        return file;
+    }
+}
@@ -0,0 +1,149 @@
+package com.applicantztest.fileupload.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.applicantztest.fileupload.dto.ProcessingStat;
+import com.applicantztest.fileupload.model.FileManagement;
+import com.applicantztest.fileupload.model.ProcessingStatsSnapshot;
+import com.applicantztest.fileupload.model.ProcessingStatus;
+import com.applicantztest.fileupload.repository.FileManageRepo;
+import com.applicantztest.fileupload.repository.ProcessingStatsRepo;
+
+@SpringBootTest
+class StatisticsAggregateTest {
+
+    private static final int WRITERS = 4;
+
+    @Autowired
+    private StatisticsAggregate statisticsAggregate;
+
+    @Autowired
+    private FileManageService fileManageService;
+
+    @Autowired
+    private FileManageRepo fileManageRepo;
+
+    @Autowired
+    private ProcessingStatsRepo statsRepo;
+
+    @Test
+    void savesAndDeletesMoveTheCounters() {
+        ProcessingStat before = statisticsAggregate.snapshot();
+        FileManagement saved = fileManageService.saveToDatabase(
+                new FileManagement("counted.txt", "txt", 100L, 10L, 20L));
+
+        ProcessingStat after = statisticsAggregate.snapshot();
+        assertEquals(before.getTotalFiles() + 1, after.getTotalFiles(), "total files");
+        assertEquals(before.getSuccessfulFiles() + 1, after.getSuccessfulFiles(), "successful files");
+        assertEquals(before.getTotalLines() + 10, after.getTotalLines(), "total lines");
+        assertEquals(before.getTotalWords() + 20, after.getTotalWords(), "total words");
+
+        fileManageService.deleteFileFromDatabase(saved.getId());
+        assertEquals(before, statisticsAggregate.snapshot());
+    }
+
+    @Test
+    void snapshotWrittenOnACleanShutdownIsLoaded() {
+        ProcessingStat stored = new ProcessingStat(7, 4, 3, 40, 80);
+        store(stored, LocalDateTime.now(), true);
+        try {
+            statisticsAggregate.load();
+
+            assertEquals(stored, statisticsAggregate.snapshot());
+            assertFalse(statsRepo.findById(ProcessingStatsSnapshot.SNAPSHOT_ID).orElseThrow().isCleanShutdown(),
+                    "marked as lagging behind once loaded");
+        } finally {
+            statisticsAggregate.reconcile();
+        }
+    }
+
+    @Test
+    void snapshotLeftByACrashIsRecomputed() {
+        // flushed before a delete the crash lost; deletes leave no newer row behind
+        ProcessingStat actual = fileManageRepo.computeStatistics();
+        store(new ProcessingStat(actual.getTotalFiles() + 1, actual.getSuccessfulFiles() + 1,
+                actual.getFailedFiles(), actual.getTotalLines() + 10, actual.getTotalWords() + 20),
+                LocalDateTime.now(), false);
+
+        statisticsAggregate.load();
+        assertEquals(fileManageRepo.computeStatistics(), statisticsAggregate.snapshot());
+    }
+
+    @Test
+    void snapshotOlderThanTheLatestRowIsRecomputed() {
+        store(new ProcessingStat(), LocalDateTime.now().minusDays(1), true);
+        fileManageService.saveToDatabase(new FileManagement("newer.txt", "txt", 100L, 10L, 20L));
+
+        statisticsAggregate.load();
+        assertEquals(fileManageRepo.computeStatistics(), statisticsAggregate.snapshot());
+    }
+
+    @Test
+    void changesMadeDuringAReconcileAreCountedOnce() throws Exception {
+        AtomicBoolean reconciling = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int i = 0; i < WRITERS; i++) {
+                int writer = i;
+                writers.add(executor.submit(() -> {
+                    int n = 0;
+                    while (reconciling.get()) {
+                        change("reconcile-" + writer + "-" + n++ + ".txt");
+                    }
+                    // and some after the last reconcile
+                    for (int extra = 0; extra < 20; extra++) {
+                        change("reconcile-" + writer + "-" + n++ + ".txt");
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < 200; i++) {
+                statisticsAggregate.reconcile();
+            }
+            reconciling.set(false);
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(fileManageRepo.computeStatistics(), statisticsAggregate.snapshot());
+    }
+
+    private void store(ProcessingStat stats, LocalDateTime updatedAt, boolean cleanShutdown) {
+        statsRepo.save(new ProcessingStatsSnapshot(ProcessingStatsSnapshot.SNAPSHOT_ID, stats.getTotalFiles(),
+                stats.getSuccessfulFiles(), stats.getFailedFiles(), stats.getTotalLines(), stats.getTotalWords(),
+                updatedAt, cleanShutdown));
+    }
+
+    // queued, then processed or failed, and deleted again now and then, like an upload
+    private void change(String filename) {
+        FileManagement pending = fileManageService.saveToDatabase(new FileManagement(filename, "txt", 100L));
+        int outcome = Math.floorMod(filename.hashCode(), 3);
+        if (outcome == 0) {
+            fileManageService.updateStatus(pending, ProcessingStatus.FAILED, "test");
+            return;
+        }
+        pending.setLineCount(10L);
+        pending.setWordCount(20L);
+        FileManagement processed = fileManageService.updateStatus(pending, ProcessingStatus.SUCCESS, null);
+        if (outcome == 1) {
+            fileManageService.deleteFileFromDatabase(processed.getId());
+        }
+    }
+}